@@ -0,0 +1,114 @@
+package com.ltde.rutherford_d1.benchmarks;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ltde.rutherford_d1.dto.HealthSummaryDTO;
+import com.ltde.rutherford_d1.model.HealthStatus;
+import com.ltde.rutherford_d1.model.Parameter;
+import com.ltde.rutherford_d1.model.Patient;
+import com.ltde.rutherford_d1.model.PatientHealthRollup;
+import com.ltde.rutherford_d1.service.HealthAnalysisService;
+import com.ltde.rutherford_d1.service.HealthSummaryService;
+
+/**
+ * Per-patient health analysis as done when building summaries and alert lists: classification,
+ * abnormal parameter filtering, health score, summary DTOs and alert messages, for patients with
+ * 10 to 10,000 stored (already classified) measurements.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AnalysisBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int parameters;
+
+    private final HealthAnalysisService healthAnalysisService = new HealthAnalysisService();
+    // Repositories are only needed by the loading methods, not by the DTO mapping measured here
+    private final HealthSummaryService healthSummaryService = new HealthSummaryService(null, null, healthAnalysisService);
+
+    private Patient patient;
+    private List<Parameter> allParameters;
+    private List<Parameter> abnormalParameters;
+    private PatientHealthRollup rollup;
+
+    @Setup
+    public void setUp() {
+        patient = SyntheticPatients.create(1, parameters, true, 42);
+        allParameters = SyntheticPatients.parameters(patient);
+        abnormalParameters = healthAnalysisService.getAbnormalParameters(allParameters);
+
+        rollup = new PatientHealthRollup();
+        rollup.setPatientId(patient.getId());
+        for (Parameter parameter : allParameters) {
+            switch (parameter.getStatus()) {
+                case NORMAL -> rollup.setNormalCount(rollup.getNormalCount() + 1);
+                case LOW -> rollup.setLowCount(rollup.getLowCount() + 1);
+                case HIGH -> rollup.setHighCount(rollup.getHighCount() + 1);
+                case CRITICAL -> rollup.setCriticalCount(rollup.getCriticalCount() + 1);
+            }
+            rollup.setScorePoints(rollup.getScorePoints() + healthAnalysisService.getStatusPoints(parameter.getStatus()));
+        }
+    }
+
+    @Benchmark
+    public void calculateParameterStatus(Blackhole blackhole) {
+        for (Parameter parameter : allParameters) {
+            blackhole.consume(healthAnalysisService.calculateParameterStatus(
+                parameter.getValue(), parameter.getTest().getReferenceMin(), parameter.getTest().getReferenceMax()));
+        }
+    }
+
+    @Benchmark
+    public List<Parameter> getAbnormalParameters() {
+        return healthAnalysisService.getAbnormalParameters(patient);
+    }
+
+    @Benchmark
+    public int getHealthScore() {
+        return healthAnalysisService.getHealthScore(patient);
+    }
+
+    /**
+     * Summary from per-status counts, counted here from the parameters as the aggregate fallback does
+     */
+    @Benchmark
+    public HealthSummaryDTO createHealthSummaryFromCounts() {
+        Map<HealthStatus, Long> counts = new EnumMap<>(HealthStatus.class);
+        for (Parameter parameter : allParameters) {
+            counts.merge(parameter.getStatus(), 1L, Long::sum);
+        }
+        return healthSummaryService.createHealthSummary(new HealthSummaryService.StatusCounts(counts, null));
+    }
+
+    @Benchmark
+    public HealthSummaryDTO createHealthSummaryFromRollup() {
+        return healthSummaryService.createHealthSummary(rollup);
+    }
+
+    @Benchmark
+    public void generateAlertMessages(Blackhole blackhole) {
+        for (Parameter parameter : abnormalParameters) {
+            blackhole.consume(healthAnalysisService.generateAlertMessage(parameter, parameter.getTest(), parameter.getStatus()));
+        }
+    }
+}
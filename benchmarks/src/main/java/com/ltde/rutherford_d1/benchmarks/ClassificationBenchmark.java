@@ -0,0 +1,84 @@
+package com.ltde.rutherford_d1.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ltde.rutherford_d1.model.HealthStatus;
+import com.ltde.rutherford_d1.service.HealthAnalysisService;
+
+/**
+ * Scalar (boxed, one value per call) versus batch (primitive arrays) parameter classification.
+ * Values are spread around a 12-18 reference range so every status occurs and branches are unpredictable.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ClassificationBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private final HealthAnalysisService healthAnalysisService = new HealthAnalysisService();
+
+    private Double[] boxedValues;
+    private double[] values;
+    private double[] mins;
+    private double[] maxs;
+    private byte[] statuses;
+    private HealthStatus[] scalarStatuses;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        boxedValues = new Double[size];
+        values = new double[size];
+        mins = new double[size];
+        maxs = new double[size];
+        statuses = new byte[size];
+        scalarStatuses = new HealthStatus[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = 6 + random.nextDouble() * 18;
+            boxedValues[i] = values[i];
+            mins[i] = 12.0;
+            maxs[i] = 18.0;
+        }
+    }
+
+    @Benchmark
+    public void scalar(Blackhole blackhole) {
+        Double min = 12.0;
+        Double max = 18.0;
+        for (int i = 0; i < size; i++) {
+            scalarStatuses[i] = healthAnalysisService.calculateParameterStatus(boxedValues[i], min, max);
+        }
+        blackhole.consume(scalarStatuses);
+    }
+
+    @Benchmark
+    public void batchSharedRange(Blackhole blackhole) {
+        healthAnalysisService.calculateParameterStatuses(values, 12.0, 18.0, statuses);
+        blackhole.consume(statuses);
+    }
+
+    @Benchmark
+    public void batchPerRowRange(Blackhole blackhole) {
+        healthAnalysisService.calculateParameterStatuses(values, mins, maxs, statuses, 0, size);
+        blackhole.consume(statuses);
+    }
+}
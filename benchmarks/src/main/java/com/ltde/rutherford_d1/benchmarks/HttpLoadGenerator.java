@@ -0,0 +1,101 @@
+package com.ltde.rutherford_d1.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator for comparing request execution modes against a running application.
+ * Each of the concurrent clients (one virtual thread each) sends the next request as soon as the previous
+ * one completed; latencies of the measurement phase are reported as throughput and percentiles.
+ *
+ *   java -cp target/benchmarks.jar com.ltde.rutherford_d1.benchmarks.HttpLoadGenerator \
+ *       http://localhost:8080/test/1/trend 500 30 10
+ *
+ * Arguments: URL, concurrent clients, measured seconds, warm-up seconds (default 10).
+ */
+public class HttpLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: HttpLoadGenerator <url> <clients> <seconds> [warm-up seconds]");
+            System.exit(2);
+        }
+        URI uri = URI.create(args[0]);
+        int clients = Integer.parseInt(args[1]);
+        long measureNanos = Duration.ofSeconds(Long.parseLong(args[2])).toNanos();
+        long warmupNanos = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 10).toNanos();
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + measureNanos;
+        AtomicLong errors = new AtomicLong();
+
+        List<Future<long[]>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                results.add(executor.submit(() -> run(client, request, measureFrom, end, errors)));
+            }
+        }
+
+        long[] latencies = results.stream().map(HttpLoadGenerator::join).flatMapToLong(Arrays::stream).sorted().toArray();
+        double seconds = measureNanos / 1e9;
+        System.out.printf("%s, %d clients, %.0f s: %d requests, %.0f req/s, %d errors%n",
+            uri, clients, seconds, latencies.length, latencies.length / seconds, errors.get());
+        if (latencies.length > 0) {
+            System.out.printf("latency ms: p50 %.1f, p90 %.1f, p99 %.1f, max %.1f%n",
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                latencies[latencies.length - 1] / 1e6);
+        }
+    }
+
+    private static long[] run(HttpClient client, HttpRequest request, long measureFrom, long end, AtomicLong errors) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        for (long now = System.nanoTime(); now < end; now = System.nanoTime()) {
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                long done = System.nanoTime();
+                if (response.statusCode() >= 400) {
+                    errors.incrementAndGet();
+                } else if (now >= measureFrom && done <= end) {
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = done - now;
+                }
+            } catch (Exception e) {
+                errors.incrementAndGet();
+            }
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static long[] join(Future<long[]> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
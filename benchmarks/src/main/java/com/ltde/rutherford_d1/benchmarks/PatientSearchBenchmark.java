@@ -0,0 +1,79 @@
+package com.ltde.rutherford_d1.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ltde.rutherford_d1.repository.PatientSearchRow;
+import com.ltde.rutherford_d1.service.PatientTokenIndex;
+
+/**
+ * Latency distribution (sampled, so the p0.99 line is the p99) of typeahead searches over a PatientTokenIndex
+ * of seeded patients. The queries range from one letter, whose prefix covers many tokens, over common words
+ * and a word pair that never occurs together to a unique contact.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class PatientSearchBenchmark {
+
+    private static final String[] PET_NAMES = {"Max", "Bella", "Charlie", "Luna", "Lucy", "Cooper", "Daisy", "Milo",
+        "Bailey", "Molly", "Rocky", "Sadie", "Oscar", "Willow", "Finn", "Sophie", "Zoë", "Chloé", "Bruno", "Nala",
+        "Simba", "Pepper", "Ginger", "Shadow", "Biscuit", "Maple", "Olive", "Teddy", "Winston", "Juniper"};
+    private static final String[] SPECIES = {"Dog", "Cat", "Rabbit", "Horse", "Bird"};
+    private static final String[] BREEDS = {"Labrador", "Golden Retriever", "Poodle", "Beagle", "Dachshund", "Siamese",
+        "Bengal", "Maine Coon", "Persian", "Domestic Shorthair", "Lop", "Arabian", "Cockatiel", "Mixed",
+        "Border Collie", "German Shepherd", "Boxer", "Pug", "Ragdoll", "Sphynx"};
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael",
+        "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah",
+        "Charles", "Karen", "José", "Zoë", "Noah", "Emma", "Liam", "Olivia", "Ava", "Mia", "Lucas", "Amelia"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+        "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor",
+        "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Müller", "Álvarez", "O'Brien",
+        "Kowalski", "Nakamura", "Schmidt", "Rossi", "Dubois", "Jensen", "Novak"};
+
+    @Param({"1000000"})
+    private int patients;
+
+    @Param({"m", "max", "lab jo", "bella golden", "cat labrador", "zoe alv", "+1 (415) 55", "owner123456@"})
+    private String query;
+
+    private final PatientTokenIndex index = new PatientTokenIndex();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (long id = 1; id <= patients; id++) {
+            // Every third owner gave an e-mail address, the others a phone number
+            String contact = id % 3 == 0
+                ? "owner" + id + "@example.com"
+                : String.format("+1 (%03d) %03d-%04d", 200 + random.nextInt(800), random.nextInt(1000), random.nextInt(10000));
+            index.put(new PatientSearchRow(id, pick(PET_NAMES, random), pick(SPECIES, random), pick(BREEDS, random),
+                pick(FIRST_NAMES, random) + " " + pick(LAST_NAMES, random), contact));
+        }
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return index.search(query, 10);
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,116 @@
+package com.ltde.rutherford_d1.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ltde.rutherford_d1.dto.HealthSummaryDTO;
+import com.ltde.rutherford_d1.dto.PatientAlertSummaryDTO;
+import com.ltde.rutherford_d1.dto.PatientDetailDTO;
+import com.ltde.rutherford_d1.dto.TestSummaryDTO;
+import com.ltde.rutherford_d1.model.HealthStatus;
+import com.ltde.rutherford_d1.model.Parameter;
+import com.ltde.rutherford_d1.model.Patient;
+import com.ltde.rutherford_d1.service.HealthAnalysisService;
+import com.ltde.rutherford_d1.service.HealthSummaryService;
+
+/**
+ * Jackson serialisation of the patient detail and alert dashboard responses, configured like
+ * the application's ObjectMapper (ISO dates). The patient detail lists one test per ten
+ * measurements; the dashboard holds one alert summary per synthetic patient.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final ObjectWriter WRITER = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build()
+        .writer();
+
+    private static final HealthAnalysisService HEALTH_ANALYSIS = new HealthAnalysisService();
+    private static final HealthSummaryService HEALTH_SUMMARY = new HealthSummaryService(null, null, HEALTH_ANALYSIS);
+
+    @State(Scope.Thread)
+    public static class PatientDetailState {
+
+        @Param({"10", "1000", "10000"})
+        private int parameters;
+
+        private PatientDetailDTO patientDetail;
+
+        @Setup
+        public void setUp() {
+            Patient patient = SyntheticPatients.create(1, parameters, true, 42);
+            List<TestSummaryDTO> tests = patient.getTests().stream()
+                .map(test -> new TestSummaryDTO(test.getId(), test.getName()))
+                .toList();
+            patientDetail = new PatientDetailDTO(patient.getId(), patient.getName(), patient.getSpecies(),
+                patient.getBreed(), patient.getDateOfBirth(), patient.getOwnerName(), patient.getOwnerContact(),
+                summarize(SyntheticPatients.parameters(patient)), tests);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class AlertDashboardState {
+
+        @Param({"10", "1000"})
+        private int patients;
+
+        private List<PatientAlertSummaryDTO> alerts;
+
+        @Setup
+        public void setUp() {
+            alerts = new ArrayList<>();
+            for (int i = 1; i <= patients; i++) {
+                Patient patient = SyntheticPatients.create(i, 100, true, i);
+                List<Parameter> parameters = SyntheticPatients.parameters(patient);
+                HealthSummaryDTO summary = summarize(parameters);
+                Parameter worst = parameters.stream()
+                    .filter(parameter -> parameter.getStatus() != HealthStatus.NORMAL)
+                    .sorted(HealthAnalysisService.ALERT_PRIORITY)
+                    .findFirst()
+                    .orElse(null);
+                alerts.add(new PatientAlertSummaryDTO(patient.getId(), patient.getName(), patient.getSpecies(),
+                    patient.getBreed(), patient.getOwnerName(), patient.getOwnerContact(), summary.criticalCount(),
+                    summary.abnormalCount(), summary.healthScore(), parameters.get(parameters.size() - 1).getDatePerformed(),
+                    worst != null ? HEALTH_ANALYSIS.generateAlertMessage(worst, worst.getTest(), worst.getStatus()) : "No active alerts"));
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] patientDetail(PatientDetailState state) throws JsonProcessingException {
+        return WRITER.writeValueAsBytes(state.patientDetail);
+    }
+
+    @Benchmark
+    public byte[] alertDashboard(AlertDashboardState state) throws JsonProcessingException {
+        return WRITER.writeValueAsBytes(state.alerts);
+    }
+
+    private static HealthSummaryDTO summarize(List<Parameter> parameters) {
+        long[] counts = new long[4];
+        parameters.forEach(parameter -> counts[parameter.getStatus().ordinal()]++);
+        return HEALTH_SUMMARY.createHealthSummary(counts[0], counts[1], counts[2], counts[3]);
+    }
+}
@@ -0,0 +1,110 @@
+package com.ltde.rutherford_d1.benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.ltde.rutherford_d1.model.Parameter;
+import com.ltde.rutherford_d1.model.Patient;
+import com.ltde.rutherford_d1.model.Test;
+import com.ltde.rutherford_d1.service.HealthAnalysisService;
+
+/**
+ * Seeded, entity-only patients for benchmarks: measurements are spread over tests of ten analytes
+ * with realistic reference ranges, and roughly 70% normal, 25% low/high and 5% critical values.
+ */
+final class SyntheticPatients {
+
+    private record Analyte(String testName, String parameterName, String unit, double min, double max) {}
+
+    private static final Analyte[] ANALYTES = {
+        new Analyte("Complete Blood Count", "Hemoglobin", "g/dL", 12.0, 18.0),
+        new Analyte("Complete Blood Count", "White Blood Cells", "10^3/uL", 5.5, 16.9),
+        new Analyte("Complete Blood Count", "Platelets", "10^3/uL", 175.0, 500.0),
+        new Analyte("Chemistry Panel", "Glucose", "mg/dL", 74.0, 143.0),
+        new Analyte("Chemistry Panel", "Creatinine", "mg/dL", 0.5, 1.8),
+        new Analyte("Chemistry Panel", "BUN", "mg/dL", 7.0, 27.0),
+        new Analyte("Chemistry Panel", "ALT", "U/L", 10.0, 125.0),
+        new Analyte("Chemistry Panel", "Albumin", "g/dL", 2.3, 4.0),
+        new Analyte("Electrolytes", "Sodium", "mmol/L", 144.0, 160.0),
+        new Analyte("Electrolytes", "Potassium", "mmol/L", 3.5, 5.8),
+    };
+
+    private static final HealthAnalysisService HEALTH_ANALYSIS = new HealthAnalysisService();
+
+    /** Measurements per test, as in a long-running monitoring series */
+    private static final int PARAMETERS_PER_TEST = 10;
+
+    private SyntheticPatients() {
+    }
+
+    /**
+     * Build a patient with the given number of measurements. Statuses are left null when
+     * classified is false, so analysis code has to classify them itself.
+     */
+    static Patient create(long patientId, int parameterCount, boolean classified, long seed) {
+        Random random = new Random(seed);
+        Patient patient = new Patient();
+        patient.setId(patientId);
+        patient.setName("Patient " + patientId);
+        patient.setSpecies(random.nextBoolean() ? "Dog" : "Cat");
+        patient.setBreed("Mixed");
+        patient.setDateOfBirth(LocalDate.of(2015, 1, 1).plusDays(random.nextInt(3000)));
+        patient.setOwnerName("Owner " + patientId);
+        patient.setOwnerContact("555-" + (1000 + random.nextInt(9000)));
+        patient.setTests(new ArrayList<>());
+
+        long parameterId = patientId * 1_000_000;
+        LocalDate firstDate = LocalDate.of(2020, 1, 1);
+        for (int t = 0; t * PARAMETERS_PER_TEST < parameterCount; t++) {
+            Analyte analyte = ANALYTES[t % ANALYTES.length];
+            Test test = new Test();
+            test.setId(patientId * 10_000 + t);
+            test.setName(analyte.testName());
+            test.setParameterName(analyte.parameterName());
+            test.setUnit(analyte.unit());
+            test.setReferenceMin(analyte.min());
+            test.setReferenceMax(analyte.max());
+            test.setPatient(patient);
+            test.setParameters(new ArrayList<>());
+            patient.getTests().add(test);
+
+            int count = Math.min(PARAMETERS_PER_TEST, parameterCount - t * PARAMETERS_PER_TEST);
+            for (int i = 0; i < count; i++) {
+                Parameter parameter = new Parameter();
+                parameter.setId(parameterId++);
+                parameter.setValue(value(analyte, random));
+                parameter.setDatePerformed(firstDate.plusDays(t * PARAMETERS_PER_TEST + i));
+                parameter.setTest(test);
+                if (classified) {
+                    parameter.setStatus(HEALTH_ANALYSIS.calculateParameterStatus(
+                        parameter.getValue(), test.getReferenceMin(), test.getReferenceMax()));
+                }
+                test.getParameters().add(parameter);
+            }
+        }
+        return patient;
+    }
+
+    /**
+     * All measurements of a patient, in test order
+     */
+    static List<Parameter> parameters(Patient patient) {
+        List<Parameter> parameters = new ArrayList<>();
+        patient.getTests().forEach(test -> parameters.addAll(test.getParameters()));
+        return parameters;
+    }
+
+    private static double value(Analyte analyte, Random random) {
+        double range = analyte.max() - analyte.min();
+        double roll = random.nextDouble();
+        if (roll < 0.70) {
+            return analyte.min() + random.nextDouble() * range;
+        }
+        boolean low = random.nextBoolean();
+        // Within 30% of the range outside the limits is LOW/HIGH, beyond it CRITICAL
+        double deviation = range * (roll < 0.95 ? random.nextDouble() * 0.3 : 0.3 + random.nextDouble() * 0.5);
+        return low ? Math.max(0.01, analyte.min() - deviation) : analyte.max() + deviation;
+    }
+}
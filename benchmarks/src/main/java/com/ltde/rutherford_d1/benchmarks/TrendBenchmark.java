@@ -0,0 +1,99 @@
+package com.ltde.rutherford_d1.benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ltde.rutherford_d1.dto.TestTrendDTO;
+import com.ltde.rutherford_d1.model.HealthStatus;
+import com.ltde.rutherford_d1.model.Test;
+import com.ltde.rutherford_d1.model.TestTrendRollup;
+import com.ltde.rutherford_d1.repository.SeriesPoint;
+import com.ltde.rutherford_d1.service.TestTrendService;
+
+/**
+ * Cost of a trend report built from the maintained TestTrendRollup sums versus a least-squares
+ * fit that rescans the whole series, as the series grows. The incremental report reads the sums
+ * and the latest six measurements only, so its cost should not depend on the series length.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrendBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int points;
+
+    // Repositories are only needed by the loading overload, not by the computation measured here
+    private final TestTrendService trendService = new TestTrendService(null, null, null);
+
+    private final Test test = new Test();
+    private final TestTrendRollup rollup = new TestTrendRollup();
+    private List<SeriesPoint> recentPoints;
+    private int[] epochDays;
+    private double[] values;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        test.setId(1L);
+        test.setReferenceMin(0.5);
+        test.setReferenceMax(1.5);
+        epochDays = new int[points];
+        values = new double[points];
+        long firstDay = LocalDate.of(2000, 1, 1).toEpochDay();
+        for (int i = 0; i < points; i++) {
+            epochDays[i] = (int) (firstDay + i);
+            values[i] = 1.0 + i * 0.0001 + random.nextGaussian() * 0.05;
+            rollup.apply(epochDays[i], values[i], 1);
+        }
+
+        recentPoints = new ArrayList<>();
+        for (int i = points - 1; i >= Math.max(0, points - 6); i--) {
+            recentPoints.add(new SeriesPoint((long) i, LocalDate.ofEpochDay(epochDays[i]), values[i], HealthStatus.NORMAL));
+        }
+    }
+
+    @Benchmark
+    public TestTrendDTO incrementalTrend() {
+        return trendService.getTrend(test, rollup, recentPoints);
+    }
+
+    @Benchmark
+    public TestTrendRollup appendMeasurement() {
+        // Add and remove again so the sums stay the same across invocations
+        rollup.apply(epochDays[points - 1] + 1, 1.0, 1);
+        rollup.apply(epochDays[points - 1] + 1, 1.0, -1);
+        return rollup;
+    }
+
+    @Benchmark
+    public double fullRescanSlope() {
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+        for (int i = 0; i < points; i++) {
+            double x = epochDays[i] - epochDays[0];
+            sumX += x;
+            sumY += values[i];
+            sumXX += x * x;
+            sumXY += x * values[i];
+        }
+        return (points * sumXY - sumX * sumY) / (points * sumXX - sumX * sumX);
+    }
+}
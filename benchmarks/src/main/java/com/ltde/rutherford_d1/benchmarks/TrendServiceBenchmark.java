@@ -0,0 +1,146 @@
+package com.ltde.rutherford_d1.benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ltde.rutherford_d1.RutherfordD1Application;
+import com.ltde.rutherford_d1.dto.ParameterMeasurementDTO;
+import com.ltde.rutherford_d1.dto.TestTrendDTO;
+import com.ltde.rutherford_d1.model.Patient;
+import com.ltde.rutherford_d1.model.Test;
+import com.ltde.rutherford_d1.model.TestTrendRollup;
+import com.ltde.rutherford_d1.repository.ParameterRepository;
+import com.ltde.rutherford_d1.repository.PatientRepository;
+import com.ltde.rutherford_d1.repository.SeriesPoint;
+import com.ltde.rutherford_d1.repository.TestRepository;
+import com.ltde.rutherford_d1.repository.TestTrendRollupRepository;
+import com.ltde.rutherford_d1.service.ParameterService;
+import com.ltde.rutherford_d1.service.TestTrendService;
+
+/**
+ * TestTrendService.getTrend as the trend endpoint calls it, against the application running on in-memory H2:
+ * the rollup read, findRecentSeriesPoints and the report, for tests with 10 to 100,000 measurements. The
+ * missing-row case is a test whose trend row was deleted, and the rescan replays what a missing row cost
+ * before every test had one (the whole series read and summed on each call).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2) // The application starts cold in every fork
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class TrendServiceBenchmark {
+
+    /** Measurements recorded per transaction while seeding */
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    @Param({"10", "1000", "100000"})
+    private int points;
+
+    private ConfigurableApplicationContext context;
+    private TestTrendService trendService;
+    private ParameterRepository parameterRepository;
+    private TransactionTemplate transactionTemplate;
+    private Test test;
+    private Test testWithoutRow;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(RutherfordD1Application.class).run(
+            "--spring.datasource.url=jdbc:h2:mem:trend;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                + "DEFAULT_NULL_ORDERING=HIGH;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.show-sql=false",
+            "--server.port=0",
+            "--logging.level.root=warn");
+        trendService = context.getBean(TestTrendService.class);
+        parameterRepository = context.getBean(ParameterRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        Patient patient = new Patient();
+        patient.setName("Trend");
+        patient.setSpecies("Dog");
+        patient = context.getBean(PatientRepository.class).save(patient);
+        test = seedTest(patient);
+        testWithoutRow = seedTest(patient);
+        context.getBean(TestTrendRollupRepository.class).deleteById(testWithoutRow.getId());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TestTrendDTO getTrend() {
+        return trendService.getTrend(test);
+    }
+
+    @Benchmark
+    public TestTrendDTO getTrendWithoutRollupRow() {
+        return trendService.getTrend(testWithoutRow);
+    }
+
+    @Benchmark
+    public TestTrendRollup fullRescan() {
+        return transactionTemplate.execute(status -> {
+            TestTrendRollup rollup = new TestTrendRollup();
+            rollup.setTestId(test.getId());
+            for (SeriesPoint point : parameterRepository.findSeriesPoints(test.getId())) {
+                if (point.datePerformed() != null && point.value() != null) {
+                    rollup.apply(point.datePerformed().toEpochDay(), point.value(), 1);
+                }
+            }
+            return rollup;
+        });
+    }
+
+    /**
+     * A test with one measurement a day, slowly rising with noise, recorded through ParameterService
+     * so its trend row is maintained like in production
+     */
+    private Test seedTest(Patient patient) {
+        Test seeded = new Test();
+        seeded.setName("Blood Panel");
+        seeded.setParameterName("Glucose");
+        seeded.setUnit("mmol/L");
+        seeded.setReferenceMin(0.5);
+        seeded.setReferenceMax(1.5);
+        seeded.setPatient(patient);
+        seeded = context.getBean(TestRepository.class).save(seeded);
+
+        ParameterService parameterService = context.getBean(ParameterService.class);
+        Random random = new Random(42);
+        LocalDate firstDay = LocalDate.now().minusDays(points);
+        for (int from = 0; from < points; from += SEED_BATCH_SIZE) {
+            List<ParameterMeasurementDTO> measurements = new ArrayList<>();
+            for (int i = from; i < Math.min(from + SEED_BATCH_SIZE, points); i++) {
+                measurements.add(new ParameterMeasurementDTO(1.0 + i * 0.0001 + random.nextGaussian() * 0.05,
+                    firstDay.plusDays(i)));
+            }
+            parameterService.recordParameters(seeded.getId(), measurements);
+        }
+        return seeded;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ltde.rutherford_d1.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the server-sent alert stream (GET /health/alerts/stream).
+ * Maps the alert-stream.* properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "alert-stream")
+public class AlertStreamProperties {
+
+    /**
+     * Maximum number of concurrently connected subscribers; further requests get 503.
+     * Default: 10000
+     */
+    private int maxSubscribers = 10_000;
+
+    /**
+     * Events buffered per subscriber before the oldest non-critical ones are dropped.
+     * Default: 256
+     */
+    private int bufferSize = 256;
+
+    /**
+     * Time after which a subscription is closed; clients are expected to reconnect.
+     * Default: 30m
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /**
+     * Interval of keep-alive comments, which also detect disconnected clients.
+     * Default: 30s
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(30);
+}
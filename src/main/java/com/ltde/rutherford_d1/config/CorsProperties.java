@@ -36,6 +36,12 @@ public class CorsProperties {
      */
     private List<String> allowedHeaders;
     
+    /**
+     * List of response headers the browser may expose to the frontend,
+     * e.g. the X-Next-Cursor pagination header.
+     */
+    private List<String> exposedHeaders;
+    
     /**
      * Whether to allow credentials in CORS requests.
      * Default: true
@@ -0,0 +1,52 @@
+package com.ltde.rutherford_d1.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.ltde.rutherford_d1.importer.CsvLabImportService;
+import com.ltde.rutherford_d1.importer.CsvLabImportService.ImportReport;
+
+/**
+ * Imports analyser CSV exports at startup when requested:
+ *   --import-csv=/path/to/export.csv  (may be repeated; an interrupted import resumes from its checkpoint)
+ */
+@Component
+public class CsvImportCommandRunner implements ApplicationRunner {
+    private final CsvLabImportService importService;
+
+    public CsvImportCommandRunner(CsvLabImportService importService) {
+        this.importService = importService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        List<String> files = args.getOptionValues("import-csv");
+        if (files == null) {
+            return;
+        }
+
+        for (String file : files) {
+            ImportReport report = importService.importFile(Path.of(file));
+            System.out.println("CSV import " + report.file()
+                + (report.resumedFromOffset() > 0 ? " (resumed at byte " + report.resumedFromOffset() + ")" : "")
+                + " - imported: " + report.importedRows()
+                + ", rejected: " + report.rejectedRows()
+                + ", rows/s: " + Math.round(report.rowsPerSecond()));
+            System.out.println("  parse: " + millis(report.parseNanos()) + " ms"
+                + ", classify: " + millis(report.classifyNanos()) + " ms"
+                + ", write: " + millis(report.writeNanos()) + " ms"
+                + ", total: " + millis(report.elapsedNanos()) + " ms");
+            report.rejectedSamples().forEach(rejected ->
+                System.out.println("  rejected row at byte " + rejected.byteOffset() + ": " + rejected.reason()));
+        }
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
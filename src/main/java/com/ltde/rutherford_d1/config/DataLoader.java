@@ -2,34 +2,55 @@ package com.ltde.rutherford_d1.config;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
-import com.ltde.rutherford_d1.model.HealthStatus;
-import com.ltde.rutherford_d1.model.Parameter;
+import com.ltde.rutherford_d1.dto.ParameterMeasurementDTO;
 import com.ltde.rutherford_d1.model.Patient;
 import com.ltde.rutherford_d1.model.Test;
+import com.ltde.rutherford_d1.repository.CsvImportCheckpointRepository;
 import com.ltde.rutherford_d1.repository.ParameterRepository;
+import com.ltde.rutherford_d1.repository.PatientHealthRollupRepository;
 import com.ltde.rutherford_d1.repository.PatientRepository;
+import com.ltde.rutherford_d1.repository.TestMonthlyRollupRepository;
 import com.ltde.rutherford_d1.repository.TestRepository;
-import com.ltde.rutherford_d1.service.HealthAnalysisService;
+import com.ltde.rutherford_d1.repository.TestTrendRollupRepository;
+import com.ltde.rutherford_d1.service.ParameterService;
 
 @Component
+@Profile("!synthetic") // SyntheticDataLoader seeds instead
+@Order(Ordered.HIGHEST_PRECEDENCE) // Seed before maintenance and import commands run
 public class DataLoader implements CommandLineRunner {
     private final PatientRepository patientRepository;
     private final TestRepository testRepository;
     private final ParameterRepository parameterRepository;
-    private final HealthAnalysisService healthAnalysisService;
+    private final PatientHealthRollupRepository rollupRepository;
+    private final TestTrendRollupRepository trendRepository;
+    private final TestMonthlyRollupRepository monthlyRepository;
+    private final CsvImportCheckpointRepository checkpointRepository;
+    private final ParameterService parameterService;
 
     public DataLoader(PatientRepository patientRepository,
                       TestRepository testRepository,
                       ParameterRepository parameterRepository,
-                      HealthAnalysisService healthAnalysisService) {
+                      PatientHealthRollupRepository rollupRepository,
+                      TestTrendRollupRepository trendRepository,
+                      TestMonthlyRollupRepository monthlyRepository,
+                      CsvImportCheckpointRepository checkpointRepository,
+                      ParameterService parameterService) {
         this.patientRepository = patientRepository;
         this.testRepository = testRepository;
         this.parameterRepository = parameterRepository;
-        this.healthAnalysisService = healthAnalysisService;
+        this.rollupRepository = rollupRepository;
+        this.trendRepository = trendRepository;
+        this.monthlyRepository = monthlyRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.parameterService = parameterService;
     }
 
     @Override
@@ -52,6 +73,10 @@ public class DataLoader implements CommandLineRunner {
 
     private void clearAllData() {
         System.out.println("Clearing all data from database...");
+        rollupRepository.deleteAll();
+        trendRepository.deleteAll();
+        monthlyRepository.deleteAllInBatch();
+        checkpointRepository.deleteAll(); // Imported rows are gone, so imports must start over
         parameterRepository.deleteAll();
         testRepository.deleteAll();
         patientRepository.deleteAll();
@@ -193,25 +218,11 @@ public class DataLoader implements CommandLineRunner {
         test.setParameters(new ArrayList<>());
         test = testRepository.save(test);
 
-        // Create Parameters with individual values, dates, and calculated health status
-        for (ParameterData paramData : parameterDataArray) {
-            Parameter parameter = new Parameter();
-            parameter.setValue(paramData.value);
-            parameter.setDatePerformed(paramData.date);
-            parameter.setTest(test);
-            
-            // Calculate and set health status using the service
-            HealthStatus status = healthAnalysisService.calculateParameterStatus(
-                paramData.value, referenceMin, referenceMax);
-            parameter.setStatus(status);
-            
-            parameter = parameterRepository.save(parameter);
-
-            // Add parameter to test
-            test.getParameters().add(parameter);
-        }
-        
-        testRepository.save(test);
+        // Create Parameters with individual values, dates, and calculated health status in one batch;
+        // the service also updates the patient's health rollup
+        parameterService.recordParameters(test.getId(), Arrays.stream(parameterDataArray)
+            .map(paramData -> new ParameterMeasurementDTO(paramData.value, paramData.date))
+            .toList());
         
         // Add test to patient
         patient.getTests().add(test);
@@ -0,0 +1,105 @@
+package com.ltde.rutherford_d1.config;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Wraps the pooled DataSource in a ConcurrencyLimitedDataSource (see JdbcLimiterProperties).
+ * With spring.threads.virtual.enabled every request runs on its own virtual thread, so nothing but
+ * this limit keeps a burst of requests from queueing thousands of threads on the connection pool.
+ */
+@Configuration
+public class JdbcConcurrencyConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcConcurrencyConfig.class);
+
+    /** Hikari's maximumPoolSize when none is configured */
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    static BeanPostProcessor jdbcConcurrencyLimiter(Environment environment) {
+        JdbcLimiterProperties properties = Binder.get(environment)
+            .bindOrCreate("jdbc-limiter", JdbcLimiterProperties.class);
+        return new LimiterPostProcessor(properties);
+    }
+
+    /**
+     * Wrap a pool in a ConcurrencyLimitedDataSource, unless the limiter is disabled
+     */
+    static DataSource limit(HikariDataSource hikari, JdbcLimiterProperties properties, String name) {
+        if (!properties.isEnabled()) {
+            return hikari;
+        }
+        // The pool is not started yet, so an unset size still reads -1
+        int poolSize = hikari.getMaximumPoolSize() > 0 ? hikari.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+        // One connection stays free for the REQUIRES_NEW transactions that permit holders open without a
+        // second permit, so they always make progress even when every permit is taken
+        int maxConcurrent = properties.getMaxConcurrent() > 0 ? properties.getMaxConcurrent() : Math.max(1, poolSize - 1);
+        log.info("Limiting DataSource '{}' to {} concurrent connections", name, maxConcurrent);
+        return new ConcurrencyLimitedDataSource(hikari, maxConcurrent, properties.getAcquireTimeout());
+    }
+
+    /**
+     * Ordered so it always wraps the pool bean before ReadReplicaConfig wraps the result
+     */
+    record LimiterPostProcessor(JdbcLimiterProperties properties) implements BeanPostProcessor, Ordered {
+
+        static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean instanceof HikariDataSource hikari ? limit(hikari, properties, beanName) : bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return ORDER;
+        }
+    }
+
+    /**
+     * Publish limiter usage as jdbc.limiter.active / jdbc.limiter.waiting gauges
+     */
+    @Bean
+    MeterBinder jdbcLimiterMetrics(DataSource dataSource) {
+        return registry -> {
+            ConcurrencyLimitedDataSource limited = unwrapLimiter(dataSource);
+            if (limited != null) {
+                Gauge.builder("jdbc.limiter.active", limited, ConcurrencyLimitedDataSource::getActive)
+                    .description("Threads currently holding connections through the JDBC limiter")
+                    .register(registry);
+                Gauge.builder("jdbc.limiter.waiting", limited, ConcurrencyLimitedDataSource::getWaiting)
+                    .description("Callers waiting for a JDBC permit")
+                    .register(registry);
+            }
+        };
+    }
+
+    /**
+     * The limiter behind the DataSource bean, which read replica routing may have wrapped
+     */
+    private static ConcurrencyLimitedDataSource unwrapLimiter(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ConcurrencyLimitedDataSource.class)
+                ? dataSource.unwrap(ConcurrencyLimitedDataSource.class)
+                : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ltde.rutherford_d1.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the JDBC concurrency limiter placed in front of the connection pool.
+ * Maps the jdbc-limiter.* properties; bound by JdbcConcurrencyConfig while the DataSource is created.
+ */
+@Data
+@ConfigurationProperties(prefix = "jdbc-limiter")
+public class JdbcLimiterProperties {
+
+    /**
+     * Whether connections are handed out through the limiter.
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of threads holding connections at once; 0 uses the pool's maximum size minus one,
+     * which leaves a connection for transactions nested inside a held one.
+     * Default: 0
+     */
+    private int maxConcurrent = 0;
+
+    /**
+     * How long a caller waits for a permit before getConnection fails.
+     * Default: 30s (Hikari's connection timeout)
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+}
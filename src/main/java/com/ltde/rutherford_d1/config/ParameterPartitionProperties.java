@@ -0,0 +1,50 @@
+package com.ltde.rutherford_d1.config;
+
+import java.time.Duration;
+import java.time.Period;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the yearly partitions of the parameter table on PostgreSQL.
+ * Maps the parameter-partitions.* properties (see ParameterPartitionService).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "parameter-partitions")
+public class ParameterPartitionProperties {
+
+    /**
+     * Run the partition maintenance job; it does nothing when the parameter table is not partitioned (e.g. H2).
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * Years older than this are detached from the parameter table and moved to archiveSchema,
+     * once the whole year is past it. Zero keeps everything.
+     * Default: 10y
+     */
+    private Period retention = Period.ofYears(10);
+
+    /**
+     * Schema that detached partitions are moved to; they stay queryable there.
+     * Default: parameter_archive
+     */
+    private String archiveSchema = "parameter_archive";
+
+    /**
+     * Partitions kept ready beyond the current year.
+     * Default: 1
+     */
+    private int yearsAhead = 1;
+
+    /**
+     * Time between maintenance runs; the first runs at startup.
+     * Default: 24h
+     */
+    private Duration interval = Duration.ofHours(24);
+}
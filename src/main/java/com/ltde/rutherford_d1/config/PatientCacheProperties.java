@@ -0,0 +1,31 @@
+package com.ltde.rutherford_d1.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the patient DTO caches.
+ * Maps the patient-cache.* properties; hit/miss/eviction counts are published as cache.* metrics
+ * so the limits can be sized from production traffic.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "patient-cache")
+public class PatientCacheProperties {
+
+    /**
+     * Maximum number of patients kept per cache (patient detail, patient health).
+     * Default: 10000
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * Time after which an entry is dropped even if it was not invalidated.
+     * Default: 10m
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
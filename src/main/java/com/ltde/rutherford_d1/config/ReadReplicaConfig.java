@@ -0,0 +1,141 @@
+package com.ltde.rutherford_d1.config;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import com.ltde.rutherford_d1.config.ReadReplicaRoutingDataSource.Replica;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Puts a ReadReplicaRoutingDataSource in front of the primary pool when read-replica.enabled is set
+ * (see ReadReplicaProperties). Each replica gets its own Hikari pool, limited like the primary
+ * (see JdbcConcurrencyConfig), and read-only transactions are spread over them.
+ * Within one request Hibernate keeps the connection of the request's first transaction (open session in
+ * view), so a GET that starts with a read-only transaction reads from one replica throughout, and a
+ * write request, whose first transaction writes, stays on the primary.
+ */
+@Configuration
+public class ReadReplicaConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaConfig.class);
+
+    @Bean
+    static BeanPostProcessor readReplicaRouting(Environment environment) {
+        Binder binder = Binder.get(environment);
+        ReadReplicaProperties properties = binder.bindOrCreate("read-replica", ReadReplicaProperties.class);
+        JdbcLimiterProperties limiterProperties = binder.bindOrCreate("jdbc-limiter", JdbcLimiterProperties.class);
+        return new RoutingPostProcessor(properties, limiterProperties);
+    }
+
+    /**
+     * Runs after the limiter, so the primary it wraps is already limited
+     */
+    record RoutingPostProcessor(ReadReplicaProperties properties, JdbcLimiterProperties limiterProperties)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!properties.isEnabled() || !(bean instanceof DataSource primary) || bean instanceof ReadReplicaRoutingDataSource) {
+                return bean;
+            }
+            HikariDataSource primaryPool = unwrapPool(primary);
+            if (primaryPool == null) {
+                return bean;
+            }
+            if (properties.getReplicas().isEmpty()) {
+                log.warn("read-replica.enabled is set but no read-replica.replicas are configured; all reads use the primary");
+                return bean;
+            }
+
+            List<Replica> replicas = new ArrayList<>();
+            for (int i = 0; i < properties.getReplicas().size(); i++) {
+                ReadReplicaProperties.Replica replica = properties.getReplicas().get(i);
+                String name = replica.getName() != null ? replica.getName() : "replica-" + i;
+                if (replica.getUrl() == null || replica.getUrl().isBlank()) {
+                    throw new BeanCreationException(beanName, "read-replica.replicas[" + i + "].url is not set");
+                }
+                HikariDataSource pool = newPool(name, replica, primaryPool);
+                replicas.add(new Replica(name, JdbcConcurrencyConfig.limit(pool, limiterProperties, name)));
+            }
+            log.info("Routing read-only transactions of DataSource '{}' to {} replica(s) {}",
+                beanName, replicas.size(), replicas.stream().map(Replica::getName).toList());
+            return new ReadReplicaRoutingDataSource(primary, replicas, properties);
+        }
+
+        @Override
+        public int getOrder() {
+            return JdbcConcurrencyConfig.LimiterPostProcessor.ORDER + 1;
+        }
+
+        private HikariDataSource newPool(String name, ReadReplicaProperties.Replica replica, HikariDataSource primaryPool) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(name);
+            pool.setJdbcUrl(replica.getUrl());
+            pool.setUsername(replica.getUsername() != null ? replica.getUsername() : primaryPool.getUsername());
+            pool.setPassword(replica.getPassword() != null ? replica.getPassword() : primaryPool.getPassword());
+            pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            pool.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+            pool.setReadOnly(true);
+            // Start without a connection, so an unreachable replica only keeps itself out of rotation
+            pool.setInitializationFailTimeout(-1);
+            return pool;
+        }
+
+        private static HikariDataSource unwrapPool(DataSource dataSource) {
+            try {
+                return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+            } catch (SQLException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Publish jdbc.replica.up / jdbc.replica.lag gauges and jdbc.replica.reads counters (tag replica,
+     * "primary" for reads no replica could serve)
+     */
+    @Bean
+    MeterBinder readReplicaMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof ReadReplicaRoutingDataSource routing)) {
+                return;
+            }
+            for (Replica replica : routing.getReplicas()) {
+                Gauge.builder("jdbc.replica.up", replica, r -> r.isUp() ? 1 : 0)
+                    .description("Whether the replica passed its last health check")
+                    .tag("replica", replica.getName())
+                    .register(registry);
+                Gauge.builder("jdbc.replica.lag", replica, r -> r.getLag().toNanos() / 1e9)
+                    .description("Replication lag reported by the replica's last health check")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.getName())
+                    .register(registry);
+                FunctionCounter.builder("jdbc.replica.reads", replica, Replica::getReads)
+                    .description("Read-only connections handed out")
+                    .tag("replica", replica.getName())
+                    .register(registry);
+            }
+            FunctionCounter.builder("jdbc.replica.reads", routing, ReadReplicaRoutingDataSource::getPrimaryReads)
+                .description("Read-only connections handed out")
+                .tag("replica", "primary")
+                .register(registry);
+        };
+    }
+}
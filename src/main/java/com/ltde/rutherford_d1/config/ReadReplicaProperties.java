@@ -0,0 +1,94 @@
+package com.ltde.rutherford_d1.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for serving read-only transactions from read replicas.
+ * Maps the read-replica.* properties; bound by ReadReplicaConfig while the DataSource is created.
+ */
+@Data
+@ConfigurationProperties(prefix = "read-replica")
+public class ReadReplicaProperties {
+
+    /**
+     * Whether read-only transactions are routed to the replicas.
+     * Default: false
+     */
+    private boolean enabled = false;
+
+    /**
+     * Replica databases, used round-robin
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Replication lag a read may tolerate unless its endpoint overrides it; zero sends reads to the primary.
+     * Default: 5s
+     */
+    private Duration maxStaleness = Duration.ofSeconds(5);
+
+    /**
+     * Tolerated replication lag per endpoint, keyed by URI pattern as in the http.server.requests uri tag
+     * (e.g. read-replica.max-staleness-by-endpoint[/health/alerts]=30s)
+     */
+    private Map<String, Duration> maxStalenessByEndpoint = new LinkedHashMap<>();
+
+    /**
+     * Query returning a replica's replication lag in seconds; a failure or NULL takes the replica out of rotation.
+     * Default: the replay lag of a PostgreSQL standby, 0 once it has replayed everything it received
+     */
+    private String lagQuery = "select case when not pg_is_in_recovery() "
+        + "or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+        + "else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+
+    /**
+     * How often every replica's health and lag is checked.
+     * Default: 5s
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * How long a replica may take to hand out a connection or answer the lag query before it counts as down.
+     * Default: 2s
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+
+    @Data
+    public static class Replica {
+
+        /**
+         * Name used in logs and metrics.
+         * Default: replica-N
+         */
+        private String name;
+
+        /**
+         * JDBC URL of the replica
+         */
+        private String url;
+
+        /**
+         * Login user; defaults to the primary's
+         */
+        private String username;
+
+        /**
+         * Login password; defaults to the primary's
+         */
+        private String password;
+
+        /**
+         * Size of the replica's connection pool.
+         * Default: 10
+         */
+        private int maximumPoolSize = 10;
+    }
+}
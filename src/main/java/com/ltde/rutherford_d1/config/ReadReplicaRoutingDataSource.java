@@ -0,0 +1,210 @@
+package com.ltde.rutherford_d1.config;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * DataSource that serves read-only transactions from replica pools and everything else from the primary.
+ * Connections are fetched lazily, on the first statement, once the transaction has marked the connection
+ * read-only. A read goes to the next replica (round-robin) whose last health check succeeded and whose
+ * replication lag is within the staleness tolerance of the current endpoint (see ReadReplicaProperties);
+ * when none qualifies, or a replica fails to hand out a connection, it falls back to the primary.
+ * Replicas taken out of rotation come back with the next successful health check.
+ */
+public class ReadReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+    /** Health, lag and read count of one replica pool */
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final LongAdder reads = new LongAdder();
+        private volatile boolean up;
+        private volatile long lagNanos;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isUp() {
+            return up;
+        }
+
+        public Duration getLag() {
+            return Duration.ofNanos(lagNanos);
+        }
+
+        public long getReads() {
+            return reads.sum();
+        }
+
+        boolean canServe(Duration maxStaleness) {
+            return up && lagNanos <= maxStaleness.toNanos();
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadReplicaProperties properties;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final LongAdder primaryReads = new LongAdder();
+    private final ScheduledExecutorService healthChecks;
+
+    /**
+     * @param replicas Replica pools in round-robin order
+     */
+    public ReadReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, ReadReplicaProperties properties) {
+        super(primary);
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.properties = properties;
+        setReadOnlyDataSource(new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return readOnlyConnection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return primary.getConnection(username, password); // Explicit credentials belong to the primary
+            }
+        });
+
+        // Replicas stay out of rotation until their first check has passed
+        this.healthChecks = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("read-replica-health").daemon().factory());
+        long interval = properties.getHealthCheckInterval().toMillis();
+        this.healthChecks.scheduleWithFixedDelay(this::checkReplicas, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Read-only connections handed out by the primary because no replica could serve them
+     */
+    public long getPrimaryReads() {
+        return primaryReads.sum();
+    }
+
+    /**
+     * Run the lag query on every replica and update which of them are in rotation
+     */
+    public void checkReplicas() {
+        int timeoutSeconds = (int) Math.max(1, properties.getConnectionTimeout().toSeconds());
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(timeoutSeconds);
+                try (ResultSet result = statement.executeQuery(properties.getLagQuery())) {
+                    boolean hasRow = result.next();
+                    double lagSeconds = hasRow ? result.getDouble(1) : 0;
+                    if (!hasRow || result.wasNull()) {
+                        markDown(replica, "lag query returned no value");
+                    } else {
+                        markUp(replica, (long) (lagSeconds * 1_000_000_000L));
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                markDown(replica, e.toString());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        healthChecks.shutdownNow();
+        for (Replica replica : replicas) {
+            closePool(replica.dataSource);
+        }
+        closePool(primary); // Replaces the pool bean, so closing it falls to us
+    }
+
+    private Connection readOnlyConnection() throws SQLException {
+        Duration maxStaleness = currentMaxStaleness();
+        if (maxStaleness.isPositive()) {
+            int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (!replica.canServe(maxStaleness)) {
+                    continue;
+                }
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replica.reads.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    markDown(replica, e.toString());
+                }
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    /**
+     * The tolerance configured for the endpoint of the current request, or the default outside of requests
+     */
+    private Duration currentMaxStaleness() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        Object pattern = request != null
+            ? request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+            : null;
+        Duration endpointStaleness = pattern != null ? properties.getMaxStalenessByEndpoint().get(pattern.toString()) : null;
+        return endpointStaleness != null ? endpointStaleness : properties.getMaxStaleness();
+    }
+
+    private void markUp(Replica replica, long lagNanos) {
+        replica.lagNanos = lagNanos;
+        if (!replica.up) {
+            replica.up = true;
+            log.info("Read replica '{}' is up (lag {})", replica.name, replica.getLag());
+        }
+    }
+
+    private void markDown(Replica replica, String reason) {
+        if (replica.up) {
+            replica.up = false;
+            log.warn("Read replica '{}' is down, its reads go to the next replica or the primary: {}", replica.name, reason);
+        }
+    }
+
+    private static void closePool(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                dataSource.unwrap(HikariDataSource.class).close();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not close connection pool", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ltde.rutherford_d1.config;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares and the entities it loads on the current thread
+ * between start() and stop(). Hibernate's own statistics are totals for the whole session factory,
+ * so they cannot be attributed to one request; this is registered as statement inspector and
+ * post-load listener instead (see SqlMetricsConfig). Work outside a counted section is ignored.
+ */
+public class RequestSqlCounter implements StatementInspector, PostLoadEventListener {
+
+    /**
+     * Statements prepared and entities loaded during one counted section
+     */
+    public record Counts(long statements, long entitiesLoaded) {}
+
+    private static final ThreadLocal<long[]> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Start counting on the current thread, discarding anything counted before
+     */
+    public void start() {
+        CURRENT.set(new long[2]);
+    }
+
+    /**
+     * Stop counting on the current thread
+     * @return What was counted since start(), or null if counting was not started
+     */
+    public Counts stop() {
+        long[] counts = CURRENT.get();
+        CURRENT.remove();
+        return counts != null ? new Counts(counts[0], counts[1]) : null;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        long[] counts = CURRENT.get();
+        if (counts != null) {
+            counts[0]++;
+        }
+        return sql;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        long[] counts = CURRENT.get();
+        if (counts != null) {
+            counts[1]++;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.ltde.rutherford_d1.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the serialised response cache of the per-patient and per-test GET endpoints.
+ * Maps the response-cache.* properties; hit/miss/eviction counts are published as cache.* metrics
+ * under cache=responseBody.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "response-cache")
+public class ResponseCacheProperties {
+
+    /**
+     * Maximum size of the cached bodies, plain and gzip variants together.
+     * Default: 64MB
+     */
+    private DataSize maximumSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Time after which an entry is dropped even if it was not invalidated.
+     * Default: 10m
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    /**
+     * Bodies smaller than this are only kept uncompressed.
+     * Default: 1KB
+     */
+    private DataSize compressionMinSize = DataSize.ofKilobytes(1);
+}
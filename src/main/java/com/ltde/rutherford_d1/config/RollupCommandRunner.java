@@ -0,0 +1,55 @@
+package com.ltde.rutherford_d1.config;
+
+import java.util.List;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.ltde.rutherford_d1.service.PatientHealthRollupService;
+import com.ltde.rutherford_d1.service.PatientHealthRollupService.DriftReport;
+import com.ltde.rutherford_d1.service.TestHistoryService;
+import com.ltde.rutherford_d1.service.TestHistoryService.RebuildReport;
+
+/**
+ * Maintenance command for the patient health rollups, run at startup when requested:
+ *   --rollup=verify   recompute rollups from raw parameters and report drift
+ *   --rollup=rebuild  recompute rollups and overwrite any that drifted
+ *   --rollup=history  recompute the monthly test rollups behind the history endpoint
+ */
+@Component
+public class RollupCommandRunner implements ApplicationRunner {
+    private final PatientHealthRollupService rollupService;
+    private final TestHistoryService historyService;
+
+    public RollupCommandRunner(PatientHealthRollupService rollupService, TestHistoryService historyService) {
+        this.rollupService = rollupService;
+        this.historyService = historyService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> commands = args.getOptionValues("rollup");
+        if (commands == null) {
+            return;
+        }
+
+        for (String command : commands) {
+            if (command.equals("history")) {
+                RebuildReport report = historyService.rebuild();
+                System.out.println("Rollup history - tests: " + report.testsProcessed() + ", months: " + report.monthsWritten());
+                continue;
+            }
+            DriftReport report = switch (command) {
+                case "verify" -> rollupService.verify();
+                case "rebuild" -> rollupService.rebuild();
+                default -> throw new IllegalArgumentException("Unknown rollup command: " + command
+                    + " (expected verify, rebuild or history)");
+            };
+            System.out.println("Rollup " + command + " - checked: " + report.patientsChecked()
+                + ", drifted: " + report.driftedPatients()
+                + ", orphaned: " + report.orphanedRollups()
+                + (report.driftedPatientIds().isEmpty() ? "" : ", drifted ids: " + report.driftedPatientIds()));
+        }
+    }
+}
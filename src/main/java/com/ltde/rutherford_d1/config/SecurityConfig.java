@@ -2,6 +2,7 @@ package com.ltde.rutherford_d1.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
@@ -31,7 +32,8 @@ public class SecurityConfig {
      * Configures the security filter chain with CORS and authorization rules.
      * - Enables CORS for cross-origin requests
      * - Disables CSRF for API-only usage
-     * - Permits all requests to /patient/** and /test/** endpoints
+     * - Requires an authenticated user for writes (the measurement batch endpoints take up to 10,000 rows)
+     * - Permits all other requests to /patient/** and /test/** endpoints
      */
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -39,6 +41,7 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
+                .requestMatchers(HttpMethod.POST, "/patient/**", "/test/**").authenticated()
                 .requestMatchers("/patient/**", "/test/**").permitAll()
                 .anyRequest().authenticated()
             );
@@ -72,6 +75,11 @@ public class SecurityConfig {
             configuration.setAllowedHeaders(java.util.Arrays.asList("*"));
         }
         
+        // Set exposed headers from properties (e.g. pagination cursors)
+        if (corsProperties.getExposedHeaders() != null && !corsProperties.getExposedHeaders().isEmpty()) {
+            configuration.setExposedHeaders(corsProperties.getExposedHeaders());
+        }
+        
         // Set allow credentials from properties
         configuration.setAllowCredentials(corsProperties.isAllowCredentials());
         
@@ -0,0 +1,78 @@
+package com.ltde.rutherford_d1.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records the SQL statements and loaded entities of every request as http.server.requests.sql.statements
+ * and http.server.requests.entities.loaded, tagged like http.server.requests with method and uri template,
+ * and warns about requests over the statement budget. For streamed responses (SSE, NDJSON) only the work
+ * done before streaming starts is counted; the stream itself runs on another thread.
+ */
+public class SqlBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlBudgetInterceptor.class);
+
+    private final RequestSqlCounter counter;
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public SqlBudgetInterceptor(RequestSqlCounter counter, SqlBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.counter = counter;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The async dispatch that completes a streamed response was already recorded when streaming started
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            counter.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        record(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        record(request);
+    }
+
+    private void record(HttpServletRequest request) {
+        RequestSqlCounter.Counts counts = counter.stop();
+        if (counts == null) {
+            return;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("http.server.requests.sql.statements")
+            .description("SQL statements prepared per request")
+            .tags("method", request.getMethod(), "uri", uri)
+            .register(meterRegistry)
+            .record(counts.statements());
+        DistributionSummary.builder("http.server.requests.entities.loaded")
+            .description("Entities loaded by Hibernate per request")
+            .tags("method", request.getMethod(), "uri", uri)
+            .register(meterRegistry)
+            .record(counts.entitiesLoaded());
+
+        int budget = properties.getMaxStatementsPerRequest();
+        if (budget > 0 && counts.statements() > budget) {
+            log.warn("{} {} issued {} SQL statements (budget {}) and loaded {} entities",
+                request.getMethod(), uri, counts.statements(), budget, counts.entitiesLoaded());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.ltde.rutherford_d1.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for per-request SQL metrics.
+ * Maps the sql-budget.* properties; requests issuing more statements than the budget are logged
+ * as warnings, which usually points at an N+1 query pattern.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sql-budget")
+public class SqlBudgetProperties {
+
+    /**
+     * Maximum number of SQL statements a request may issue before a warning is logged; 0 disables the warning.
+     * Default: 20
+     */
+    private int maxStatementsPerRequest = 20;
+}
@@ -0,0 +1,56 @@
+package com.ltde.rutherford_d1.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Per-request SQL metrics: one RequestSqlCounter is Hibernate's statement inspector and post-load
+ * listener, and SqlBudgetInterceptor counts with it around every request.
+ */
+@Configuration
+public class SqlMetricsConfig implements WebMvcConfigurer {
+
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public SqlMetricsConfig(SqlBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    RequestSqlCounter requestSqlCounter() {
+        return new RequestSqlCounter();
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer sqlStatementCounting(RequestSqlCounter counter) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+    }
+
+    /**
+     * Register the counter for loaded entities once the session factory exists
+     */
+    @Bean
+    SmartInitializingSingleton entityLoadCounting(EntityManagerFactory entityManagerFactory, RequestSqlCounter counter) {
+        return () -> entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getEventEngine()
+            .getListenerRegistry()
+            .appendListeners(EventType.POST_LOAD, counter);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlBudgetInterceptor(requestSqlCounter(), properties, meterRegistry));
+    }
+}
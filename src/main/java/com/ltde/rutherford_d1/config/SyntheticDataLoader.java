@@ -0,0 +1,57 @@
+package com.ltde.rutherford_d1.config;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.ltde.rutherford_d1.repository.PatientRepository;
+import com.ltde.rutherford_d1.synthetic.SyntheticDatasetGenerator;
+import com.ltde.rutherford_d1.synthetic.SyntheticDatasetGenerator.GenerationReport;
+
+/**
+ * Replaces the DataLoader seed under the "synthetic" profile with a generated dataset of
+ * synthetic-data.patients patients (see SyntheticDataProperties)
+ */
+@Component
+@Profile("synthetic")
+@Order(Ordered.HIGHEST_PRECEDENCE) // Seed before maintenance and import commands run
+public class SyntheticDataLoader implements CommandLineRunner {
+    private final SyntheticDatasetGenerator generator;
+    private final SyntheticDataProperties properties;
+    private final PatientRepository patientRepository;
+
+    public SyntheticDataLoader(SyntheticDatasetGenerator generator,
+                               SyntheticDataProperties properties,
+                               PatientRepository patientRepository) {
+        this.generator = generator;
+        this.properties = properties;
+        this.patientRepository = patientRepository;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (properties.isClear()) {
+            System.out.println("Clearing all data from database...");
+            generator.clearAllData();
+        } else if (patientRepository.count() > 0) {
+            System.out.println("Database already contains data - skipping synthetic data generation"
+                + " (set synthetic-data.clear=true to regenerate)");
+            return;
+        }
+
+        GenerationReport report = generator.generate(properties);
+        System.out.println("Synthetic data generated (seed " + properties.getSeed() + ") - patients: " + report.patients()
+            + ", tests: " + report.tests()
+            + ", parameters: " + report.parameters()
+            + ", abnormal: " + percent(report.abnormalParameters(), report.parameters())
+            + ", critical: " + percent(report.criticalParameters(), report.parameters()));
+        System.out.println("  elapsed: " + report.elapsedNanos() / 1_000_000 + " ms"
+            + ", rows/s: " + Math.round(report.rowsPerSecond()));
+    }
+
+    private static String percent(long part, long total) {
+        return String.format("%.1f%%", total == 0 ? 0.0 : part * 100.0 / total);
+    }
+}
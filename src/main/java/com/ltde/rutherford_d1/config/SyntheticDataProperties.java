@@ -0,0 +1,57 @@
+package com.ltde.rutherford_d1.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the synthetic dataset generated under the "synthetic" profile.
+ * This class maps the synthetic-data.* properties (see application-synthetic.properties).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "synthetic-data")
+public class SyntheticDataProperties {
+
+    /**
+     * Number of patients to generate.
+     */
+    private int patients = 1000;
+
+    /**
+     * Average number of measurements per test (analyte); each test gets between half and one and
+     * a half times this many, roughly a month apart.
+     */
+    private int measurementsPerTest = 12;
+
+    /**
+     * Fraction of measurements outside the reference range, including critical ones.
+     */
+    private double abnormalRate = 0.15;
+
+    /**
+     * Fraction of measurements more than 30% of the range outside it (CRITICAL); at most abnormalRate.
+     */
+    private double criticalRate = 0.03;
+
+    /**
+     * Seed for all random choices; the same seed and settings produce the same patients and values.
+     */
+    private long seed = 42;
+
+    /**
+     * Parallel writer threads; 0 uses one per available processor.
+     */
+    private int workers = 0;
+
+    /**
+     * Patients generated and committed together in one transaction.
+     */
+    private int patientsPerChunk = 500;
+
+    /**
+     * Delete all existing data first; otherwise generation is skipped when patients already exist.
+     */
+    private boolean clear = false;
+}
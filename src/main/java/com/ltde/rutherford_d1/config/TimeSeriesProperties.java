@@ -0,0 +1,29 @@
+package com.ltde.rutherford_d1.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the in-memory test time-series store.
+ * Maps the timeseries.* properties; hit/miss/eviction counts are published as cache.* metrics
+ * under cache=testSeries.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "timeseries")
+public class TimeSeriesProperties {
+
+    /**
+     * Keep series columns in direct buffers outside the Java heap.
+     * Default: false
+     */
+    private boolean offHeap = false;
+
+    /**
+     * Maximum number of measurements held across all cached series (about 21 bytes each).
+     * Default: 5000000
+     */
+    private long maximumPoints = 5_000_000;
+}
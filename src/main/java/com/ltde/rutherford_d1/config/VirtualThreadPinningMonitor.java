@@ -0,0 +1,76 @@
+package com.ltde.rutherford_d1.config;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, typically because they block
+ * inside a synchronized block or a native call. Listens to the JFR jdk.VirtualThreadPinned event in-process,
+ * logs each occurrence longer than virtual-threads.pinned-threshold with the top of its stack,
+ * and counts them as jvm.threads.virtual.pinned. Active only when spring.threads.virtual.enabled is set.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    /** Stack frames included in the log line */
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Duration threshold;
+    private final Counter pinnedCount;
+    private RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(@Value("${virtual-threads.pinned-threshold:20ms}") Duration threshold,
+                                       MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.pinnedCount = Counter.builder("jvm.threads.virtual.pinned")
+            .description("Virtual threads pinned to their carrier for longer than the configured threshold")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        recording = new RecordingStream();
+        recording.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        recording.onEvent("jdk.VirtualThreadPinned", this::report);
+        recording.startAsync();
+        log.info("Reporting virtual threads pinned for longer than {}", threshold);
+    }
+
+    @PreDestroy
+    void stop() {
+        recording.close();
+    }
+
+    private void report(RecordedEvent event) {
+        pinnedCount.increment();
+        String stack = event.getStackTrace() == null ? "(no stack trace)"
+            : event.getStackTrace().getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(VirtualThreadPinningMonitor::format)
+                .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+        log.warn("Virtual thread {} pinned its carrier for {} ms{}",
+            event.getThread() != null ? event.getThread().getJavaName() : "?",
+            event.getDuration().toMillis(), stack);
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
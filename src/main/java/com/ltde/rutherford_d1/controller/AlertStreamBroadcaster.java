@@ -0,0 +1,270 @@
+package com.ltde.rutherford_d1.controller;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.ltde.rutherford_d1.config.AlertStreamProperties;
+import com.ltde.rutherford_d1.dto.AlertEventDTO;
+import com.ltde.rutherford_d1.model.HealthStatus;
+import com.ltde.rutherford_d1.service.AbnormalResultsEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fans committed AbnormalResultsEvents out to server-sent event subscribers.
+ * Each subscriber has a bounded buffer, drained by its own virtual thread only while there is
+ * something to send, so idle subscribers cost no thread and a slow client only blocks itself.
+ * When a buffer is full the oldest non-critical event is dropped (the oldest event if all are critical),
+ * and the subscriber receives a "dropped" event with the count so it can re-sync from GET /health/alerts.
+ * A newer event for a parameter that is still buffered replaces the buffered one.
+ */
+@Component
+public class AlertStreamBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertStreamBroadcaster.class);
+
+    /** Committed events waiting for fan-out before writers start doing it themselves */
+    private static final int FAN_OUT_QUEUE_SIZE = 1024;
+
+    private final AlertStreamProperties properties;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService fanOut;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats;
+    private final Counter droppedEvents;
+
+    public AlertStreamBroadcaster(AlertStreamProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        // One thread keeps events in commit order; a full queue pushes the work back onto the writer
+        this.fanOut = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(FAN_OUT_QUEUE_SIZE),
+            Thread.ofPlatform().name("alert-stream-fan-out").daemon().factory(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("alert-stream-heartbeat").daemon().factory());
+        long interval = properties.getHeartbeatInterval().toMillis();
+        this.heartbeats.scheduleWithFixedDelay(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("alerts.stream.subscribers", subscribers, Set::size)
+            .description("Connected alert stream subscribers")
+            .register(meterRegistry);
+        this.droppedEvents = Counter.builder("alerts.stream.dropped")
+            .description("Alert events dropped because a subscriber's buffer was full")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Open a subscription receiving alerts of the given patients and statuses (empty sets match everything)
+     * @throws ResponseStatusException 503 if alert-stream.max-subscribers are already connected
+     */
+    public SseEmitter subscribe(Set<Long> patientIds, Set<HealthStatus> statuses) {
+        if (subscribers.size() >= properties.getMaxSubscribers()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many alert stream subscribers");
+        }
+
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, patientIds, statuses, properties.getBufferSize());
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        subscribers.add(subscriber);
+
+        // An immediate comment commits the response headers, so clients know they are connected
+        if (subscriber.requestHeartbeat()) {
+            senders.execute(() -> drain(subscriber));
+        }
+        return emitter;
+    }
+
+    /**
+     * Buffer committed alerts for every matching subscriber; without a transaction this runs immediately
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAbnormalResults(AbnormalResultsEvent event) {
+        if (!subscribers.isEmpty()) {
+            fanOut.execute(() -> publish(event.alerts()));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        fanOut.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private void publish(List<AlertEventDTO> alerts) {
+        for (Subscriber subscriber : subscribers) {
+            boolean startDrain = false;
+            for (AlertEventDTO alert : alerts) {
+                if (subscriber.accepts(alert)) {
+                    startDrain |= subscriber.offer(alert, droppedEvents);
+                }
+            }
+            if (startDrain) {
+                senders.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.requestHeartbeat()) {
+                senders.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    /**
+     * Send everything buffered for a subscriber until its buffer stays empty
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            for (Batch batch = subscriber.next(); batch != null; batch = subscriber.next()) {
+                if (batch.dropped() > 0) {
+                    subscriber.emitter.send(SseEmitter.event().name("dropped").data(batch.dropped()));
+                }
+                for (AlertEventDTO alert : batch.alerts()) {
+                    subscriber.emitter.send(SseEmitter.event()
+                        .id(String.valueOf(alert.parameterId()))
+                        .name("alert")
+                        .data(alert));
+                }
+                if (batch.heartbeat()) {
+                    subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            log.debug("Closing alert stream subscriber: {}", e.getMessage());
+            unsubscribe(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscriber.close();
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Events taken from a subscriber's buffer in one go
+     */
+    private record Batch(List<AlertEventDTO> alerts, long dropped, boolean heartbeat) {}
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Long> patientIds;
+        private final Set<HealthStatus> statuses;
+        private final int capacity;
+
+        // Keyed by parameter id, in arrival order; guarded by this
+        private final LinkedHashMap<Long, AlertEventDTO> pending = new LinkedHashMap<>();
+        private long dropped;
+        private boolean heartbeatDue;
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter, Set<Long> patientIds, Set<HealthStatus> statuses, int capacity) {
+            this.emitter = emitter;
+            this.patientIds = patientIds;
+            this.statuses = statuses;
+            this.capacity = Math.max(1, capacity);
+        }
+
+        boolean accepts(AlertEventDTO alert) {
+            return (patientIds.isEmpty() || patientIds.contains(alert.patientId()))
+                && (statuses.isEmpty() || statuses.contains(alert.status()));
+        }
+
+        /**
+         * Buffer an alert, dropping one if the buffer is full
+         * @return true if the caller has to start a drain
+         */
+        synchronized boolean offer(AlertEventDTO alert, Counter droppedEvents) {
+            if (closed) {
+                return false;
+            }
+            if (pending.remove(alert.parameterId()) == null && pending.size() >= capacity) {
+                dropOne();
+                dropped++;
+                droppedEvents.increment();
+            }
+            pending.put(alert.parameterId(), alert);
+            return startDrain();
+        }
+
+        /**
+         * @return true if the caller has to start a drain
+         */
+        synchronized boolean requestHeartbeat() {
+            if (closed) {
+                return false;
+            }
+            heartbeatDue = true;
+            return startDrain();
+        }
+
+        /**
+         * Take everything buffered, or end the drain if there is nothing left
+         */
+        synchronized Batch next() {
+            if (closed || (pending.isEmpty() && dropped == 0 && !heartbeatDue)) {
+                draining = false;
+                return null;
+            }
+            Batch batch = new Batch(new ArrayList<>(pending.values()), dropped, heartbeatDue);
+            pending.clear();
+            dropped = 0;
+            heartbeatDue = false;
+            return batch;
+        }
+
+        synchronized void close() {
+            closed = true;
+            pending.clear();
+        }
+
+        private boolean startDrain() {
+            if (draining) {
+                return false;
+            }
+            draining = true;
+            return true;
+        }
+
+        private void dropOne() {
+            Iterator<AlertEventDTO> iterator = pending.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().status() != HealthStatus.CRITICAL) {
+                    iterator.remove();
+                    return;
+                }
+            }
+            pending.pollFirstEntry();
+        }
+    }
+}
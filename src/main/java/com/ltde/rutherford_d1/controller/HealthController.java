@@ -1,16 +1,26 @@
 package com.ltde.rutherford_d1.controller;
 
-import java.time.LocalDate;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.ltde.rutherford_d1.controller.JsonResponseCache.Resource;
 import com.ltde.rutherford_d1.dto.HealthSummaryDTO;
 import com.ltde.rutherford_d1.dto.ParameterAlertDTO;
 import com.ltde.rutherford_d1.dto.ParameterDTO;
@@ -19,9 +29,17 @@ import com.ltde.rutherford_d1.dto.PatientHealthDTO;
 import com.ltde.rutherford_d1.model.HealthStatus;
 import com.ltde.rutherford_d1.model.Parameter;
 import com.ltde.rutherford_d1.model.Patient;
+import com.ltde.rutherford_d1.model.PatientHealthRollup;
 import com.ltde.rutherford_d1.model.Test;
+import com.ltde.rutherford_d1.repository.ParameterRepository;
+import com.ltde.rutherford_d1.repository.PatientAlertRow;
+import com.ltde.rutherford_d1.repository.PatientHealthRollupRepository;
 import com.ltde.rutherford_d1.repository.PatientRepository;
+import com.ltde.rutherford_d1.service.AlertPriorityIndex;
 import com.ltde.rutherford_d1.service.HealthAnalysisService;
+import com.ltde.rutherford_d1.service.HealthSummaryService;
+import com.ltde.rutherford_d1.service.PatientDtoCache;
+import com.ltde.rutherford_d1.service.PatientDtoCache.Versioned;
 
 /**
  * Controller for health-related endpoints providing health summaries and alerts
@@ -31,27 +49,61 @@ import com.ltde.rutherford_d1.service.HealthAnalysisService;
 public class HealthController {
     
     private final PatientRepository patientRepository;
+    private final ParameterRepository parameterRepository;
+    private final PatientHealthRollupRepository rollupRepository;
     private final HealthAnalysisService healthAnalysisService;
+    private final HealthSummaryService healthSummaryService;
+    private final PatientDtoCache patientDtoCache;
+    private final JsonResponseCache jsonResponseCache;
+    private final AlertPriorityIndex alertPriorityIndex;
+    private final AlertStreamBroadcaster alertStreamBroadcaster;
+    private final NdjsonStreamWriter ndjsonStreamWriter;
 
-    public HealthController(PatientRepository patientRepository, HealthAnalysisService healthAnalysisService) {
+    public HealthController(PatientRepository patientRepository,
+                            ParameterRepository parameterRepository,
+                            PatientHealthRollupRepository rollupRepository,
+                            HealthAnalysisService healthAnalysisService,
+                            HealthSummaryService healthSummaryService,
+                            PatientDtoCache patientDtoCache,
+                            JsonResponseCache jsonResponseCache,
+                            AlertPriorityIndex alertPriorityIndex,
+                            AlertStreamBroadcaster alertStreamBroadcaster,
+                            NdjsonStreamWriter ndjsonStreamWriter) {
         this.patientRepository = patientRepository;
+        this.parameterRepository = parameterRepository;
+        this.rollupRepository = rollupRepository;
         this.healthAnalysisService = healthAnalysisService;
+        this.healthSummaryService = healthSummaryService;
+        this.patientDtoCache = patientDtoCache;
+        this.jsonResponseCache = jsonResponseCache;
+        this.alertPriorityIndex = alertPriorityIndex;
+        this.alertStreamBroadcaster = alertStreamBroadcaster;
+        this.ndjsonStreamWriter = ndjsonStreamWriter;
     }
     
     /**
-     * Get comprehensive health summary for a specific patient
+     * Get comprehensive health summary for a specific patient, served pre-serialised (and gzipped when accepted).
+     * The ETag follows the patient's version counter; a matching If-None-Match is answered with 304.
      */
     @GetMapping("/patient/{id}/summary")
-    public ResponseEntity<PatientHealthDTO> getPatientHealthSummary(@PathVariable Long id) {
-        return patientRepository.findById(id)
-            .map(this::toPatientHealthDTO)
-            .map(ResponseEntity::ok)
-            .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getPatientHealthSummary(@PathVariable Long id, WebRequest request) {
+        Long version = patientRepository.findVersionById(id).orElse(null);
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String matchingETag = VersionETag.matching(request, id, version, JsonResponseCache.acceptsGzip(request));
+        if (matchingETag != null) {
+            return VersionETag.notModified(matchingETag);
+        }
+        return jsonResponseCache.respond(Resource.PATIENT_HEALTH, id, version, request, () ->
+            patientDtoCache.getPatientHealth(id, version, patientId -> patientRepository.findById(patientId)
+                .map(patient -> new Versioned<>(patient.getVersion(), toPatientHealthDTO(patient)))));
     }
     
     /**
      * Get detailed alerts for a specific patient's abnormal parameters
      */
+    @Transactional(readOnly = true)
     @GetMapping("/patient/{id}/alerts")
     public ResponseEntity<List<ParameterAlertDTO>> getPatientAlerts(@PathVariable Long id) {
         return patientRepository.findById(id)
@@ -68,11 +120,19 @@ public class HealthController {
     }
     
     /**
-     * Get summary of all patients with active health alerts
+     * Get summary of all patients with active health alerts.
+     * Reads one rollup row per patient with alerts, joined with the patient and its most
+     * critical parameter, so the whole dashboard is served by a single query.
+     * With a limit, only the first patients in dashboard order are read, using the alert priority index.
      */
+    @Transactional(readOnly = true)
     @GetMapping("/alerts")
-    public ResponseEntity<List<PatientAlertSummaryDTO>> getAllActiveAlerts() {
-        List<PatientAlertSummaryDTO> alerts = patientRepository.findAll().stream()
+    public ResponseEntity<List<PatientAlertSummaryDTO>> getAllActiveAlerts(@RequestParam(required = false) Integer limit) {
+        if (limit != null) {
+            return ResponseEntity.ok(getTopActiveAlerts(Math.max(0, limit)));
+        }
+
+        List<PatientAlertSummaryDTO> alerts = rollupRepository.findActiveAlerts().stream()
             .map(this::toPatientAlertSummaryDTO)
             .filter(alert -> alert.abnormalCount() > 0) // Only include patients with alerts
             .sorted(Comparator.comparing((PatientAlertSummaryDTO alert) -> alert.criticalCount()).reversed()
@@ -82,12 +142,64 @@ public class HealthController {
         return ResponseEntity.ok(alerts);
     }
 
+    /**
+     * Read the alert rows of the first patients in the priority index, in index order.
+     * Patients without a current alert row (alerts cleared or patient deleted) are re-indexed
+     * and skipped in favour of the next ones.
+     */
+    private List<PatientAlertSummaryDTO> getTopActiveAlerts(int limit) {
+        Set<Long> skipped = new HashSet<>();
+        while (true) {
+            List<Long> candidateIds = alertPriorityIndex.top(limit + skipped.size()).stream()
+                .map(AlertPriorityIndex.Entry::patientId)
+                .filter(patientId -> !skipped.contains(patientId))
+                .limit(limit)
+                .toList();
+            Map<Long, PatientAlertRow> rowsByPatient = candidateIds.isEmpty() ? Map.of()
+                : rollupRepository.findActiveAlertsByPatientIds(candidateIds).stream()
+                    .collect(Collectors.toMap(row -> row.patient().getId(), Function.identity()));
+
+            List<Long> stale = candidateIds.stream().filter(patientId -> !rowsByPatient.containsKey(patientId)).toList();
+            if (stale.isEmpty()) {
+                return candidateIds.stream()
+                    .map(rowsByPatient::get)
+                    .map(this::toPatientAlertSummaryDTO)
+                    .collect(Collectors.toList());
+            }
+            alertPriorityIndex.refresh(stale);
+            skipped.addAll(stale);
+        }
+    }
+
+    /**
+     * Stream all patients with active health alerts as newline-delimited JSON (Accept: application/x-ndjson).
+     * Rows are ordered by the database in the same order as the JSON array variant.
+     */
+    @GetMapping(value = "/alerts", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllActiveAlerts() {
+        return ndjsonStreamWriter.stream(rollupRepository::streamActiveAlerts, this::toPatientAlertSummaryDTO);
+    }
+
+    /**
+     * Subscribe to newly stored or reclassified LOW/HIGH/CRITICAL parameters as server-sent events.
+     * Each result is an "alert" event; a "dropped" event carries the number of events skipped
+     * because the client fell behind. Optionally filtered by patient ids and statuses.
+     */
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNewAlerts(@RequestParam(name = "patientId", required = false) Set<Long> patientIds,
+                                      @RequestParam(name = "status", required = false) Set<HealthStatus> statuses) {
+        return alertStreamBroadcaster.subscribe(
+            patientIds != null ? patientIds : Set.of(),
+            statuses != null ? statuses : Set.of());
+    }
+
     /**
      * Convert Patient entity to PatientHealthDTO with full health analysis
      */
     private PatientHealthDTO toPatientHealthDTO(Patient patient) {
-        HealthSummaryDTO healthSummary = createHealthSummary(patient);
-        List<Parameter> abnormalParameters = healthAnalysisService.getAbnormalParameters(patient);
+        HealthSummaryDTO healthSummary = healthSummaryService.getHealthSummary(patient.getId());
+        List<Parameter> abnormalParameters = healthAnalysisService.getAbnormalParameters(
+            parameterRepository.findAbnormalByPatientIds(List.of(patient.getId())));
         
         List<ParameterDTO> abnormalParameterDTOs = abnormalParameters.stream()
             .map(this::toParameterDTO)
@@ -116,7 +228,7 @@ public class HealthController {
         HealthStatus status = parameter.getStatus();
         
         // Generate human-readable alert message
-        String alertMessage = generateAlertMessage(parameter, test, status);
+        String alertMessage = healthAnalysisService.generateAlertMessage(parameter, test, status);
         
         return new ParameterAlertDTO(
             parameter.getId(),
@@ -133,20 +245,19 @@ public class HealthController {
     }
 
     /**
-     * Convert Patient to PatientAlertSummaryDTO for global alerts dashboard
+     * Convert an alert row (rollup, patient and most critical parameter) to PatientAlertSummaryDTO
+     * for global alerts dashboard
      */
-    private PatientAlertSummaryDTO toPatientAlertSummaryDTO(Patient patient) {
-        HealthSummaryDTO healthSummary = createHealthSummary(patient);
+    private PatientAlertSummaryDTO toPatientAlertSummaryDTO(PatientAlertRow row) {
+        Patient patient = row.patient();
+        PatientHealthRollup rollup = row.rollup();
+        HealthSummaryDTO healthSummary = healthSummaryService.createHealthSummary(rollup);
         
-        // Find most recent test date
-        LocalDate lastTestDate = patient.getTests().stream()
-            .flatMap(test -> test.getParameters().stream())
-            .map(Parameter::getDatePerformed)
-            .max(Comparator.naturalOrder())
-            .orElse(null);
-        
-        // Generate most critical alert message
-        String mostCriticalAlert = generateMostCriticalAlert(patient);
+        // Describe the most critical parameter tracked by the rollup
+        Parameter mostCritical = row.worstParameter();
+        String mostCriticalAlert = mostCritical != null
+            ? healthAnalysisService.generateAlertMessage(mostCritical, row.worstTest(), mostCritical.getStatus())
+            : "No active alerts";
         
         return new PatientAlertSummaryDTO(
             patient.getId(),
@@ -158,49 +269,11 @@ public class HealthController {
             healthSummary.criticalCount(),
             healthSummary.abnormalCount(),
             healthSummary.healthScore(),
-            lastTestDate,
+            rollup.getLastTestDate(),
             mostCriticalAlert
         );
     }
 
-    /**
-     * Create HealthSummaryDTO for a patient
-     */
-    private HealthSummaryDTO createHealthSummary(Patient patient) {
-        List<Parameter> allParameters = patient.getTests().stream()
-            .flatMap(test -> test.getParameters().stream())
-            .collect(Collectors.toList());
-        
-        // Ensure all parameters have status calculated
-        allParameters.forEach(parameter -> {
-            if (parameter.getStatus() == null) {
-                Test test = parameter.getTest();
-                HealthStatus status = healthAnalysisService.calculateParameterStatus(
-                    parameter.getValue(), test.getReferenceMin(), test.getReferenceMax());
-                parameter.setStatus(status);
-            }
-        });
-        
-        int totalParameters = allParameters.size();
-        int normalCount = (int) allParameters.stream().filter(p -> p.getStatus() == HealthStatus.NORMAL).count();
-        int lowCount = (int) allParameters.stream().filter(p -> p.getStatus() == HealthStatus.LOW).count();
-        int highCount = (int) allParameters.stream().filter(p -> p.getStatus() == HealthStatus.HIGH).count();
-        int criticalCount = (int) allParameters.stream().filter(p -> p.getStatus() == HealthStatus.CRITICAL).count();
-        int abnormalCount = totalParameters - normalCount;
-        
-        int healthScore = healthAnalysisService.getHealthScore(patient);
-        
-        return new HealthSummaryDTO(
-            healthScore,
-            totalParameters,
-            normalCount,
-            lowCount,
-            highCount,
-            criticalCount,
-            abnormalCount
-        );
-    }
-
     /**
      * Convert Parameter to ParameterDTO with health status
      */
@@ -219,56 +292,4 @@ public class HealthController {
             status
         );
     }
-
-    /**
-     * Generate human-readable alert message for a parameter
-     */
-    private String generateAlertMessage(Parameter parameter, Test test, HealthStatus status) {
-        String paramName = test.getParameterName();
-        Double value = parameter.getValue();
-        String unit = test.getUnit();
-        Double min = test.getReferenceMin();
-        Double max = test.getReferenceMax();
-        
-        return switch (status) {
-            case CRITICAL -> {
-                if (value < min) {
-                    yield String.format("%s critically low: %.2f %s (normal: %.1f-%.1f %s)", 
-                        paramName, value, unit, min, max, unit);
-                } else {
-                    yield String.format("%s critically high: %.2f %s (normal: %.1f-%.1f %s)", 
-                        paramName, value, unit, min, max, unit);
-                }
-            }
-            case LOW -> String.format("%s below normal: %.2f %s (normal: %.1f-%.1f %s)", 
-                paramName, value, unit, min, max, unit);
-            case HIGH -> String.format("%s above normal: %.2f %s (normal: %.1f-%.1f %s)", 
-                paramName, value, unit, min, max, unit);
-            default -> String.format("%s: %.2f %s (normal)", paramName, value, unit);
-        };
-    }
-
-    /**
-     * Generate the most critical alert message for a patient
-     */
-    private String generateMostCriticalAlert(Patient patient) {
-        List<Parameter> abnormalParameters = healthAnalysisService.getAbnormalParameters(patient);
-        
-        if (abnormalParameters.isEmpty()) {
-            return "No active alerts";
-        }
-        
-        // Find the most critical parameter (prioritize CRITICAL status, then most recent)
-        Parameter mostCritical = abnormalParameters.stream()
-            .sorted(Comparator.comparing((Parameter p) -> p.getStatus() == HealthStatus.CRITICAL ? 0 : 1)
-                    .thenComparing(Parameter::getDatePerformed).reversed())
-            .findFirst()
-            .orElse(null);
-        
-        if (mostCritical != null) {
-            return generateAlertMessage(mostCritical, mostCritical.getTest(), mostCritical.getStatus());
-        }
-        
-        return "Multiple alerts detected";
-    }
-} 
\ No newline at end of file
+}
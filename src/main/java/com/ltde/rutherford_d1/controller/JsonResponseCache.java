@@ -0,0 +1,175 @@
+package com.ltde.rutherford_d1.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.WebRequest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ltde.rutherford_d1.config.ResponseCacheProperties;
+import com.ltde.rutherford_d1.service.PatientDataChangedEvent;
+import com.ltde.rutherford_d1.service.PatientDtoCache.Versioned;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Serialised JSON bodies of the per-patient and per-test GET endpoints, kept per resource version so repeat
+ * reads skip Jackson and gzip. Each entry holds the plain bytes and, for bodies of at least
+ * response-cache.compression-min-size, a gzip variant that is sent as is to clients accepting it.
+ * Entries are dropped after every committed write to their patient or test (see PatientDataChangedEvent)
+ * and rebuilt when the caller has read a newer version, like PatientDtoCache.
+ */
+@Component
+public class JsonResponseCache {
+
+    /** The cached representations; patient resources follow patient ids, test resources test ids */
+    public enum Resource {
+        PATIENT_DETAIL, PATIENT_HEALTH, TEST_DETAIL
+    }
+
+    private record Key(Resource resource, long id) {}
+
+    private record Body(long version, byte[] json, byte[] gzip) {
+        int weight() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+
+    private final ObjectWriter objectWriter;
+    private final long compressionMinSize;
+    private final Cache<Key, Body> bodies;
+
+    public JsonResponseCache(ObjectMapper objectMapper, ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.objectWriter = objectMapper.writer();
+        this.compressionMinSize = properties.getCompressionMinSize().toBytes();
+        this.bodies = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+            .maximumWeight(properties.getMaximumSize().toBytes())
+            .<Key, Body>weigher((key, body) -> body.weight())
+            .expireAfterWrite(properties.getExpireAfterWrite())
+            .recordStats()
+            .<Key, Body>build(), "responseBody");
+    }
+
+    /**
+     * Respond with the resource's body built from at least the given version, serialising the loader's DTO
+     * otherwise; 404 when the loader finds nothing
+     */
+    public <T> ResponseEntity<byte[]> respond(Resource resource, long id, long minVersion, WebRequest request,
+            Supplier<Optional<Versioned<T>>> loader) {
+        Key key = new Key(resource, id);
+        Body body = bodies.get(key, k -> load(loader));
+        if (body != null && body.version() < minVersion) {
+            // Built before a write whose invalidation has not arrived yet
+            bodies.asMap().remove(key, body);
+            body = bodies.get(key, k -> load(loader));
+        }
+        if (body == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        boolean gzip = body.gzip() != null && acceptsGzip(request);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .eTag(VersionETag.of(id, body.version(), gzip));
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.body(body.json());
+    }
+
+    /**
+     * Drop the bodies of patients and tests whose data changed; without a transaction this runs immediately
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientDataChanged(PatientDataChangedEvent event) {
+        for (Long patientId : event.patientIds()) {
+            bodies.invalidate(new Key(Resource.PATIENT_DETAIL, patientId));
+            bodies.invalidate(new Key(Resource.PATIENT_HEALTH, patientId));
+        }
+        for (Long testId : event.testIds()) {
+            bodies.invalidate(new Key(Resource.TEST_DETAIL, testId));
+        }
+    }
+
+    private <T> Body load(Supplier<Optional<Versioned<T>>> loader) {
+        return loader.get().map(dto -> {
+            byte[] json = serialize(dto.value());
+            return new Body(dto.version(), json, json.length >= compressionMinSize ? gzip(json) : null);
+        }).orElse(null);
+    }
+
+    private byte[] serialize(Object dto) {
+        try {
+            return objectWriter.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The gzip variant, or null when compressing does not make the body smaller
+     */
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.size() < json.length ? compressed.toByteArray() : null;
+    }
+
+    /**
+     * Whether Accept-Encoding allows gzip: listed (or covered by "*") with a non-zero quality
+     */
+    static boolean acceptsGzip(WebRequest request) {
+        String[] headers = request.getHeaderValues(HttpHeaders.ACCEPT_ENCODING);
+        if (headers == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String header : headers) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].trim();
+                if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                    gzipQuality = quality(parts);
+                } else if (name.equals("*")) {
+                    wildcardQuality = quality(parts);
+                }
+            }
+        }
+        Double quality = gzipQuality != null ? gzipQuality : wildcardQuality;
+        return quality != null && quality > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
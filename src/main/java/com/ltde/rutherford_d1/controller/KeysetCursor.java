@@ -0,0 +1,96 @@
+package com.ltde.rutherford_d1.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Opaque cursor for keyset pagination of list endpoints.
+ * It carries the sort key and id of the last row of a page; the next page continues
+ * strictly after that (key, id) pair. List endpoints keep returning a plain JSON array
+ * and announce the next page through the X-Next-Cursor and Link headers.
+ */
+record KeysetCursor(String sort, long id, String key) {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Encode as an URL-safe token
+     */
+    String encode() {
+        String raw = sort + "|" + id + "|" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()} for the same sort order
+     * @throws ResponseStatusException 400 if the token is malformed or belongs to a different sort order
+     */
+    static KeysetCursor decode(String token, String expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length == 3 && parts[0].equals(expectedSort)) {
+                return new KeysetCursor(parts[0], Long.parseLong(parts[1]), parts[2]);
+            }
+        } catch (IllegalArgumentException e) {
+            // Fall through to the bad request below
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor for sort '" + expectedSort + "'");
+    }
+
+    /**
+     * The sort key as an ISO date, for date-ordered pages
+     */
+    LocalDate dateKey() {
+        try {
+            return LocalDate.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor for sort '" + sort + "'");
+        }
+    }
+
+    /**
+     * First-page request of the clamped size; keyset queries never need an offset
+     */
+    static Pageable pageOf(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Build the list response for a slice, adding next-page headers when more rows exist
+     * @param keyOf Extracts the sort key of a row, as passed back to the keyset query
+     * @param idOf Extracts the id of a row
+     */
+    static <T, D> ResponseEntity<List<D>> toResponse(Slice<T> slice, String sort, Function<T, D> toDTO,
+                                                     Function<T, String> keyOf, Function<T, Long> idOf) {
+        List<D> body = slice.getContent().stream().map(toDTO).toList();
+        if (!slice.hasNext()) {
+            return ResponseEntity.ok(body);
+        }
+
+        T last = slice.getContent().get(slice.getNumberOfElements() - 1);
+        String next = new KeysetCursor(sort, idOf.apply(last), keyOf.apply(last)).encode();
+        String nextLink = ServletUriComponentsBuilder.fromCurrentRequest()
+            .replaceQueryParam("cursor", next)
+            .toUriString();
+        return ResponseEntity.ok()
+            .header(NEXT_CURSOR_HEADER, next)
+            .header(HttpHeaders.LINK, "<" + nextLink + ">; rel=\"next\"")
+            .body(body);
+    }
+}
@@ -0,0 +1,88 @@
+package com.ltde.rutherford_d1.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Writes query results as newline-delimited JSON (application/x-ndjson) while they are read.
+ * Rows come from a forward-only JPA stream inside a read-only transaction (the JDBC fetch size is set by
+ * spring.jpa.properties.hibernate.jdbc.fetch_size), each row is written as soon as it is mapped, and the
+ * persistence context is cleared periodically, so heap use stays flat regardless of the row count.
+ */
+@Component
+public class NdjsonStreamWriter {
+
+    /** Rows written between flushes of the response and clears of the persistence context */
+    private static final int FLUSH_INTERVAL = 200;
+
+    private final ObjectWriter objectWriter;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public NdjsonStreamWriter(ObjectMapper objectMapper, EntityManager entityManager,
+                              PlatformTransactionManager transactionManager) {
+        this.objectWriter = objectMapper.writer();
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Build a streaming NDJSON response
+     * @param query Opens the row stream; called on the async response thread inside a read-only transaction
+     * @param toDTO Maps each row to the object written on its own line
+     */
+    public <T> ResponseEntity<StreamingResponseBody> stream(Supplier<Stream<T>> query, Function<T, ?> toDTO) {
+        StreamingResponseBody body = out -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<T> rows = query.get()) {
+                long[] written = {0};
+                rows.forEach(row -> {
+                    writeLine(out, toDTO.apply(row));
+                    // Flush the first row right away so consumers see data immediately
+                    if (written[0]++ % FLUSH_INTERVAL == 0) {
+                        flush(out);
+                        entityManager.clear();
+                    }
+                });
+                flush(out);
+            }
+        });
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectWriter.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush(OutputStream out) {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,50 +1,164 @@
 package com.ltde.rutherford_d1.controller;
 
-import java.util.Comparator;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.ltde.rutherford_d1.controller.JsonResponseCache.Resource;
 import com.ltde.rutherford_d1.dto.HealthSummaryDTO;
 import com.ltde.rutherford_d1.dto.PatientDTO;
 import com.ltde.rutherford_d1.dto.PatientDetailDTO;
 import com.ltde.rutherford_d1.dto.TestSummaryDTO;
-import com.ltde.rutherford_d1.model.HealthStatus;
-import com.ltde.rutherford_d1.model.Parameter;
 import com.ltde.rutherford_d1.model.Patient;
-import com.ltde.rutherford_d1.model.Test;
 import com.ltde.rutherford_d1.repository.PatientRepository;
-import com.ltde.rutherford_d1.service.HealthAnalysisService;
+import com.ltde.rutherford_d1.service.HealthSummaryService;
+import com.ltde.rutherford_d1.service.PatientDtoCache;
+import com.ltde.rutherford_d1.service.PatientDtoCache.Versioned;
+import com.ltde.rutherford_d1.service.PatientSearchIndex;
 
 @RestController
 @RequestMapping("/patient")
 public class PatientController {
     private final PatientRepository patientRepository;
-    private final HealthAnalysisService healthAnalysisService;
+    private final HealthSummaryService healthSummaryService;
+    private final PatientDtoCache patientDtoCache;
+    private final JsonResponseCache jsonResponseCache;
+    private final NdjsonStreamWriter ndjsonStreamWriter;
+    private final PatientSearchIndex patientSearchIndex;
 
-    public PatientController(PatientRepository patientRepository, HealthAnalysisService healthAnalysisService) {
+    public PatientController(PatientRepository patientRepository,
+                             HealthSummaryService healthSummaryService,
+                             PatientDtoCache patientDtoCache,
+                             JsonResponseCache jsonResponseCache,
+                             NdjsonStreamWriter ndjsonStreamWriter,
+                             PatientSearchIndex patientSearchIndex) {
         this.patientRepository = patientRepository;
-        this.healthAnalysisService = healthAnalysisService;
+        this.healthSummaryService = healthSummaryService;
+        this.patientDtoCache = patientDtoCache;
+        this.jsonResponseCache = jsonResponseCache;
+        this.ndjsonStreamWriter = ndjsonStreamWriter;
+        this.patientSearchIndex = patientSearchIndex;
     }
 
+    // First-page bound of the last-test-date keyset; patients without tests have Patient.NO_TEST_DATE
+    private static final LocalDate BEFORE_ANY_TEST_DATE = LocalDate.of(9999, 12, 31);
+
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int MAX_SEARCH_LIMIT = 100;
+
+    /** Retry-After of searches made while the index is still loading */
+    private static final String SEARCH_RETRY_AFTER_SECONDS = "5";
+
+    /**
+     * Get one page of patients using keyset pagination.
+     * Sort by id (default), name, species or lastTestDate (most recent first);
+     * pass the X-Next-Cursor header of a response as cursor to fetch the following page.
+     */
+    @Transactional(readOnly = true)
     @GetMapping
-    public List<PatientDTO> getAllPatients() {
-        return patientRepository.findAll().stream()
+    public ResponseEntity<List<PatientDTO>> getAllPatients(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "" + KeysetCursor.DEFAULT_PAGE_SIZE) int size) {
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor, sort) : null;
+        long afterId = after != null ? after.id() : 0L;
+        Pageable page = KeysetCursor.pageOf(size);
+
+        return switch (sort) {
+            case "id" -> KeysetCursor.toResponse(
+                patientRepository.findPageAfterId(afterId, page),
+                sort, this::toPatientDTO, patient -> "", Patient::getId);
+            case "name" -> KeysetCursor.toResponse(
+                patientRepository.findPageAfterName(after != null ? after.key() : "", afterId, page),
+                sort, this::toPatientDTO, patient -> nullToEmpty(patient.getName()), Patient::getId);
+            case "species" -> KeysetCursor.toResponse(
+                patientRepository.findPageAfterSpecies(after != null ? after.key() : "", afterId, page),
+                sort, this::toPatientDTO, patient -> nullToEmpty(patient.getSpecies()), Patient::getId);
+            case "lastTestDate" -> KeysetCursor.toResponse(
+                patientRepository.findPageAfterLastTestDate(
+                    after != null ? after.dateKey() : BEFORE_ANY_TEST_DATE, afterId, page),
+                sort, this::toPatientDTO, patient -> patient.getLastTestDate().toString(), Patient::getId);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Unsupported sort '" + sort + "' (expected id, name, species or lastTestDate)");
+        };
+    }
+
+    /**
+     * Typeahead search over name, species, breed, owner name and owner contact: each word of q must start
+     * a word of the patient, e.g. "lab jo" finds a Labrador owned by John. Matches are found in the
+     * PatientSearchIndex and only the matched patients are read. Answers 503 with a Retry-After while the
+     * index is still loading after startup rather than holding the request until it is ready.
+     */
+    @Transactional(readOnly = true)
+    @GetMapping("/search")
+    public ResponseEntity<List<PatientDTO>> searchPatients(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "" + DEFAULT_SEARCH_LIMIT) int limit) {
+        Optional<List<Long>> matches = patientSearchIndex.search(q, Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT)));
+        if (matches.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, SEARCH_RETRY_AFTER_SECONDS)
+                .build();
+        }
+        List<Long> ids = matches.get();
+        if (ids.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+        Map<Long, Patient> patientsById = patientRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        // A patient deleted since it was indexed is left out
+        return ResponseEntity.ok(ids.stream()
+            .map(patientsById::get)
+            .filter(Objects::nonNull)
             .map(this::toPatientDTO)
-            .collect(Collectors.toList());
+            .toList());
     }
 
+    /**
+     * Stream every patient as newline-delimited JSON (Accept: application/x-ndjson)
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPatients() {
+        return ndjsonStreamWriter.stream(patientRepository::streamAll, this::toPatientDTO);
+    }
+
+    /**
+     * Get a patient with its diagnostic history, served pre-serialised (and gzipped when accepted).
+     * The ETag follows the patient's version counter; a matching If-None-Match is answered with 304
+     * from the version alone.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<PatientDetailDTO> getPatientById(@PathVariable Long id) {
-        return patientRepository.findById(id)
-            .map(this::toPatientDetailDTO)
-            .map(ResponseEntity::ok)
-            .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getPatientById(@PathVariable Long id, WebRequest request) {
+        Long version = patientRepository.findVersionById(id).orElse(null);
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String matchingETag = VersionETag.matching(request, id, version, JsonResponseCache.acceptsGzip(request));
+        if (matchingETag != null) {
+            return VersionETag.notModified(matchingETag);
+        }
+        return jsonResponseCache.respond(Resource.PATIENT_DETAIL, id, version, request, () ->
+            patientDtoCache.getPatientDetail(id, version, patientId -> patientRepository.findById(patientId)
+                .map(patient -> new Versioned<>(patient.getVersion(), toPatientDetailDTO(patient)))));
     }
 
     private PatientDTO toPatientDTO(Patient patient) {
@@ -61,7 +175,7 @@ public class PatientController {
 
     private PatientDetailDTO toPatientDetailDTO(Patient patient) {
         // Create health summary
-        HealthSummaryDTO healthSummary = createHealthSummary(patient);
+        HealthSummaryDTO healthSummary = healthSummaryService.getHealthSummary(patient.getId());
         
         // Create diagnostic history
         List<TestSummaryDTO> tests = patient.getTests().stream()
@@ -84,41 +198,7 @@ public class PatientController {
         );
     }
 
-    /**
-     * Create HealthSummaryDTO for a patient
-     */
-    private HealthSummaryDTO createHealthSummary(Patient patient) {
-        List<Parameter> allParameters = patient.getTests().stream()
-            .flatMap(test -> test.getParameters().stream())
-            .collect(Collectors.toList());
-        
-        // Ensure all parameters have status calculated
-        allParameters.forEach(parameter -> {
-            if (parameter.getStatus() == null) {
-                Test test = parameter.getTest();
-                HealthStatus status = healthAnalysisService.calculateParameterStatus(
-                    parameter.getValue(), test.getReferenceMin(), test.getReferenceMax());
-                parameter.setStatus(status);
-            }
-        });
-        
-        int totalParameters = allParameters.size();
-        int normalCount = (int) allParameters.stream().filter(p -> p.getStatus() == HealthStatus.NORMAL).count();
-        int lowCount = (int) allParameters.stream().filter(p -> p.getStatus() == HealthStatus.LOW).count();
-        int highCount = (int) allParameters.stream().filter(p -> p.getStatus() == HealthStatus.HIGH).count();
-        int criticalCount = (int) allParameters.stream().filter(p -> p.getStatus() == HealthStatus.CRITICAL).count();
-        int abnormalCount = totalParameters - normalCount;
-        
-        int healthScore = healthAnalysisService.getHealthScore(patient);
-        
-        return new HealthSummaryDTO(
-            healthScore,
-            totalParameters,
-            normalCount,
-            lowCount,
-            highCount,
-            criticalCount,
-            abnormalCount
-        );
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
     }
-}
\ No newline at end of file
+}
@@ -1,51 +1,259 @@
 package com.ltde.rutherford_d1.controller;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.ltde.rutherford_d1.controller.JsonResponseCache.Resource;
+import com.ltde.rutherford_d1.dto.ParameterBatchResultDTO;
 import com.ltde.rutherford_d1.dto.ParameterDTO;
+import com.ltde.rutherford_d1.dto.ParameterMeasurementDTO;
 import com.ltde.rutherford_d1.dto.PatientDTO;
 import com.ltde.rutherford_d1.dto.TestDetailDTO;
+import com.ltde.rutherford_d1.dto.TestHistoryDTO;
+import com.ltde.rutherford_d1.dto.TestParameterBatchDTO;
+import com.ltde.rutherford_d1.dto.TestSeriesDTO;
 import com.ltde.rutherford_d1.dto.TestSummaryDTO;
+import com.ltde.rutherford_d1.dto.TestTrendDTO;
 import com.ltde.rutherford_d1.model.HealthStatus;
 import com.ltde.rutherford_d1.model.Parameter;
 import com.ltde.rutherford_d1.model.Patient;
 import com.ltde.rutherford_d1.model.Test;
 import com.ltde.rutherford_d1.repository.TestRepository;
-import com.ltde.rutherford_d1.service.HealthAnalysisService;
+import com.ltde.rutherford_d1.service.ParameterService;
+import com.ltde.rutherford_d1.service.PatientDtoCache.Versioned;
+import com.ltde.rutherford_d1.service.TestHistoryService;
+import com.ltde.rutherford_d1.service.TestHistoryService.Resolution;
+import com.ltde.rutherford_d1.service.TestTrendService;
+import com.ltde.rutherford_d1.timeseries.SeriesDownsampler;
+import com.ltde.rutherford_d1.timeseries.TestSeries;
+import com.ltde.rutherford_d1.timeseries.TestSeriesStore;
+
+import jakarta.persistence.EntityNotFoundException;
 
 @RestController
 @RequestMapping("/test")
 public class TestController {
+    /** Points returned by /test/{id}/series without maxPoints, about what a chart can draw */
+    private static final int DEFAULT_SERIES_POINTS = 500;
+
+    // Bounds of an open series range, within what every supported database stores
+    private static final LocalDate FIRST_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate LAST_DATE = LocalDate.of(9999, 12, 31);
+
     private final TestRepository testRepository;
-    private final HealthAnalysisService healthAnalysisService;
+    private final ParameterService parameterService;
+    private final TestSeriesStore testSeriesStore;
+    private final TestTrendService testTrendService;
+    private final TestHistoryService testHistoryService;
+    private final JsonResponseCache jsonResponseCache;
+    private final NdjsonStreamWriter ndjsonStreamWriter;
 
-    public TestController(TestRepository testRepository, HealthAnalysisService healthAnalysisService) {
+    public TestController(TestRepository testRepository,
+                          ParameterService parameterService,
+                          TestSeriesStore testSeriesStore,
+                          TestTrendService testTrendService,
+                          TestHistoryService testHistoryService,
+                          JsonResponseCache jsonResponseCache,
+                          NdjsonStreamWriter ndjsonStreamWriter) {
         this.testRepository = testRepository;
-        this.healthAnalysisService = healthAnalysisService;
+        this.parameterService = parameterService;
+        this.testSeriesStore = testSeriesStore;
+        this.testTrendService = testTrendService;
+        this.testHistoryService = testHistoryService;
+        this.jsonResponseCache = jsonResponseCache;
+        this.ndjsonStreamWriter = ndjsonStreamWriter;
     }
 
+    /**
+     * Get one page of tests using keyset pagination.
+     * Sort by id (default) or name; pass the X-Next-Cursor header of a response as cursor
+     * to fetch the following page.
+     */
+    @Transactional(readOnly = true)
     @GetMapping
-    public List<TestSummaryDTO> getAllTests() {
-        return testRepository.findAll().stream()
-            .map(this::toTestSummaryDTO)
-            .collect(Collectors.toList());
+    public ResponseEntity<List<TestSummaryDTO>> getAllTests(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "" + KeysetCursor.DEFAULT_PAGE_SIZE) int size) {
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor, sort) : null;
+        long afterId = after != null ? after.id() : 0L;
+        Pageable page = KeysetCursor.pageOf(size);
+
+        return switch (sort) {
+            case "id" -> KeysetCursor.toResponse(
+                testRepository.findPageAfterId(afterId, page),
+                sort, this::toTestSummaryDTO, test -> "", Test::getId);
+            case "name" -> KeysetCursor.toResponse(
+                testRepository.findPageAfterName(after != null ? after.key() : "", afterId, page),
+                sort, this::toTestSummaryDTO, test -> test.getName() != null ? test.getName() : "", Test::getId);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Unsupported sort '" + sort + "' (expected id or name)");
+        };
+    }
+
+    /**
+     * Stream every test summary as newline-delimited JSON (Accept: application/x-ndjson)
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTests() {
+        return ndjsonStreamWriter.stream(testRepository::streamAll, this::toTestSummaryDTO);
     }
 
+    /**
+     * Get a test with its measurements ordered by date, read from the in-memory series store and served
+     * pre-serialised (and gzipped when accepted). The ETag follows the test's version counter; a matching If-None-Match is answered with 304.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<TestDetailDTO> getTestById(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getTestById(@PathVariable Long id, WebRequest request) {
+        Long version = testRepository.findVersionById(id).orElse(null);
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String matchingETag = VersionETag.matching(request, id, version, JsonResponseCache.acceptsGzip(request));
+        if (matchingETag != null) {
+            return VersionETag.notModified(matchingETag);
+        }
+        return jsonResponseCache.respond(Resource.TEST_DETAIL, id, version, request, () -> testRepository.findById(id)
+            .map(test -> new Versioned<>(test.getVersion(), toTestDetailDTO(test))));
+    }
+
+    /**
+     * Get slope, moving averages, rate of change and an early-warning flag for a test's measurements
+     */
+    @GetMapping("/{id}/trend")
+    public ResponseEntity<TestTrendDTO> getTestTrend(@PathVariable Long id) {
+        return testRepository.findById(id)
+            .map(testTrendService::getTrend)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get the measurements of a date range (both ends inclusive, open when omitted) downsampled to about
+     * maxPoints with Largest-Triangle-Three-Buckets; every CRITICAL point in the range is kept
+     */
+    @GetMapping("/{id}/series")
+    public ResponseEntity<TestSeriesDTO> getTestSeries(@PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "" + DEFAULT_SERIES_POINTS) int maxPoints) {
+        if (maxPoints < SeriesDownsampler.MIN_POINTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "maxPoints must be at least " + SeriesDownsampler.MIN_POINTS);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        return testRepository.findById(id)
+            .map(test -> toTestSeriesDTO(test, from, to, maxPoints))
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get a test's measurement count, min, max, mean and status counts per month or year, read from the
+     * monthly rollups, so the cost follows the number of periods rather than the number of measurements
+     */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<TestHistoryDTO> getTestHistory(@PathVariable Long id,
+                                                         @RequestParam(defaultValue = "month") String resolution) {
+        Resolution periods = switch (resolution) {
+            case "month" -> Resolution.MONTH;
+            case "year" -> Resolution.YEAR;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Unsupported resolution '" + resolution + "' (expected month or year)");
+        };
         return testRepository.findById(id)
-            .map(this::toTestDetailDTO)
+            .map(test -> testHistoryService.getHistory(test, periods))
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Bulk-ingest measurements of one test; each is classified against the test's reference range
+     */
+    @PostMapping("/{id}/parameters:batch")
+    public ResponseEntity<ParameterBatchResultDTO> addParameters(@PathVariable Long id,
+                                                                 @RequestBody List<ParameterMeasurementDTO> measurements) {
+        return recordBatches(List.of(new TestParameterBatchDTO(id, measurements)));
+    }
+
+    /**
+     * Bulk-ingest measurements of several tests in one transaction
+     */
+    @PostMapping("/parameters:batch")
+    public ResponseEntity<ParameterBatchResultDTO> addParametersToTests(@RequestBody List<TestParameterBatchDTO> batches) {
+        return recordBatches(batches);
+    }
+
+    private ResponseEntity<ParameterBatchResultDTO> recordBatches(List<TestParameterBatchDTO> batches) {
+        validateBatches(batches);
+        try {
+            List<Parameter> parameters = parameterService.recordParameters(batches);
+            return ResponseEntity.status(HttpStatus.CREATED).body(toParameterBatchResultDTO(batches, parameters));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Reject incomplete measurements and requests above ParameterService.MAX_BATCH_SIZE with a 400
+     */
+    private void validateBatches(List<TestParameterBatchDTO> batches) {
+        int total = 0;
+        for (TestParameterBatchDTO batch : batches) {
+            if (batch == null || batch.testId() == null || batch.parameters() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Each batch needs a testId and parameters");
+            }
+            for (ParameterMeasurementDTO measurement : batch.parameters()) {
+                if (measurement == null || measurement.value() == null || measurement.datePerformed() == null) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Each parameter needs a value and datePerformed (test " + batch.testId() + ")");
+                }
+            }
+            total += batch.parameters().size();
+        }
+        if (total > ParameterService.MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "At most " + ParameterService.MAX_BATCH_SIZE + " parameters per request, got " + total);
+        }
+    }
+
+    private ParameterBatchResultDTO toParameterBatchResultDTO(List<TestParameterBatchDTO> batches, List<Parameter> parameters) {
+        Map<HealthStatus, Integer> counts = new EnumMap<>(HealthStatus.class);
+        parameters.forEach(parameter -> counts.merge(parameter.getStatus(), 1, Integer::sum));
+
+        return new ParameterBatchResultDTO(
+            (int) batches.stream().map(TestParameterBatchDTO::testId).distinct().count(),
+            parameters.size(),
+            counts.getOrDefault(HealthStatus.NORMAL, 0),
+            counts.getOrDefault(HealthStatus.LOW, 0),
+            counts.getOrDefault(HealthStatus.HIGH, 0),
+            counts.getOrDefault(HealthStatus.CRITICAL, 0)
+        );
+    }
+
     private TestSummaryDTO toTestSummaryDTO(Test test) {
         return new TestSummaryDTO(
             test.getId(),
@@ -62,9 +270,7 @@ public class TestController {
             test.getUnit(),
             test.getReferenceMin(),
             test.getReferenceMax(),
-            test.getParameters().stream()
-                .map(this::toParameterDTO)
-                .collect(Collectors.toList())
+            toParameterDTOs(testSeriesStore.getSeries(test))
         );
     }
 
@@ -80,23 +286,40 @@ public class TestController {
         );
     }
 
-    private ParameterDTO toParameterDTO(Parameter parameter) {
-        // Calculate health status if not already set
-        HealthStatus status = parameter.getStatus();
-        if (status == null) {
-            Test test = parameter.getTest();
-            status = healthAnalysisService.calculateParameterStatus(
-                parameter.getValue(), 
-                test.getReferenceMin(), 
-                test.getReferenceMax()
-            );
+    private TestSeriesDTO toTestSeriesDTO(Test test, LocalDate from, LocalDate to, int maxPoints) {
+        TestSeries series = testSeriesStore.loadRange(test, from != null ? from : FIRST_DATE, to != null ? to : LAST_DATE);
+        BitSet kept = SeriesDownsampler.downsample(series, maxPoints);
+        List<ParameterDTO> points = new ArrayList<>(kept.cardinality());
+        for (int i = kept.nextSetBit(0); i >= 0; i = kept.nextSetBit(i + 1)) {
+            points.add(toParameterDTO(series, i));
+        }
+        return new TestSeriesDTO(
+            test.getId(),
+            test.getParameterName(),
+            test.getUnit(),
+            test.getReferenceMin(),
+            test.getReferenceMax(),
+            from,
+            to,
+            series.size(),
+            points
+        );
+    }
+
+    private List<ParameterDTO> toParameterDTOs(TestSeries series) {
+        List<ParameterDTO> parameters = new ArrayList<>(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            parameters.add(toParameterDTO(series, i));
         }
-        
+        return parameters;
+    }
+
+    private ParameterDTO toParameterDTO(TestSeries series, int index) {
         return new ParameterDTO(
-            parameter.getId(),
-            parameter.getValue(),
-            parameter.getDatePerformed(),
-            status  // Include the health status in the DTO
+            series.parameterId(index),
+            series.boxedValue(index),
+            series.date(index),
+            series.healthStatus(index)
         );
     }
-} 
\ No newline at end of file
+}
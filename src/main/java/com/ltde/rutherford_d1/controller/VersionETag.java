@@ -0,0 +1,65 @@
+package com.ltde.rutherford_d1.controller;
+
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Strong ETags for the representations of a Patient or Test, derived from the entity's id and
+ * version counter (see VersionCounterService). Conditional GETs are answered from the version
+ * alone, before the entity graph is loaded; the bodies themselves come from JsonResponseCache.
+ */
+final class VersionETag {
+
+    private VersionETag() {
+    }
+
+    static String of(long id, long version) {
+        return of(id, version, false);
+    }
+
+    /**
+     * The gzip-encoded body is a different representation, so it gets its own tag
+     */
+    static String of(long id, long version, boolean gzip) {
+        return "\"" + id + "-" + version + (gzip ? "-gzip" : "") + "\"";
+    }
+
+    /**
+     * The current tag named by the request's If-None-Match, or null when it names none. The gzip tag only
+     * matches a request that accepts gzip, which is the only request that would be sent that encoding; "*"
+     * matches as the identity tag.
+     */
+    static String matching(WebRequest request, long id, long version, boolean acceptsGzip) {
+        String[] ifNoneMatch = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        ETag current = ETag.create(of(id, version));
+        ETag currentGzip = ETag.create(of(id, version, true));
+        for (String header : ifNoneMatch) {
+            for (ETag etag : ETag.parse(header)) {
+                // If-None-Match uses the weak comparison (RFC 9110, 13.1.2)
+                if (etag.isWildcard() || etag.compare(current, false)) {
+                    return current.formattedTag();
+                }
+                if (acceptsGzip && etag.compare(currentGzip, false)) {
+                    return currentGzip.formattedTag();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 304 carrying the tag the client revalidated, so caches keep the stored response of that encoding
+     */
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .eTag(etag)
+            .build();
+    }
+}
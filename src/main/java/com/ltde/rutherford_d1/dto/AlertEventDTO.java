@@ -0,0 +1,22 @@
+package com.ltde.rutherford_d1.dto;
+
+import java.time.LocalDate;
+
+import com.ltde.rutherford_d1.model.HealthStatus;
+
+/**
+ * DTO pushed to alert stream subscribers when a parameter is stored or reclassified as LOW, HIGH or CRITICAL
+ */
+public record AlertEventDTO(
+    Long parameterId,
+    Long patientId,
+    Long testId,
+    String testName,              // Name of the test this parameter belongs to
+    String parameterName,         // Name of the parameter (e.g., "Hemoglobin")
+    String unit,                  // Unit of measurement
+    Double value,                 // Measured value
+    Double referenceMin,          // Reference range minimum
+    Double referenceMax,          // Reference range maximum
+    HealthStatus status,          // LOW, HIGH or CRITICAL
+    LocalDate datePerformed       // When this measurement was taken
+) {}
@@ -0,0 +1,18 @@
+package com.ltde.rutherford_d1.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO summarising a test's measurements over one month or year
+ */
+public record HistoryPeriodDTO(
+    LocalDate periodStart,   // First day of the month or year
+    long count,              // Measurements performed in the period
+    Double min,              // Null when none of them has a value
+    Double max,
+    Double mean,
+    long normalCount,
+    long lowCount,
+    long highCount,
+    long criticalCount
+) {}
@@ -0,0 +1,13 @@
+package com.ltde.rutherford_d1.dto;
+
+/**
+ * DTO summarizing a bulk ingestion request
+ */
+public record ParameterBatchResultDTO(
+    int testCount,            // Number of tests that received measurements
+    int parameterCount,       // Number of parameters stored
+    int normalCount,
+    int lowCount,
+    int highCount,
+    int criticalCount
+) {}
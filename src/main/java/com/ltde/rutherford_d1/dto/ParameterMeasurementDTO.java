@@ -0,0 +1,11 @@
+package com.ltde.rutherford_d1.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for a single incoming measurement in a bulk ingestion request
+ */
+public record ParameterMeasurementDTO(
+    Double value,
+    LocalDate datePerformed
+) {}
@@ -0,0 +1,16 @@
+package com.ltde.rutherford_d1.dto;
+
+import java.util.List;
+
+/**
+ * DTO holding a test's long-range history, one entry per month or year with measurements, oldest first
+ */
+public record TestHistoryDTO(
+    Long testId,
+    String parameterName,
+    String unit,
+    Double referenceMin,
+    Double referenceMax,
+    String resolution,       // month or year
+    List<HistoryPeriodDTO> periods
+) {}
@@ -0,0 +1,11 @@
+package com.ltde.rutherford_d1.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the measurements of one test in a multi-test bulk ingestion request
+ */
+public record TestParameterBatchDTO(
+    Long testId,
+    List<ParameterMeasurementDTO> parameters
+) {}
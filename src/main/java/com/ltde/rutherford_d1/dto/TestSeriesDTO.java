@@ -0,0 +1,19 @@
+package com.ltde.rutherford_d1.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO holding a chart-ready, possibly downsampled range of a test's measurements
+ */
+public record TestSeriesDTO(
+    Long testId,
+    String parameterName,
+    String unit,
+    Double referenceMin,
+    Double referenceMax,
+    LocalDate from,             // Null when the range is open on that side
+    LocalDate to,
+    int pointsInRange,          // Measurements with a value in the range, before downsampling
+    List<ParameterDTO> points   // Ordered by date; every CRITICAL point in the range is included
+) {}
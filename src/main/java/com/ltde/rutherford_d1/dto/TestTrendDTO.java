@@ -0,0 +1,24 @@
+package com.ltde.rutherford_d1.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO describing where a test's measurements are heading
+ * Rates are per month (365.2425 / 12 days); null when there are too few measurements
+ */
+public record TestTrendDTO(
+    Long testId,
+    String parameterName,
+    String unit,
+    Double referenceMin,
+    Double referenceMax,
+    long pointCount,              // Measurements with a value and a date
+    Double latestValue,
+    LocalDate latestDate,
+    Double slopePerMonth,         // Least-squares slope over the full history
+    Double movingAverage3,        // Mean of the latest 3 measurements
+    Double movingAverage6,        // Mean of the latest 6 measurements
+    Double rateOfChangePerMonth,  // Change between the latest two measurements
+    Double projectedValue,        // movingAverage3 (or latestValue) moved 3 months along the slope
+    boolean trendingTowardAbnormal // Projection leaves the reference range on the side the slope points to
+) {}
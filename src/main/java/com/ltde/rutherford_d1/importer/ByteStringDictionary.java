@@ -0,0 +1,86 @@
+package com.ltde.rutherford_d1.importer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Maps byte ranges of a buffer to canonical Strings without allocating for values seen before.
+ * CSV text columns (test name, analyte, unit) have very few distinct values, so after the first
+ * rows every lookup is a hash and a byte comparison instead of a new String per field.
+ */
+final class ByteStringDictionary {
+
+    private byte[][] keys = new byte[64][];
+    private String[] values = new String[64];
+    private int[] hashes = new int[64];
+    private int size;
+
+    /**
+     * Canonical String for the UTF-8 bytes in [start, end) of the buffer
+     */
+    String get(ByteBuffer buffer, int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+
+        int mask = keys.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            byte[] key = keys[slot];
+            if (key == null) {
+                return insert(slot, hash, buffer, start, end);
+            }
+            if (hashes[slot] == hash && matches(key, buffer, start, end)) {
+                return values[slot];
+            }
+        }
+    }
+
+    private String insert(int slot, int hash, ByteBuffer buffer, int start, int end) {
+        byte[] key = new byte[end - start];
+        buffer.get(start, key);
+        String value = new String(key, StandardCharsets.UTF_8);
+        keys[slot] = key;
+        values[slot] = value;
+        hashes[slot] = hash;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return value;
+    }
+
+    private static boolean matches(byte[] key, ByteBuffer buffer, int start, int end) {
+        if (key.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void grow() {
+        byte[][] oldKeys = keys;
+        String[] oldValues = values;
+        int[] oldHashes = hashes;
+        keys = new byte[oldKeys.length * 2][];
+        values = new String[oldKeys.length * 2];
+        hashes = new int[oldKeys.length * 2];
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) {
+                continue;
+            }
+            int slot = oldHashes[i] & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+            hashes[slot] = oldHashes[i];
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.ltde.rutherford_d1.importer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ltde.rutherford_d1.model.CsvImportCheckpoint;
+import com.ltde.rutherford_d1.model.Parameter;
+import com.ltde.rutherford_d1.model.Test;
+import com.ltde.rutherford_d1.repository.CsvImportCheckpointRepository;
+import com.ltde.rutherford_d1.repository.PatientRepository;
+import com.ltde.rutherford_d1.repository.TestRepository;
+import com.ltde.rutherford_d1.service.HealthAnalysisService;
+import com.ltde.rutherford_d1.service.ParameterService;
+
+/**
+ * Imports analyser CSV lab exports (see {@link LabCsvParser} for the format).
+ * Each chunk of rows goes through three stages: parse (memory-mapped, sequential), classify
+ * (parallel across cores) and write (one transaction per chunk, JDBC-batched inserts). The
+ * checkpoint is committed with every chunk, so re-running an interrupted import resumes after the
+ * last stored row. Rows are matched to an existing test of the patient by test name and analyte;
+ * missing tests are created with the row's unit and reference range.
+ */
+@Service
+public class CsvLabImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvLabImportService.class);
+
+    /** Rows parsed, classified and committed together */
+    static final int CHUNK_ROWS = 5000;
+
+    /** Rows classified per parallel task */
+    private static final int CLASSIFY_BLOCK_ROWS = 1024;
+
+    /** Maximum number of rejected rows kept in a report */
+    private static final int MAX_REPORTED_REJECTS = 100;
+
+    private final CsvImportCheckpointRepository checkpointRepository;
+    private final PatientRepository patientRepository;
+    private final TestRepository testRepository;
+    private final ParameterService parameterService;
+    private final HealthAnalysisService healthAnalysisService;
+    private final TransactionTemplate transactionTemplate;
+
+    public CsvLabImportService(CsvImportCheckpointRepository checkpointRepository,
+                               PatientRepository patientRepository,
+                               TestRepository testRepository,
+                               ParameterService parameterService,
+                               HealthAnalysisService healthAnalysisService,
+                               TransactionTemplate transactionTemplate) {
+        this.checkpointRepository = checkpointRepository;
+        this.patientRepository = patientRepository;
+        this.testRepository = testRepository;
+        this.parameterService = parameterService;
+        this.healthAnalysisService = healthAnalysisService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * A row that was not imported
+     */
+    public record RejectedRow(long byteOffset, String reason) {}
+
+    /**
+     * Outcome of one import run; row counts cover this run only, not rows stored by earlier attempts
+     */
+    public record ImportReport(
+        Path file,
+        long resumedFromOffset,   // 0 unless a checkpoint of an earlier run was found
+        long importedRows,
+        long rejectedRows,
+        List<RejectedRow> rejectedSamples,
+        long parseNanos,
+        long classifyNanos,
+        long writeNanos,
+        long elapsedNanos
+    ) {
+
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : (importedRows + rejectedRows) * 1e9 / elapsedNanos;
+        }
+    }
+
+    /** Identifies a test of a patient within an import */
+    private record TestKey(long patientId, String testName, String analyte) {}
+
+    /**
+     * Import a file, resuming from its checkpoint when an earlier run stopped part-way
+     */
+    public ImportReport importFile(Path file) throws IOException {
+        Path source = file.toAbsolutePath().normalize();
+        long fileSize = Files.size(source);
+        long lastModified = Files.getLastModifiedTime(source).toMillis();
+        long startOffset = checkpointRepository.findById(source.toString())
+            .filter(checkpoint -> checkpoint.getFileSize() == fileSize && checkpoint.getFileLastModified() == lastModified)
+            .map(CsvImportCheckpoint::getByteOffset)
+            .orElse(0L);
+        if (startOffset > 0) {
+            log.info("Resuming import of {} at byte {} of {}", source, startOffset, fileSize);
+        }
+
+        ImportRun run = new ImportRun(source, fileSize, lastModified);
+        long started = System.nanoTime();
+        try (LabCsvParser parser = new LabCsvParser(source, startOffset)) {
+            LabRowChunk chunk = new LabRowChunk(CHUNK_ROWS);
+            // Also runs once for an empty or fully imported file, so the checkpoint always exists afterwards
+            do {
+                long stageStart = System.nanoTime();
+                parser.fill(chunk);
+                run.parseNanos += System.nanoTime() - stageStart;
+
+                stageStart = System.nanoTime();
+                classify(chunk);
+                run.classifyNanos += System.nanoTime() - stageStart;
+
+                stageStart = System.nanoTime();
+                transactionTemplate.executeWithoutResult(status -> write(run, chunk));
+                run.writeNanos += System.nanoTime() - stageStart;
+            } while (parser.hasRemaining());
+        }
+
+        ImportReport report = new ImportReport(source, startOffset, run.importedRows, run.rejectedRows,
+            run.rejectedSamples, run.parseNanos, run.classifyNanos, run.writeNanos, System.nanoTime() - started);
+        log.info("Imported {}: {} rows stored, {} rejected, {} rows/s", source,
+            report.importedRows(), report.rejectedRows(), Math.round(report.rowsPerSecond()));
+        return report;
+    }
+
+    /**
+     * Calculate every row's status in parallel blocks; rows are independent, so no coordination is needed
+     */
+    private void classify(LabRowChunk chunk) {
+        int blocks = (chunk.size + CLASSIFY_BLOCK_ROWS - 1) / CLASSIFY_BLOCK_ROWS;
+        IntStream.range(0, blocks).parallel().forEach(block -> healthAnalysisService.calculateParameterStatuses(
+            chunk.values, chunk.referenceMins, chunk.referenceMaxs, chunk.statuses,
+            block * CLASSIFY_BLOCK_ROWS, Math.min(chunk.size, (block + 1) * CLASSIFY_BLOCK_ROWS)));
+    }
+
+    /**
+     * Store a classified chunk and advance the checkpoint; runs inside the chunk's transaction
+     */
+    private void write(ImportRun run, LabRowChunk chunk) {
+        chunk.rejected.forEach(run::reject);
+        resolvePatients(run, chunk);
+
+        SortedMap<Long, List<Parameter>> parametersByPatient = new TreeMap<>();
+        int imported = 0;
+        for (int row = 0; row < chunk.size; row++) {
+            long patientId = chunk.patientIds[row];
+            if (!run.knownPatients.contains(patientId)) {
+                run.reject(new RejectedRow(chunk.offsets[row], "Unknown patient " + patientId));
+                continue;
+            }
+
+            Parameter parameter = new Parameter();
+            parameter.setValue(chunk.values[row]);
+            parameter.setDatePerformed(LocalDate.ofEpochDay(chunk.epochDays[row]));
+            parameter.setStatus(HealthAnalysisService.statusOf(chunk.statuses[row]));
+            parameter.setTest(testRepository.getReferenceById(resolveTest(run, chunk, row)));
+            parametersByPatient.computeIfAbsent(patientId, id -> new ArrayList<>()).add(parameter);
+            imported++;
+        }
+        parameterService.storeClassified(parametersByPatient);
+        run.importedRows += imported;
+
+        CsvImportCheckpoint checkpoint = checkpointRepository.findById(run.source.toString())
+            .orElseGet(CsvImportCheckpoint::new);
+        if (checkpoint.getFileSize() != run.fileSize || checkpoint.getFileLastModified() != run.lastModified) {
+            checkpoint.setImportedRows(0);
+            checkpoint.setRejectedRows(0);
+        }
+        checkpoint.setSource(run.source.toString());
+        checkpoint.setFileSize(run.fileSize);
+        checkpoint.setFileLastModified(run.lastModified);
+        checkpoint.setByteOffset(chunk.endOffset);
+        checkpoint.setImportedRows(checkpoint.getImportedRows() + imported);
+        checkpoint.setRejectedRows(checkpoint.getRejectedRows() + chunk.size - imported + chunk.rejected.size());
+        checkpointRepository.save(checkpoint);
+    }
+
+    /**
+     * Look up patients of the chunk that have not been seen yet in this run, and load their tests
+     */
+    private void resolvePatients(ImportRun run, LabRowChunk chunk) {
+        Set<Long> newIds = new HashSet<>();
+        for (int row = 0; row < chunk.size; row++) {
+            long patientId = chunk.patientIds[row];
+            if (!run.knownPatients.contains(patientId) && !run.unknownPatients.contains(patientId)) {
+                newIds.add(patientId);
+            }
+        }
+        if (newIds.isEmpty()) {
+            return;
+        }
+
+        List<Long> existingIds = patientRepository.findExistingIds(newIds);
+        run.knownPatients.addAll(existingIds);
+        newIds.removeAll(existingIds);
+        run.unknownPatients.addAll(newIds);
+
+        for (Test test : testRepository.findAllWithPatientByPatientIdIn(existingIds)) {
+            run.testIds.putIfAbsent(new TestKey(test.getPatient().getId(), test.getName(), test.getParameterName()), test.getId());
+        }
+    }
+
+    private Long resolveTest(ImportRun run, LabRowChunk chunk, int row) {
+        TestKey key = new TestKey(chunk.patientIds[row], chunk.testNames[row], chunk.analytes[row]);
+        return run.testIds.computeIfAbsent(key, k -> {
+            Test test = new Test();
+            test.setName(k.testName());
+            test.setParameterName(k.analyte());
+            test.setUnit(chunk.units[row]);
+            test.setReferenceMin(toNullable(chunk.referenceMins[row]));
+            test.setReferenceMax(toNullable(chunk.referenceMaxs[row]));
+            test.setPatient(patientRepository.getReferenceById(k.patientId()));
+            test.setParameters(new ArrayList<>());
+            return testRepository.save(test).getId();
+        });
+    }
+
+    private static Double toNullable(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    /**
+     * Mutable state of one importFile call
+     */
+    private static final class ImportRun {
+        final Path source;
+        final long fileSize;
+        final long lastModified;
+        final Set<Long> knownPatients = new HashSet<>();
+        final Set<Long> unknownPatients = new HashSet<>();
+        final Map<TestKey, Long> testIds = new HashMap<>();
+        final List<RejectedRow> rejectedSamples = new ArrayList<>();
+        long importedRows;
+        long rejectedRows;
+        long parseNanos;
+        long classifyNanos;
+        long writeNanos;
+
+        ImportRun(Path source, long fileSize, long lastModified) {
+            this.source = source;
+            this.fileSize = fileSize;
+            this.lastModified = lastModified;
+        }
+
+        void reject(RejectedRow row) {
+            rejectedRows++;
+            if (rejectedSamples.size() < MAX_REPORTED_REJECTS) {
+                rejectedSamples.add(row);
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.ltde.rutherford_d1.importer;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+import com.ltde.rutherford_d1.importer.CsvLabImportService.RejectedRow;
+
+/**
+ * Parses analyser CSV exports straight from memory-mapped windows of the file.
+ * Expected columns: patient id, test name, analyte, unit, reference min, reference max, value, date (yyyy-MM-dd).
+ * Fields may be wrapped in double quotes (no escaped quotes inside). Numbers and dates are decoded from the
+ * raw bytes and text columns go through a {@link ByteStringDictionary}, so no String is created per field.
+ * A first line that does not start with a digit is treated as a header and skipped.
+ */
+final class LabCsvParser implements AutoCloseable {
+
+    static final int FIELD_COUNT = 8;
+
+    /** Size of each mapped window; rows never span windows, the next window starts at the first unfinished row */
+    private static final long WINDOW_BYTES = 64L << 20;
+
+    /** Powers of ten that are exact doubles, for the fast decimal path */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final ByteStringDictionary dictionary = new ByteStringDictionary();
+    private final int[] fieldStarts = new int[FIELD_COUNT];
+    private final int[] fieldEnds = new int[FIELD_COUNT];
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private int lineEnd;
+
+    LabCsvParser(Path file, long startOffset) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.position = Math.min(startOffset, fileSize);
+    }
+
+    long fileSize() {
+        return fileSize;
+    }
+
+    long position() {
+        return position;
+    }
+
+    boolean hasRemaining() {
+        return position < fileSize;
+    }
+
+    /**
+     * Parse rows into the chunk until it is full or the file ends; malformed rows are added to chunk.rejected
+     */
+    void fill(LabRowChunk chunk) throws IOException {
+        chunk.clear();
+        while (!chunk.isFull() && position < fileSize) {
+            long lineOffset = position;
+            int lineStart = mapLine(lineOffset);
+            position = windowStart + Math.min(lineEnd + 1, window.limit());
+
+            int contentEnd = lineEnd;
+            if (contentEnd > lineStart && window.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+            if (contentEnd == lineStart || (lineOffset == 0 && !isDigit(window.get(lineStart)))) {
+                continue; // Blank line or header
+            }
+            parseRow(chunk, lineOffset, lineStart, contentEnd);
+        }
+        chunk.endOffset = position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Make sure the current window contains the whole line starting at the offset, and set lineEnd
+     * to the position of its newline (or the window limit for a last line without one)
+     * @return Position of the line within the window
+     */
+    private int mapLine(long offset) throws IOException {
+        if (window != null && offset >= windowStart) {
+            int lineStart = (int) (offset - windowStart);
+            int newline = indexOfNewline(lineStart);
+            if (newline >= 0 || windowStart + window.limit() == fileSize) {
+                lineEnd = newline >= 0 ? newline : window.limit();
+                return lineStart;
+            }
+        }
+
+        windowStart = offset;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW_BYTES, fileSize - offset));
+        int newline = indexOfNewline(0);
+        if (newline < 0 && windowStart + window.limit() < fileSize) {
+            throw new IOException("Line at offset " + offset + " is longer than " + WINDOW_BYTES + " bytes");
+        }
+        lineEnd = newline >= 0 ? newline : window.limit();
+        return 0;
+    }
+
+    private int indexOfNewline(int from) {
+        for (int i = from; i < window.limit(); i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void parseRow(LabRowChunk chunk, long lineOffset, int start, int end) {
+        int fields = splitFields(start, end);
+        if (fields != FIELD_COUNT) {
+            chunk.rejected.add(new RejectedRow(lineOffset, "Expected " + FIELD_COUNT + " fields, found " + fields));
+            return;
+        }
+
+        int row = chunk.size;
+        try {
+            chunk.patientIds[row] = parseLong(fieldStarts[0], fieldEnds[0]);
+            if (fieldStarts[1] == fieldEnds[1] || fieldStarts[2] == fieldEnds[2]) {
+                chunk.rejected.add(new RejectedRow(lineOffset, "Missing test name or analyte"));
+                return;
+            }
+            chunk.testNames[row] = dictionary.get(window, fieldStarts[1], fieldEnds[1]);
+            chunk.analytes[row] = dictionary.get(window, fieldStarts[2], fieldEnds[2]);
+            chunk.units[row] = dictionary.get(window, fieldStarts[3], fieldEnds[3]);
+            chunk.referenceMins[row] = parseOptionalDouble(fieldStarts[4], fieldEnds[4]);
+            chunk.referenceMaxs[row] = parseOptionalDouble(fieldStarts[5], fieldEnds[5]);
+            chunk.values[row] = parseDouble(fieldStarts[6], fieldEnds[6]);
+            chunk.epochDays[row] = parseEpochDay(fieldStarts[7], fieldEnds[7]);
+        } catch (NumberFormatException | DateTimeException e) {
+            chunk.rejected.add(new RejectedRow(lineOffset, "Invalid number or date"));
+            return;
+        }
+        chunk.offsets[row] = lineOffset;
+        chunk.size++;
+    }
+
+    /**
+     * Record field boundaries (without surrounding quotes) in fieldStarts/fieldEnds
+     * @return Number of fields in the line
+     */
+    private int splitFields(int start, int end) {
+        int count = 0;
+        int i = start;
+        while (true) {
+            int fieldStart = i;
+            int fieldEnd;
+            if (i < end && window.get(i) == '"') {
+                fieldStart = ++i;
+                while (i < end && window.get(i) != '"') {
+                    i++;
+                }
+                fieldEnd = i;
+                while (i < end && window.get(i) != ',') {
+                    i++;
+                }
+            } else {
+                while (i < end && window.get(i) != ',') {
+                    i++;
+                }
+                fieldEnd = i;
+            }
+
+            if (count < FIELD_COUNT) {
+                fieldStarts[count] = trimStart(fieldStart, fieldEnd);
+                fieldEnds[count] = trimEnd(fieldStarts[count], fieldEnd);
+            }
+            count++;
+            if (i >= end) {
+                return count;
+            }
+            i++; // Skip the comma
+        }
+    }
+
+    private int trimStart(int start, int end) {
+        while (start < end && window.get(start) == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimEnd(int start, int end) {
+        while (end > start && window.get(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private long parseLong(int start, int end) {
+        if (start == end || end - start > 18) {
+            throw new NumberFormatException();
+        }
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            byte b = window.get(i);
+            if (!isDigit(b)) {
+                throw new NumberFormatException();
+            }
+            result = result * 10 + (b - '0');
+        }
+        return result;
+    }
+
+    private double parseOptionalDouble(int start, int end) {
+        return start == end ? Double.NaN : parseDouble(start, end);
+    }
+
+    /**
+     * Decode a decimal number. Plain decimals with up to 15 significant digits are computed as
+     * mantissa / 10^scale, which is correctly rounded because both operands are exact doubles;
+     * anything else (exponents, long mantissas) falls back to Double.parseDouble.
+     */
+    private double parseDouble(int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (window.get(i) == '-' || window.get(i) == '+')) {
+            negative = window.get(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            byte b = window.get(i);
+            if (isDigit(b)) {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return parseDoubleSlow(start, end);
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException();
+        }
+        if (digits > 15) {
+            return parseDoubleSlow(start, end);
+        }
+
+        double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private double parseDoubleSlow(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        window.get(start, bytes);
+        double value = Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+        if (!Double.isFinite(value)) {
+            throw new NumberFormatException();
+        }
+        return value;
+    }
+
+    private int parseEpochDay(int start, int end) {
+        if (end - start != 10 || window.get(start + 4) != '-' || window.get(start + 7) != '-') {
+            throw new DateTimeException("Expected yyyy-MM-dd");
+        }
+        int year = (int) parseLong(start, start + 4);
+        int month = (int) parseLong(start + 5, start + 7);
+        int day = (int) parseLong(start + 8, start + 10);
+        return (int) LocalDate.of(year, month, day).toEpochDay();
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
@@ -0,0 +1,54 @@
+package com.ltde.rutherford_d1.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ltde.rutherford_d1.importer.CsvLabImportService.RejectedRow;
+
+/**
+ * A chunk of parsed CSV rows in columnar form, reused for every chunk of an import.
+ * Text columns hold canonical Strings from the parser's dictionary; missing reference
+ * limits are NaN and statuses are HealthStatus ordinals filled in by the classify stage.
+ */
+final class LabRowChunk {
+
+    final int capacity;
+    int size;
+    long endOffset; // Offset just past the last consumed line, where the next chunk starts
+
+    final long[] offsets;
+    final long[] patientIds;
+    final String[] testNames;
+    final String[] analytes;
+    final String[] units;
+    final double[] referenceMins;
+    final double[] referenceMaxs;
+    final double[] values;
+    final int[] epochDays;
+    final byte[] statuses;
+
+    final List<RejectedRow> rejected = new ArrayList<>();
+
+    LabRowChunk(int capacity) {
+        this.capacity = capacity;
+        this.offsets = new long[capacity];
+        this.patientIds = new long[capacity];
+        this.testNames = new String[capacity];
+        this.analytes = new String[capacity];
+        this.units = new String[capacity];
+        this.referenceMins = new double[capacity];
+        this.referenceMaxs = new double[capacity];
+        this.values = new double[capacity];
+        this.epochDays = new int[capacity];
+        this.statuses = new byte[capacity];
+    }
+
+    void clear() {
+        size = 0;
+        rejected.clear();
+    }
+
+    boolean isFull() {
+        return size == capacity;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ltde.rutherford_d1.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+
+/**
+ * Progress of a CSV lab-export import, committed in the same transaction as each imported chunk
+ * so an interrupted import resumes exactly after the last stored row.
+ */
+@Entity
+@Data
+public class CsvImportCheckpoint {
+    @Id
+    @Column(length = 1024)
+    private String source; // Absolute path of the imported file
+
+    // Identify the version of the file the offset belongs to; a replaced file starts from the beginning
+    private long fileSize;
+    private long fileLastModified;
+
+    private long byteOffset; // Start of the first line not yet imported
+    private long importedRows;
+    private long rejectedRows;
+}
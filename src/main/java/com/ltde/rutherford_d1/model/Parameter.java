@@ -5,18 +5,23 @@ import java.time.LocalDate;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import lombok.Data;
 
 @Entity
 @Data
+// Table, partitions and indexes are defined by the migrations in db/migration
 public class Parameter {
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
     @Id 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parameter_seq")
+    @SequenceGenerator(name = "parameter_seq", sequenceName = "parameter_seq", allocationSize = 100)
     private Long id;
     
     private Double value; // The measurement value
@@ -26,7 +31,7 @@ public class Parameter {
     @Enumerated(EnumType.STRING)
     private HealthStatus status;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "test_id")
     private Test test;
 } 
\ No newline at end of file
@@ -2,15 +2,33 @@ package com.ltde.rutherford_d1.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity
 @Data
 public class Patient {
+    // Pooled sequence instead of IDENTITY so Hibernate and the synthetic data generator can batch inserts
     @Id 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_seq")
+    @SequenceGenerator(name = "patient_seq", sequenceName = "patient_seq", allocationSize = 100)
     private Long id;
+
+    // Bumped in the same transaction whenever the patient's tests or parameters change (see VersionCounterService);
+    // the GET endpoints derive their ETags from it
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long version;
+
+    /** lastTestDate of patients without dated measurements, so the column needs no nulls and sorts them last */
+    public static final LocalDate NO_TEST_DATE = LocalDate.of(1900, 1, 1);
+
+    // Copy of the health rollup's last test date on the row every patient has, kept by PatientHealthRollupService,
+    // so the patient list can be paged most recently tested first from an index
+    @ColumnDefault("date '1900-01-01'")
+    @Column(nullable = false, updatable = false)
+    private LocalDate lastTestDate = NO_TEST_DATE;
     
     private String name;
     private String species;
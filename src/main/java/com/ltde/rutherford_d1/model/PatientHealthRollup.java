@@ -0,0 +1,43 @@
+package com.ltde.rutherford_d1.model;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import lombok.Data;
+
+/**
+ * Read model holding a patient's pre-computed health figures.
+ * Maintained by PatientHealthRollupService in the same transaction as every parameter write,
+ * so summary and alert endpoints can read one row per patient instead of the full test history.
+ */
+@Entity
+@Data
+public class PatientHealthRollup {
+    @Id
+    private Long patientId; // Same id as the Patient; no foreign key so patient deletes are never blocked
+
+    private long normalCount;
+    private long lowCount;
+    private long highCount;
+    private long criticalCount;
+    private long scorePoints; // Weighted score numerator (100 normal, 60 low/high, 20 critical)
+
+    private LocalDate lastTestDate; // Most recent measurement date across all tests
+
+    // Parameter shown as the patient's most critical alert, with the fields used to rank it
+    private Long worstParameterId;
+    @Enumerated(EnumType.STRING)
+    private HealthStatus worstStatus;
+    private LocalDate worstDate;
+
+    public long getAbnormalCount() {
+        return lowCount + highCount + criticalCount;
+    }
+
+    public long getTotalCount() {
+        return normalCount + getAbnormalCount();
+    }
+}
@@ -2,22 +2,35 @@ package com.ltde.rutherford_d1.model;
 
 import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import lombok.Data;
 
 @Entity
 @Data
 public class Test {
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
     @Id 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "test_seq")
+    @SequenceGenerator(name = "test_seq", sequenceName = "test_seq", allocationSize = 100)
     private Long id;
+
+    // Bumped in the same transaction whenever the test's parameters change (see VersionCounterService);
+    // the GET endpoints derive their ETags from it
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long version;
     
     private String name;
     
@@ -27,7 +40,7 @@ public class Test {
     private Double referenceMin;
     private Double referenceMax;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id")
     private Patient patient;
 
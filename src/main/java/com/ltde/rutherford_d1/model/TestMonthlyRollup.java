@@ -0,0 +1,169 @@
+package com.ltde.rutherford_d1.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Transient;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Read model holding one month of a test's measurements: count, value min/max/sum and status counts.
+ * Maintained by TestHistoryService in the same transaction as every parameter write, so history
+ * charts read one row per month instead of the raw series. Only measurements with a date are included;
+ * years are summed from their months when read.
+ */
+@Entity
+@Data
+@IdClass(TestMonthlyRollup.Key.class)
+public class TestMonthlyRollup implements Persistable<TestMonthlyRollup.Key> {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long testId;
+        private LocalDate monthStart;
+    }
+
+    @Id
+    private Long testId; // Same id as the Test; no foreign key so test deletes are never blocked
+
+    @Id
+    private LocalDate monthStart; // First day of the month
+
+    private long count; // Dated measurements, with or without a value
+    private long valueCount;
+    private double valueSum;
+    private Double minValue;
+    private Double maxValue;
+
+    private long normalCount;
+    private long lowCount;
+    private long highCount;
+    private long criticalCount;
+
+    // Rows are built with their key assigned, so Spring Data cannot tell new ones from the id
+    @Transient
+    @EqualsAndHashCode.Exclude
+    private boolean stored;
+
+    public TestMonthlyRollup() {
+    }
+
+    public TestMonthlyRollup(Long testId, LocalDate monthStart) {
+        this.testId = testId;
+        this.monthStart = monthStart;
+    }
+
+    /**
+     * First day of the month a date falls in
+     */
+    public static LocalDate monthOf(LocalDate date) {
+        return date.withDayOfMonth(1);
+    }
+
+    /**
+     * Add one measurement
+     */
+    public void add(Double value, HealthStatus status) {
+        count++;
+        if (value != null) {
+            valueCount++;
+            valueSum += value;
+            minValue = minValue == null ? value : Math.min(minValue, value);
+            maxValue = maxValue == null ? value : Math.max(maxValue, value);
+        }
+        adjustStatus(status, 1);
+    }
+
+    /**
+     * Remove one measurement, unless its value is the month's min or max
+     * @return false if nothing was changed because the month has to be recomputed from its measurements
+     */
+    public boolean remove(Double value, HealthStatus status) {
+        if (value != null && (value.equals(minValue) || value.equals(maxValue))) {
+            return false;
+        }
+        count--;
+        if (value != null) {
+            valueCount--;
+            valueSum -= value;
+        }
+        adjustStatus(status, -1);
+        return true;
+    }
+
+    /**
+     * Add the figures of another month, e.g. to sum a year
+     */
+    public void addAll(TestMonthlyRollup other) {
+        count += other.count;
+        valueCount += other.valueCount;
+        valueSum += other.valueSum;
+        if (other.minValue != null) {
+            minValue = minValue == null ? other.minValue : Math.min(minValue, other.minValue);
+            maxValue = maxValue == null ? other.maxValue : Math.max(maxValue, other.maxValue);
+        }
+        normalCount += other.normalCount;
+        lowCount += other.lowCount;
+        highCount += other.highCount;
+        criticalCount += other.criticalCount;
+    }
+
+    /**
+     * Clear all figures before recomputing them
+     */
+    public void reset() {
+        count = 0;
+        valueCount = 0;
+        valueSum = 0;
+        minValue = null;
+        maxValue = null;
+        normalCount = 0;
+        lowCount = 0;
+        highCount = 0;
+        criticalCount = 0;
+    }
+
+    public Double getMean() {
+        return valueCount > 0 ? valueSum / valueCount : null;
+    }
+
+    public void adjustStatus(HealthStatus status, long delta) {
+        if (status == null) {
+            return;
+        }
+        switch (status) {
+            case NORMAL -> normalCount += delta;
+            case LOW -> lowCount += delta;
+            case HIGH -> highCount += delta;
+            case CRITICAL -> criticalCount += delta;
+        }
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(testId, monthStart);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+}
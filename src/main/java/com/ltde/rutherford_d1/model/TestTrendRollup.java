@@ -0,0 +1,53 @@
+package com.ltde.rutherford_d1.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+
+/**
+ * Read model holding the running least-squares sums of one test's measurement series.
+ * Maintained by TestTrendService in the same transaction as every parameter write, so the trend
+ * endpoint reads one row instead of rescanning the history. Only measurements with both a value
+ * and a date are included; x is the number of days since anchorEpochDay.
+ */
+@Entity
+@Data
+public class TestTrendRollup {
+    @Id
+    private Long testId; // Same id as the Test; no foreign key so test deletes are never blocked
+
+    private Long anchorEpochDay; // Date of the first measurement seen; keeps x small so the sums stay precise
+
+    private long count;
+    private double sumX;
+    private double sumY;
+    private double sumXX;
+    private double sumXY;
+
+    /**
+     * Add (sign 1) or remove (sign -1) one measurement from the sums
+     */
+    public void apply(long epochDay, double value, int sign) {
+        if (anchorEpochDay == null) {
+            anchorEpochDay = epochDay;
+        }
+        double x = epochDay - anchorEpochDay;
+        count += sign;
+        sumX += sign * x;
+        sumY += sign * value;
+        sumXX += sign * x * x;
+        sumXY += sign * x * value;
+    }
+
+    /**
+     * Least-squares slope in value units per day, or null with fewer than two distinct dates
+     */
+    public Double getSlopePerDay() {
+        double denominator = count * sumXX - sumX * sumX;
+        // Relative guard: sums of points sharing one date can leave rounding noise instead of zero
+        if (count < 2 || denominator <= 1e-9 * count * sumXX) {
+            return null;
+        }
+        return (count * sumXY - sumX * sumY) / denominator;
+    }
+}
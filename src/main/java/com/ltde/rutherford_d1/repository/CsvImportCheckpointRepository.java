@@ -0,0 +1,10 @@
+package com.ltde.rutherford_d1.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ltde.rutherford_d1.model.CsvImportCheckpoint;
+
+@Repository
+public interface CsvImportCheckpointRepository extends JpaRepository<CsvImportCheckpoint, String> {
+}
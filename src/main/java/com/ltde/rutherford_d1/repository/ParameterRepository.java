@@ -1,9 +1,91 @@
 package com.ltde.rutherford_d1.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.ltde.rutherford_d1.model.Parameter;
 
 @Repository
-public interface ParameterRepository extends JpaRepository<Parameter, Long> {} 
\ No newline at end of file
+public interface ParameterRepository extends JpaRepository<Parameter, Long> {
+
+    /**
+     * Load the abnormal (or not yet classified) parameters of the given patients with their test
+     * and patient in a single query, instead of lazy-loading each patient's graph
+     */
+    @Query("select p from Parameter p join fetch p.test t join fetch t.patient pt "
+         + "where pt.id in :patientIds "
+         + "and (p.status is null or p.status <> com.ltde.rutherford_d1.model.HealthStatus.NORMAL) "
+         + "order by pt.id, t.id, p.id")
+    List<Parameter> findAbnormalByPatientIds(@Param("patientIds") Collection<Long> patientIds);
+
+    /**
+     * Abnormal parameters of a patient in alert priority order (see HealthAnalysisService.ALERT_PRIORITY);
+     * pass a one-element page to get the most critical parameter
+     */
+    @Query("select p from Parameter p join p.test t "
+         + "where t.patient.id = :patientId and p.status <> com.ltde.rutherford_d1.model.HealthStatus.NORMAL "
+         + "order by case when p.status = com.ltde.rutherford_d1.model.HealthStatus.CRITICAL then 0 else 1 end desc, "
+         + "p.datePerformed desc nulls last, p.id")
+    List<Parameter> findAlertCandidates(@Param("patientId") Long patientId, Pageable pageable);
+
+    /**
+     * A test's measurements as lightweight points ordered by date (undated first), then id
+     */
+    @Query("select new com.ltde.rutherford_d1.repository.SeriesPoint(p.id, p.datePerformed, p.value, p.status) "
+         + "from Parameter p where p.test.id = :testId "
+         + "order by p.datePerformed asc nulls first, p.id")
+    List<SeriesPoint> findSeriesPoints(@Param("testId") Long testId);
+
+    /**
+     * A test's most recent dated measurements with a value, newest first
+     */
+    @Query("select new com.ltde.rutherford_d1.repository.SeriesPoint(p.id, p.datePerformed, p.value, p.status) "
+         + "from Parameter p where p.test.id = :testId and p.datePerformed is not null and p.value is not null "
+         + "order by p.datePerformed desc, p.id desc")
+    List<SeriesPoint> findRecentSeriesPoints(@Param("testId") Long testId, Pageable pageable);
+
+    /**
+     * A test's measurements with a value performed from to to (both inclusive), ordered by date, then id
+     */
+    @Query("select new com.ltde.rutherford_d1.repository.SeriesPoint(p.id, p.datePerformed, p.value, p.status) "
+         + "from Parameter p where p.test.id = :testId and p.datePerformed between :from and :to and p.value is not null "
+         + "order by p.datePerformed, p.id")
+    List<SeriesPoint> findSeriesPointsInRange(@Param("testId") Long testId, @Param("from") LocalDate from,
+                                              @Param("to") LocalDate to);
+
+    /**
+     * Measurements of a test performed from (inclusive) to (exclusive)
+     */
+    @Query("select new com.ltde.rutherford_d1.repository.SeriesPoint(p.id, p.datePerformed, p.value, p.status) "
+         + "from Parameter p where p.test.id = :testId and p.datePerformed >= :from and p.datePerformed < :to")
+    List<SeriesPoint> findSeriesPointsBetween(@Param("testId") Long testId, @Param("from") LocalDate from,
+                                              @Param("to") LocalDate to);
+
+    /**
+     * Latest measurement date across all of a patient's tests
+     */
+    @Query("select max(p.datePerformed) from Parameter p join p.test t where t.patient.id = :patientId")
+    LocalDate findLastTestDate(@Param("patientId") Long patientId);
+
+    /**
+     * Count parameters per patient and status, returning at most one row per (patient, status) pair
+     */
+    @Query("select t.patient.id as patientId, p.status as status, count(p) as count, max(p.datePerformed) as lastDate "
+         + "from Parameter p join p.test t "
+         + "where t.patient.id in :patientIds "
+         + "group by t.patient.id, p.status")
+    List<PatientStatusCount> countByPatientAndStatus(@Param("patientIds") Collection<Long> patientIds);
+
+    /**
+     * Load parameters that were stored without a status, so they can be classified on the fly
+     */
+    @Query("select p from Parameter p join fetch p.test t join fetch t.patient where t.patient.id in :patientIds and p.status is null")
+    List<Parameter> findUnclassifiedByPatientIds(@Param("patientIds") Collection<Long> patientIds);
+}
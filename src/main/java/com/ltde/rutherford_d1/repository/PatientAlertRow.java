@@ -0,0 +1,17 @@
+package com.ltde.rutherford_d1.repository;
+
+import com.ltde.rutherford_d1.model.Parameter;
+import com.ltde.rutherford_d1.model.Patient;
+import com.ltde.rutherford_d1.model.PatientHealthRollup;
+import com.ltde.rutherford_d1.model.Test;
+
+/**
+ * One row of the global alerts query: a patient's rollup joined with the patient
+ * and its most critical parameter (with that parameter's test)
+ */
+public record PatientAlertRow(
+    PatientHealthRollup rollup,
+    Patient patient,
+    Parameter worstParameter,
+    Test worstTest
+) {}
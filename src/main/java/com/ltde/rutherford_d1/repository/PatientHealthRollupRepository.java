@@ -0,0 +1,87 @@
+package com.ltde.rutherford_d1.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.ltde.rutherford_d1.model.PatientHealthRollup;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface PatientHealthRollupRepository extends JpaRepository<PatientHealthRollup, Long> {
+
+    /**
+     * Load a rollup row locked for update, so concurrent parameter writes for one patient serialize
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from PatientHealthRollup r where r.patientId = :patientId")
+    Optional<PatientHealthRollup> findForUpdate(@Param("patientId") Long patientId);
+
+    /**
+     * Load every patient with at least one abnormal parameter, together with the patient
+     * and its most critical parameter and test, in a single query
+     */
+    @Query("select new com.ltde.rutherford_d1.repository.PatientAlertRow(r, p, w, wt) "
+         + "from PatientHealthRollup r "
+         + "join Patient p on p.id = r.patientId "
+         + "left join Parameter w on w.id = r.worstParameterId "
+         + "left join w.test wt "
+         + "where r.lowCount + r.highCount + r.criticalCount > 0 "
+         + "order by p.id")
+    List<PatientAlertRow> findActiveAlerts();
+
+    /**
+     * Forward-only stream of the same rows as findActiveAlerts, already in dashboard order
+     * (fewest critical parameters first, then most abnormal parameters, then patient id);
+     * must be consumed inside a transaction
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select new com.ltde.rutherford_d1.repository.PatientAlertRow(r, p, w, wt) "
+         + "from PatientHealthRollup r "
+         + "join Patient p on p.id = r.patientId "
+         + "left join Parameter w on w.id = r.worstParameterId "
+         + "left join w.test wt "
+         + "where r.lowCount + r.highCount + r.criticalCount > 0 "
+         + "order by r.criticalCount, r.lowCount + r.highCount + r.criticalCount desc, p.id")
+    Stream<PatientAlertRow> streamActiveAlerts();
+
+    /**
+     * Same rows as findActiveAlerts, restricted to the given patients; order is up to the caller
+     */
+    @Query("select new com.ltde.rutherford_d1.repository.PatientAlertRow(r, p, w, wt) "
+         + "from PatientHealthRollup r "
+         + "join Patient p on p.id = r.patientId "
+         + "left join Parameter w on w.id = r.worstParameterId "
+         + "left join w.test wt "
+         + "where r.patientId in :patientIds and r.lowCount + r.highCount + r.criticalCount > 0")
+    List<PatientAlertRow> findActiveAlertsByPatientIds(@Param("patientIds") Collection<Long> patientIds);
+
+    /**
+     * Rollups of every patient with at least one abnormal parameter
+     */
+    @Query("select r from PatientHealthRollup r where r.lowCount + r.highCount + r.criticalCount > 0")
+    List<PatientHealthRollup> findAllActive();
+
+    @Query("select count(r) from PatientHealthRollup r where r.patientId not in (select p.id from Patient p)")
+    long countOrphans();
+
+    /**
+     * Remove rollups whose patient no longer exists
+     */
+    @Modifying
+    @Query("delete from PatientHealthRollup r where r.patientId not in (select p.id from Patient p)")
+    int deleteOrphans();
+}
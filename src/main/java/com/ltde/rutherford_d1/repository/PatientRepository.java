@@ -1,9 +1,90 @@
 package com.ltde.rutherford_d1.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.ltde.rutherford_d1.model.Patient;
 
+import jakarta.persistence.QueryHint;
+
+/**
+ * Patient repository. The findPageAfter* queries implement keyset pagination:
+ * each page continues strictly after the (sort key, id) of the previous page's last row,
+ * so deep pages cost the same as the first one. The row-value comparison lets the database seek
+ * the (sort key, id) index directly instead of filtering its way to the cursor. Pass an unsorted first-page Pageable.
+ */
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, Long> {} 
\ No newline at end of file
+public interface PatientRepository extends JpaRepository<Patient, Long> {
+
+    @Query("select p.id from Patient p order by p.id")
+    List<Long> findAllIds();
+
+    @Query("select p.id from Patient p where p.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Forward-only stream of all patients for NDJSON export; must be consumed inside a transaction
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select p from Patient p order by p.id")
+    Stream<Patient> streamAll();
+
+    @Query("select new com.ltde.rutherford_d1.repository.PatientSearchRow(p.id, p.name, p.species, p.breed, "
+         + "p.ownerName, p.ownerContact) from Patient p where p.id in :ids")
+    List<PatientSearchRow> findSearchRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p from Patient p where p.id > :id order by p.id")
+    Slice<Patient> findPageAfterId(@Param("id") Long id, Pageable pageable);
+
+    @Query("select p from Patient p "
+         + "where (coalesce(p.name, ''), p.id) > (:name, :id) "
+         + "order by coalesce(p.name, ''), p.id")
+    Slice<Patient> findPageAfterName(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    @Query("select p from Patient p "
+         + "where (coalesce(p.species, ''), p.id) > (:species, :id) "
+         + "order by coalesce(p.species, ''), p.id")
+    Slice<Patient> findPageAfterSpecies(@Param("species") String species, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Most recently tested patients first; patients without tests have Patient.NO_TEST_DATE and come last.
+     * The date bound on its own lets the database start the (last_test_date desc, id) index scan at the cursor.
+     */
+    @Query("select p from Patient p "
+         + "where p.lastTestDate <= :date and (p.lastTestDate < :date or p.id > :id) "
+         + "order by p.lastTestDate desc, p.id")
+    Slice<Patient> findPageAfterLastTestDate(@Param("date") LocalDate date, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Current version counter of a patient, without loading it (for conditional GETs)
+     */
+    @Query("select p.version from Patient p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Bump the version counters of the given patients; the loaded entities keep their old value
+     */
+    @Modifying
+    @Query("update Patient p set p.version = p.version + 1 where p.id in :ids")
+    int incrementVersions(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Copy a patient's last test date from its health rollup; the loaded entity keeps its old value
+     */
+    @Modifying
+    @Query("update Patient p set p.lastTestDate = :date where p.id = :id")
+    int updateLastTestDate(@Param("id") Long id, @Param("date") LocalDate date);
+}
@@ -0,0 +1,13 @@
+package com.ltde.rutherford_d1.repository;
+
+/**
+ * The searchable text of a patient, read without materializing the Patient entity
+ */
+public record PatientSearchRow(
+    Long id,
+    String name,
+    String species,
+    String breed,
+    String ownerName,
+    String ownerContact
+) {}
@@ -0,0 +1,16 @@
+package com.ltde.rutherford_d1.repository;
+
+import java.time.LocalDate;
+
+import com.ltde.rutherford_d1.model.HealthStatus;
+
+/**
+ * Projection for one row of the per-patient status aggregate:
+ * how many parameters a patient has in a given status, and the latest measurement date among them.
+ */
+public interface PatientStatusCount {
+    Long getPatientId();
+    HealthStatus getStatus();
+    long getCount();
+    LocalDate getLastDate();
+}
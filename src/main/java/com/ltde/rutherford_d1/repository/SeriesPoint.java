@@ -0,0 +1,15 @@
+package com.ltde.rutherford_d1.repository;
+
+import java.time.LocalDate;
+
+import com.ltde.rutherford_d1.model.HealthStatus;
+
+/**
+ * One measurement of a test's time series, read without materializing the Parameter entity
+ */
+public record SeriesPoint(
+    Long parameterId,
+    LocalDate datePerformed,
+    Double value,
+    HealthStatus status
+) {}
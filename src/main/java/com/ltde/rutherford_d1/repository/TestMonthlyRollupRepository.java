@@ -0,0 +1,30 @@
+package com.ltde.rutherford_d1.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.ltde.rutherford_d1.model.TestMonthlyRollup;
+
+@Repository
+public interface TestMonthlyRollupRepository extends JpaRepository<TestMonthlyRollup, TestMonthlyRollup.Key> {
+
+    @Query("select r from TestMonthlyRollup r where r.testId = :testId order by r.monthStart")
+    List<TestMonthlyRollup> findByTestId(@Param("testId") Long testId);
+
+    @Query("select r from TestMonthlyRollup r where r.testId = :testId and r.monthStart in :months")
+    List<TestMonthlyRollup> findByTestIdAndMonths(@Param("testId") Long testId, @Param("months") Collection<LocalDate> months);
+
+    /**
+     * Delete the months of archived measurements, from (inclusive) to (exclusive)
+     */
+    @Modifying
+    @Query("delete from TestMonthlyRollup r where r.monthStart >= :from and r.monthStart < :to")
+    int deleteMonthsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
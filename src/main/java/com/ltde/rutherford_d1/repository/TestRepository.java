@@ -1,9 +1,71 @@
 package com.ltde.rutherford_d1.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.ltde.rutherford_d1.model.Test;
 
+import jakarta.persistence.QueryHint;
+
+/**
+ * Test repository. The findPageAfter* queries implement keyset pagination
+ * (see PatientRepository).
+ */
 @Repository
-public interface TestRepository extends JpaRepository<Test, Long> {} 
\ No newline at end of file
+public interface TestRepository extends JpaRepository<Test, Long> {
+
+    /**
+     * Forward-only stream of all tests for NDJSON export; must be consumed inside a transaction
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select t from Test t order by t.id")
+    Stream<Test> streamAll();
+
+    /**
+     * Tests by id with their patient, for bulk ingestion
+     */
+    @Query("select t from Test t join fetch t.patient where t.id in :ids")
+    List<Test> findAllWithPatientByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * All tests of the given patients, for matching imported rows to existing tests
+     */
+    @Query("select t from Test t join fetch t.patient p where p.id in :patientIds")
+    List<Test> findAllWithPatientByPatientIdIn(@Param("patientIds") Collection<Long> patientIds);
+
+    @Query("select t.id from Test t order by t.id")
+    List<Long> findAllIds();
+
+    @Query("select t from Test t where t.id > :id order by t.id")
+    Slice<Test> findPageAfterId(@Param("id") Long id, Pageable pageable);
+
+    @Query("select t from Test t "
+         + "where (coalesce(t.name, ''), t.id) > (:name, :id) "
+         + "order by coalesce(t.name, ''), t.id")
+    Slice<Test> findPageAfterName(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Current version counter of a test, without loading it (for conditional GETs)
+     */
+    @Query("select t.version from Test t where t.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Bump the version counters of the given tests; the loaded entities keep their old value
+     */
+    @Modifying
+    @Query("update Test t set t.version = t.version + 1 where t.id in :ids")
+    int incrementVersions(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,24 @@
+package com.ltde.rutherford_d1.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.ltde.rutherford_d1.model.TestTrendRollup;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface TestTrendRollupRepository extends JpaRepository<TestTrendRollup, Long> {
+
+    /**
+     * Load a trend row locked for update, so concurrent parameter writes for one test serialize
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from TestTrendRollup r where r.testId = :testId")
+    Optional<TestTrendRollup> findForUpdate(@Param("testId") Long testId);
+}
@@ -0,0 +1,12 @@
+package com.ltde.rutherford_d1.service;
+
+import java.util.List;
+
+import com.ltde.rutherford_d1.dto.AlertEventDTO;
+
+/**
+ * Published when parameters were stored or reclassified with a LOW, HIGH or CRITICAL status.
+ * Like PatientDataChangedEvent it is published inside the write transaction; listeners should use
+ * {@code @TransactionalEventListener} so nothing is pushed for writes that roll back.
+ */
+public record AbnormalResultsEvent(List<AlertEventDTO> alerts) {}
@@ -0,0 +1,153 @@
+package com.ltde.rutherford_d1.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ltde.rutherford_d1.model.PatientHealthRollup;
+import com.ltde.rutherford_d1.repository.PatientHealthRollupRepository;
+
+/**
+ * In-memory priority index over the patients with active alerts, kept in dashboard order
+ * (see {@link #DASHBOARD_ORDER}) so the first N can be read without looking at any other patient.
+ * It is built from the rollup table on first use and refreshed from the rollup rows of the patients
+ * named in every committed PatientDataChangedEvent. Loads and refreshes read in their own transaction
+ * and are serialized, so the last one applied always reflects the newest committed rollup.
+ */
+@Component
+public class AlertPriorityIndex {
+
+    /**
+     * Ranking key of one patient with active alerts
+     */
+    public record Entry(long patientId, long criticalCount, long abnormalCount) {}
+
+    /**
+     * Order of GET /health/alerts: fewest critical parameters first, then most abnormal parameters, then patient id
+     */
+    public static final Comparator<Entry> DASHBOARD_ORDER = Comparator.comparingLong(Entry::criticalCount)
+        .thenComparing(Comparator.comparingLong(Entry::abnormalCount).reversed())
+        .thenComparingLong(Entry::patientId);
+
+    /** Upper bound on ids bound into a single IN clause */
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final PatientHealthRollupRepository rollupRepository;
+    private final TransactionTemplate readTransaction;
+
+    private final ConcurrentSkipListSet<Entry> ranked = new ConcurrentSkipListSet<>(DASHBOARD_ORDER);
+    private final Map<Long, Entry> entriesByPatient = new ConcurrentHashMap<>();
+    // Not synchronized: the lock is held across a query, which would pin a virtual thread to its carrier
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    public AlertPriorityIndex(PatientHealthRollupRepository rollupRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        // A fresh transaction only sees committed rollups, even when called from inside a write. Not marked
+        // read-only, which would let a lagging read replica serve it a rollup older than the commit it reacts to
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * The first entries in dashboard order
+     */
+    public List<Entry> top(int limit) {
+        ensureLoaded();
+        List<Entry> top = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (Entry entry : ranked) {
+            if (top.size() == limit) {
+                break;
+            }
+            top.add(entry);
+        }
+        return top;
+    }
+
+    /**
+     * Number of patients with active alerts
+     */
+    public int size() {
+        ensureLoaded();
+        return ranked.size();
+    }
+
+    /**
+     * Re-read the rollups of patients whose parameters changed; without a transaction this runs immediately
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientDataChanged(PatientDataChangedEvent event) {
+        refresh(event.patientIds());
+    }
+
+    /**
+     * Re-read the rollups of the given patients, e.g. when their ranking turned out to be stale
+     */
+    public void refresh(Collection<Long> patientIds) {
+        updateLock.lock();
+        try {
+            if (!loaded || patientIds.isEmpty()) {
+                return; // The initial load will read the committed state
+            }
+
+            // Events from partition archiving name more patients than PostgreSQL binds in one statement
+            List<Long> ids = List.copyOf(patientIds);
+            Map<Long, PatientHealthRollup> rollups = new HashMap<>();
+            readTransaction.executeWithoutResult(status -> {
+                for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+                    rollupRepository.findAllById(ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size())))
+                        .forEach(rollup -> rollups.put(rollup.getPatientId(), rollup));
+                }
+            });
+            for (Long patientId : ids) {
+                PatientHealthRollup rollup = rollups.get(patientId);
+                Entry previous = entriesByPatient.remove(patientId);
+                if (previous != null) {
+                    ranked.remove(previous);
+                }
+                if (rollup != null && rollup.getAbnormalCount() > 0) {
+                    add(rollup);
+                }
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    private void load() {
+        updateLock.lock();
+        try {
+            if (!loaded) {
+                readTransaction.executeWithoutResult(status -> rollupRepository.findAllActive().forEach(this::add));
+                loaded = true;
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void add(PatientHealthRollup rollup) {
+        Entry entry = new Entry(rollup.getPatientId(), rollup.getCriticalCount(), rollup.getAbnormalCount());
+        entriesByPatient.put(entry.patientId(), entry);
+        ranked.add(entry);
+    }
+}
@@ -1,5 +1,7 @@
 package com.ltde.rutherford_d1.service;
 
+import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -10,12 +12,29 @@ import com.ltde.rutherford_d1.model.Parameter;
 import com.ltde.rutherford_d1.model.Patient;
 import com.ltde.rutherford_d1.model.Test;
 
+import io.micrometer.core.annotation.Timed;
+
 /**
- * Service for analyzing health status of parameters and calculating overall health scores
+ * Service for analyzing health status of parameters and calculating overall health scores.
+ * Methods that work on whole lists are timed as health.analysis (tagged with the method); the
+ * per-value helpers are called in tight loops and are cheaper than a timer, so they are not.
  */
 @Service
 public class HealthAnalysisService {
 
+    /**
+     * Ordering used to pick a patient's headline alert: the first element after sorting
+     * abnormal parameters with this comparator is reported as the most critical alert.
+     * Ties fall back to the lowest parameter id so every code path picks the same parameter.
+     */
+    public static final Comparator<Parameter> ALERT_PRIORITY =
+        Comparator.comparing((Parameter p) -> p.getStatus() == HealthStatus.CRITICAL ? 0 : 1)
+            .thenComparing(Parameter::getDatePerformed, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(Parameter::getId, Comparator.nullsFirst(Comparator.<Long>reverseOrder()))
+            .reversed();
+
+    private static final HealthStatus[] STATUSES = HealthStatus.values();
+
     /**
      * Calculate the health status of a parameter value based on reference ranges
      * @param value The measured parameter value
@@ -52,14 +71,77 @@ public class HealthAnalysisService {
         }
     }
 
+    /**
+     * Batch form of {@link #calculateParameterStatus} for values sharing one reference range.
+     * Statuses are written as HealthStatus ordinals (see {@link #statusOf}); NaN stands for null,
+     * so a NaN value or limit yields NORMAL exactly like a null does in the scalar method.
+     * @param statuses Output array, at least as long as values
+     */
+    @Timed("health.analysis")
+    public void calculateParameterStatuses(double[] values, double min, double max, byte[] statuses) {
+        double criticalThreshold = (max - min) * 0.30;
+        boolean missingRange = Double.isNaN(min) || Double.isNaN(max);
+        for (int i = 0; i < values.length; i++) {
+            statuses[i] = missingRange ? 0 : classify(values[i], min, max, criticalThreshold);
+        }
+    }
+
+    /**
+     * Batch form of {@link #calculateParameterStatus} with a reference range per element, for rows [from, to).
+     * Same encoding and NaN handling as {@link #calculateParameterStatuses(double[], double, double, byte[])}.
+     */
+    @Timed("health.analysis")
+    public void calculateParameterStatuses(double[] values, double[] mins, double[] maxs, byte[] statuses,
+                                           int from, int to) {
+        for (int i = from; i < to; i++) {
+            double min = mins[i];
+            double max = maxs[i];
+            byte status = classify(values[i], min, max, (max - min) * 0.30);
+            statuses[i] = Double.isNaN(min) || Double.isNaN(max) ? 0 : status;
+        }
+    }
+
+    /**
+     * Decode a status written by calculateParameterStatuses
+     */
+    public static HealthStatus statusOf(byte status) {
+        return STATUSES[status];
+    }
+
+    /**
+     * Branch-light core of the batch methods: each comparison becomes a bit and the bits are OR-ed,
+     * so the loop has no data-dependent jumps. Returns the ordinal of NORMAL (0), LOW (1), HIGH (2) or
+     * CRITICAL (3). Equivalent to the scalar method: with a valid range at most one of below/above is set
+     * and a critical deviation needs that side's distance; with an inverted range every value is
+     * critical there too, and a NaN value compares false everywhere and stays NORMAL.
+     */
+    private static byte classify(double value, double min, double max, double criticalThreshold) {
+        double belowBy = min - value;
+        double aboveBy = value - max;
+        int below = belowBy > 0 ? 1 : 0;
+        int above = aboveBy > 0 ? 2 : 0;
+        int critical = belowBy > criticalThreshold | aboveBy > criticalThreshold ? 3 : 0;
+        return (byte) (below | above | critical);
+    }
+
     /**
      * Get all parameters with abnormal (non-normal) health status for a patient
      * @param patient The patient to analyze
      * @return List of parameters that are not in normal range
      */
+    @Timed("health.analysis")
     public List<Parameter> getAbnormalParameters(Patient patient) {
-        return patient.getTests().stream()
-            .flatMap(test -> test.getParameters().stream())
+        return getAbnormalParameters(getAllParameters(patient));
+    }
+
+    /**
+     * Get all parameters with abnormal (non-normal) health status from an already loaded list
+     * @param parameters The parameters to analyze
+     * @return List of parameters that are not in normal range
+     */
+    @Timed("health.analysis")
+    public List<Parameter> getAbnormalParameters(List<Parameter> parameters) {
+        return parameters.stream()
             .filter(parameter -> {
                 // Calculate status if not already set
                 if (parameter.getStatus() == null) {
@@ -82,17 +164,22 @@ public class HealthAnalysisService {
      * @param patient The patient to calculate score for
      * @return Health score from 0 (worst) to 100 (best)
      */
+    @Timed("health.analysis")
     public int getHealthScore(Patient patient) {
-        List<Parameter> allParameters = patient.getTests().stream()
-            .flatMap(test -> test.getParameters().stream())
-            .collect(Collectors.toList());
-        
-        if (allParameters.isEmpty()) {
-            return 100; // No parameters means perfect health score
-        }
-        
-        int totalPoints = 0;
-        int maxPossiblePoints = allParameters.size() * 100; // Each parameter can contribute max 100 points
+        return getHealthScore(getAllParameters(patient));
+    }
+
+    /**
+     * Calculate an overall health score (0-100) from an already loaded list of parameters
+     * @param allParameters The parameters to score
+     * @return Health score from 0 (worst) to 100 (best)
+     */
+    @Timed("health.analysis")
+    public int getHealthScore(List<Parameter> allParameters) {
+        int normalCount = 0;
+        int lowCount = 0;
+        int highCount = 0;
+        int criticalCount = 0;
         
         for (Parameter parameter : allParameters) {
             // Calculate status if not already set
@@ -106,22 +193,95 @@ public class HealthAnalysisService {
                 parameter.setStatus(status);
             }
             
-            // Assign points based on health status
             switch (parameter.getStatus()) {
-                case NORMAL:
-                    totalPoints += 100; // Full points for normal
-                    break;
-                case LOW:
-                case HIGH:
-                    totalPoints += 60; // Moderate points for mild abnormalities
-                    break;
-                case CRITICAL:
-                    totalPoints += 20; // Low points for critical abnormalities
-                    break;
+                case NORMAL -> normalCount++;
+                case LOW -> lowCount++;
+                case HIGH -> highCount++;
+                case CRITICAL -> criticalCount++;
             }
         }
         
+        return getHealthScore(normalCount, lowCount, highCount, criticalCount);
+    }
+
+    /**
+     * Calculate an overall health score (0-100) from per-status parameter counts.
+     * Each normal parameter is worth 100 points, each low/high parameter 60 and each critical parameter 20.
+     * @return Health score from 0 (worst) to 100 (best)
+     */
+    public int getHealthScore(long normalCount, long lowCount, long highCount, long criticalCount) {
+        long totalPoints = normalCount * getStatusPoints(HealthStatus.NORMAL)
+            + lowCount * getStatusPoints(HealthStatus.LOW)
+            + highCount * getStatusPoints(HealthStatus.HIGH)
+            + criticalCount * getStatusPoints(HealthStatus.CRITICAL);
+        
+        return getHealthScoreFromPoints(totalPoints, normalCount + lowCount + highCount + criticalCount);
+    }
+
+    /**
+     * Calculate an overall health score (0-100) from a pre-computed points total
+     * @param totalPoints Sum of getStatusPoints over all parameters
+     * @param totalParameters Number of parameters that contributed to the total
+     * @return Health score from 0 (worst) to 100 (best)
+     */
+    public int getHealthScoreFromPoints(long totalPoints, long totalParameters) {
+        if (totalParameters == 0) {
+            return 100; // No parameters means perfect health score
+        }
+        
+        long maxPossiblePoints = totalParameters * 100; // Each parameter can contribute max 100 points
+        
         // Calculate percentage score
         return (int) Math.round((double) totalPoints / maxPossiblePoints * 100);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Points a single parameter contributes to the health score
+     */
+    public int getStatusPoints(HealthStatus status) {
+        return switch (status) {
+            case NORMAL -> 100;          // Full points for normal
+            case LOW, HIGH -> 60;        // Moderate points for mild abnormalities
+            case CRITICAL -> 20;         // Low points for critical abnormalities
+        };
+    }
+
+    /**
+     * Generate human-readable alert message for a parameter
+     * @param test The parameter's test, supplying name, unit and reference range
+     */
+    @Timed("health.analysis")
+    public String generateAlertMessage(Parameter parameter, Test test, HealthStatus status) {
+        String paramName = test.getParameterName();
+        Double value = parameter.getValue();
+        String unit = test.getUnit();
+        Double min = test.getReferenceMin();
+        Double max = test.getReferenceMax();
+        
+        return switch (status) {
+            case CRITICAL -> {
+                if (value < min) {
+                    yield String.format("%s critically low: %.2f %s (normal: %.1f-%.1f %s)", 
+                        paramName, value, unit, min, max, unit);
+                } else {
+                    yield String.format("%s critically high: %.2f %s (normal: %.1f-%.1f %s)", 
+                        paramName, value, unit, min, max, unit);
+                }
+            }
+            case LOW -> String.format("%s below normal: %.2f %s (normal: %.1f-%.1f %s)", 
+                paramName, value, unit, min, max, unit);
+            case HIGH -> String.format("%s above normal: %.2f %s (normal: %.1f-%.1f %s)", 
+                paramName, value, unit, min, max, unit);
+            default -> String.format("%s: %.2f %s (normal)", paramName, value, unit);
+        };
+    }
+
+    /**
+     * Flatten all parameters across a patient's tests
+     */
+    private List<Parameter> getAllParameters(Patient patient) {
+        return patient.getTests().stream()
+            .flatMap(test -> test.getParameters().stream())
+            .collect(Collectors.toList());
+    }
+}
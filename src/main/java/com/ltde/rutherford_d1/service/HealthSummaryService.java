@@ -0,0 +1,162 @@
+package com.ltde.rutherford_d1.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+
+import com.ltde.rutherford_d1.dto.HealthSummaryDTO;
+import com.ltde.rutherford_d1.model.HealthStatus;
+import com.ltde.rutherford_d1.model.Parameter;
+import com.ltde.rutherford_d1.model.PatientHealthRollup;
+import com.ltde.rutherford_d1.model.Test;
+import com.ltde.rutherford_d1.repository.ParameterRepository;
+import com.ltde.rutherford_d1.repository.PatientHealthRollupRepository;
+import com.ltde.rutherford_d1.repository.PatientStatusCount;
+
+/**
+ * Service for building health summaries from the PatientHealthRollup read model,
+ * falling back to database-side status aggregates instead of hydrating every parameter entity of a patient
+ */
+@Service
+public class HealthSummaryService {
+
+    /** Upper bound on ids bound into a single IN clause */
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final ParameterRepository parameterRepository;
+    private final PatientHealthRollupRepository rollupRepository;
+    private final HealthAnalysisService healthAnalysisService;
+
+    public HealthSummaryService(ParameterRepository parameterRepository,
+                                PatientHealthRollupRepository rollupRepository,
+                                HealthAnalysisService healthAnalysisService) {
+        this.parameterRepository = parameterRepository;
+        this.rollupRepository = rollupRepository;
+        this.healthAnalysisService = healthAnalysisService;
+    }
+
+    /**
+     * Per-status parameter counts and latest measurement date for one patient
+     */
+    public record StatusCounts(Map<HealthStatus, Long> counts, LocalDate lastTestDate) {
+
+        public long count(HealthStatus status) {
+            return counts.getOrDefault(status, 0L);
+        }
+    }
+
+    /**
+     * Get the health summary for a single patient, reading its rollup row when one exists
+     */
+    public HealthSummaryDTO getHealthSummary(Long patientId) {
+        return rollupRepository.findById(patientId)
+            .map(this::createHealthSummary)
+            .orElseGet(() -> getHealthSummaries(List.of(patientId)).get(patientId));
+    }
+
+    /**
+     * Get health summaries for many patients at once.
+     * Every requested id is present in the result; patients without parameters get an empty summary.
+     */
+    public Map<Long, HealthSummaryDTO> getHealthSummaries(Collection<Long> patientIds) {
+        Map<Long, HealthSummaryDTO> summaries = new HashMap<>();
+        getStatusCounts(patientIds).forEach((patientId, counts) -> summaries.put(patientId, createHealthSummary(counts)));
+        return summaries;
+    }
+
+    /**
+     * Get per-status counts for many patients using one GROUP BY query per chunk of ids.
+     * Parameters stored without a status are classified on the fly, as the entity-based path does.
+     */
+    public Map<Long, StatusCounts> getStatusCounts(Collection<Long> patientIds) {
+        Map<Long, Map<HealthStatus, Long>> countsByPatient = new HashMap<>();
+        Map<Long, LocalDate> lastDateByPatient = new HashMap<>();
+        patientIds.forEach(id -> countsByPatient.put(id, new EnumMap<>(HealthStatus.class)));
+
+        List<Long> ids = new ArrayList<>(countsByPatient.keySet());
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+            boolean hasUnclassified = false;
+
+            for (PatientStatusCount row : parameterRepository.countByPatientAndStatus(chunk)) {
+                if (row.getLastDate() != null) {
+                    lastDateByPatient.merge(row.getPatientId(), row.getLastDate(), HealthSummaryService::latest);
+                }
+                if (row.getStatus() == null) {
+                    hasUnclassified = true;
+                } else {
+                    countsByPatient.get(row.getPatientId()).merge(row.getStatus(), row.getCount(), Long::sum);
+                }
+            }
+
+            if (hasUnclassified) {
+                for (Parameter parameter : parameterRepository.findUnclassifiedByPatientIds(chunk)) {
+                    Test test = parameter.getTest();
+                    HealthStatus status = healthAnalysisService.calculateParameterStatus(
+                        parameter.getValue(), test.getReferenceMin(), test.getReferenceMax());
+                    countsByPatient.get(test.getPatient().getId()).merge(status, 1L, Long::sum);
+                }
+            }
+        }
+
+        Map<Long, StatusCounts> result = new HashMap<>();
+        countsByPatient.forEach((patientId, counts) ->
+            result.put(patientId, new StatusCounts(counts, lastDateByPatient.get(patientId))));
+        return result;
+    }
+
+    /**
+     * Create HealthSummaryDTO from a patient's rollup row
+     */
+    public HealthSummaryDTO createHealthSummary(PatientHealthRollup rollup) {
+        int totalParameters = (int) rollup.getTotalCount();
+
+        return new HealthSummaryDTO(
+            healthAnalysisService.getHealthScoreFromPoints(rollup.getScorePoints(), totalParameters),
+            totalParameters,
+            (int) rollup.getNormalCount(),
+            (int) rollup.getLowCount(),
+            (int) rollup.getHighCount(),
+            (int) rollup.getCriticalCount(),
+            (int) rollup.getAbnormalCount()
+        );
+    }
+
+    /**
+     * Create HealthSummaryDTO from per-status counts
+     */
+    public HealthSummaryDTO createHealthSummary(StatusCounts counts) {
+        return createHealthSummary(
+            counts.count(HealthStatus.NORMAL),
+            counts.count(HealthStatus.LOW),
+            counts.count(HealthStatus.HIGH),
+            counts.count(HealthStatus.CRITICAL));
+    }
+
+    /**
+     * Create HealthSummaryDTO from per-status counts
+     */
+    public HealthSummaryDTO createHealthSummary(long normalCount, long lowCount, long highCount, long criticalCount) {
+        int totalParameters = (int) (normalCount + lowCount + highCount + criticalCount);
+
+        return new HealthSummaryDTO(
+            healthAnalysisService.getHealthScore(normalCount, lowCount, highCount, criticalCount),
+            totalParameters,
+            (int) normalCount,
+            (int) lowCount,
+            (int) highCount,
+            (int) criticalCount,
+            totalParameters - (int) normalCount
+        );
+    }
+
+    private static LocalDate latest(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,290 @@
+package com.ltde.rutherford_d1.service;
+
+import java.sql.Array;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ltde.rutherford_d1.config.ParameterPartitionProperties;
+import com.ltde.rutherford_d1.repository.TestMonthlyRollupRepository;
+import com.ltde.rutherford_d1.repository.TestTrendRollupRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Maintains the yearly partitions of the parameter table on PostgreSQL (see the V3 migration):
+ * creates the partitions of the coming years ahead of time, moves back-dated measurements out of the
+ * default partition into partitions of their own, and detaches years that fell out of
+ * parameter-partitions.retention, moving them to the archive schema where they stay queryable.
+ * Archiving runs in one transaction that bumps the versions of the affected patients and tests,
+ * recomputes their trend rollups from the measurements left and drops the archived months of their
+ * history; their health rollups are rebuilt afterwards.
+ * Runs at startup and every parameter-partitions.interval; an advisory lock keeps several instances
+ * from running it at the same time. Does nothing when the parameter table is not partitioned.
+ */
+@Service
+public class ParameterPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ParameterPartitionService.class);
+
+    private static final Pattern YEARLY_PARTITION = Pattern.compile("parameter_y(\\d{4})");
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final String DEFAULT_PARTITION = "parameter_default";
+
+    /** Upper bound on ids bound into a single IN clause */
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    /** pg_try_advisory_xact_lock key of the maintenance run */
+    private static final long LOCK_KEY = 0x5041525449544eL;
+
+    // The trend sums of the tests in the bound id array, computed like the backfill of the V1_1 migration
+    private static final String RECOMPUTE_TRENDS_SQL =
+        "insert into test_trend_rollup (test_id, anchor_epoch_day, count, sumx, sumy, sumxx, sumxy) "
+        + "select t.id, sums.anchor_epoch_day, coalesce(sums.point_count, 0), coalesce(sums.sumx, 0), "
+        + "coalesce(sums.sumy, 0), coalesce(sums.sumxx, 0), coalesce(sums.sumxy, 0) "
+        + "from test t left join ("
+        + "select anchored.test_id, min(anchored.anchor_epoch_day) as anchor_epoch_day, count(*) as point_count, "
+        + "sum(anchored.x) as sumx, sum(anchored.value) as sumy, sum(anchored.x * anchored.x) as sumxx, "
+        + "sum(anchored.x * anchored.value) as sumxy "
+        + "from (select dated.test_id, dated.value, "
+        + "min(dated.epoch_day) over (partition by dated.test_id) as anchor_epoch_day, "
+        + "dated.epoch_day - min(dated.epoch_day) over (partition by dated.test_id) as x "
+        + "from (select p.test_id, p.value, cast(extract(epoch from p.date_performed) / 86400 as bigint) as epoch_day "
+        + "from parameter p where p.test_id = any(?) and p.date_performed is not null and p.value is not null) dated"
+        + ") anchored group by anchored.test_id"
+        + ") sums on sums.test_id = t.id "
+        + "where t.id = any(?)";
+
+    /**
+     * Years to create and years to archive
+     */
+    public record Plan(List<Integer> create, List<Integer> archive) {}
+
+    /**
+     * Partitions created and archived by a maintenance run, and the patients whose rollups were rebuilt
+     */
+    public record MaintenanceReport(List<String> created, List<String> archived, int patientsRebuilt) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TestTrendRollupRepository trendRepository;
+    private final TestMonthlyRollupRepository monthlyRepository;
+    private final PatientHealthRollupService rollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ParameterPartitionProperties properties;
+    private ScheduledExecutorService scheduler;
+
+    public ParameterPartitionService(JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     TestTrendRollupRepository trendRepository,
+                                     TestMonthlyRollupRepository monthlyRepository,
+                                     PatientHealthRollupService rollupService,
+                                     ApplicationEventPublisher eventPublisher,
+                                     ParameterPartitionProperties properties) {
+        if (!IDENTIFIER.matcher(properties.getArchiveSchema()).matches()) {
+            throw new IllegalArgumentException("parameter-partitions.archive-schema must be a lower-case SQL identifier: "
+                + properties.getArchiveSchema());
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.trendRepository = trendRepository;
+        this.monthlyRepository = monthlyRepository;
+        this.rollupService = rollupService;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+    }
+
+    /**
+     * Schedule the maintenance runs once the schema has been migrated, if the parameter table is partitioned
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled() || !isPartitioned()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("parameter-partitions").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::runMaintenance, 0, properties.getInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Whether the database is PostgreSQL and the parameter table is partitioned
+     */
+    public boolean isPartitioned() {
+        boolean postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+            "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        return postgres && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "select exists (select 1 from pg_partitioned_table where partrelid = to_regclass('parameter'))", Boolean.class));
+    }
+
+    /**
+     * Create the missing partitions and archive the expired ones
+     */
+    public MaintenanceReport maintain() {
+        List<String> created = new ArrayList<>();
+        List<String> archived = new ArrayList<>();
+        Set<Long> patientIds = new TreeSet<>();
+        Set<Long> testIds = new TreeSet<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("select pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY))) {
+                log.info("Parameter partition maintenance is already running elsewhere; skipped");
+                return;
+            }
+            Plan plan = plan(partitionedYears(), defaultPartitionYears(), LocalDate.now(),
+                properties.getRetention(), properties.getYearsAhead());
+            for (int year : plan.create()) {
+                createPartition(year);
+                created.add(partitionName(year));
+            }
+            for (int year : plan.archive()) {
+                archivePartition(year, patientIds, testIds);
+                archived.add(partitionName(year));
+            }
+            if (!testIds.isEmpty()) {
+                List<Long> ids = List.copyOf(testIds);
+                for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+                    List<Long> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+                    trendRepository.deleteAllByIdInBatch(chunk);
+                    recomputeTrends(chunk);
+                }
+                // Bumps the versions and evicts the caches of everything that lost measurements
+                eventPublisher.publishEvent(new PatientDataChangedEvent(List.copyOf(patientIds), List.copyOf(testIds)));
+            }
+        });
+
+        if (!patientIds.isEmpty()) {
+            rollupService.rebuild(patientIds);
+        }
+        MaintenanceReport report = new MaintenanceReport(created, archived, patientIds.size());
+        if (!created.isEmpty() || !archived.isEmpty()) {
+            log.info("Parameter partitions created: {}, archived to {}: {}, patient rollups rebuilt: {}",
+                created, properties.getArchiveSchema(), archived, report.patientsRebuilt());
+        }
+        return report;
+    }
+
+    /**
+     * Decide which yearly partitions to create and which to archive. Years with measurements in the default
+     * partition get their own partition, and are archived right away if they are already past the retention.
+     * @param partitionedYears Years that have a partition
+     * @param defaultPartitionYears Years of the dated measurements in the default partition
+     * @param retention Measurements older than this are archived once their whole year is; zero keeps everything
+     * @param yearsAhead Partitions kept ready beyond the current year
+     */
+    static Plan plan(Set<Integer> partitionedYears, Set<Integer> defaultPartitionYears, LocalDate today,
+                     Period retention, int yearsAhead) {
+        int firstKeptYear = retention.isZero() ? Integer.MIN_VALUE : today.minus(retention).getYear();
+        TreeSet<Integer> create = new TreeSet<>(defaultPartitionYears);
+        for (int year = Math.max(today.getYear(), firstKeptYear); year <= today.getYear() + yearsAhead; year++) {
+            create.add(year);
+        }
+        create.removeAll(partitionedYears);
+
+        TreeSet<Integer> years = new TreeSet<>(partitionedYears);
+        years.addAll(create);
+        return new Plan(List.copyOf(create), List.copyOf(years.headSet(firstKeptYear)));
+    }
+
+    private Set<Integer> partitionedYears() {
+        Set<Integer> years = new TreeSet<>();
+        jdbcTemplate.queryForList("select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid "
+                + "where i.inhparent = to_regclass('parameter')", String.class)
+            .forEach(name -> {
+                Matcher matcher = YEARLY_PARTITION.matcher(name);
+                if (matcher.matches()) {
+                    years.add(Integer.parseInt(matcher.group(1)));
+                }
+            });
+        return years;
+    }
+
+    private Set<Integer> defaultPartitionYears() {
+        return new TreeSet<>(jdbcTemplate.queryForList("select distinct extract(year from date_performed)::int from "
+            + DEFAULT_PARTITION + " where date_performed is not null", Integer.class));
+    }
+
+    /**
+     * Create a year's partition. PostgreSQL refuses a new partition whose range has rows in the default
+     * partition, so those rows are moved into a standalone table first, which is then attached.
+     */
+    private void createPartition(int year) {
+        String partition = partitionName(year);
+        LocalDate from = LocalDate.of(year, 1, 1);
+        LocalDate to = from.plusYears(1);
+        String bounds = "for values from ('" + from + "') to ('" + to + "')";
+        String range = " where date_performed >= '" + from + "' and date_performed < '" + to + "'";
+
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("select exists (select 1 from " + DEFAULT_PARTITION + range + ")",
+                Boolean.class))) {
+            jdbcTemplate.execute("create table " + partition + " partition of parameter " + bounds);
+            return;
+        }
+        jdbcTemplate.execute("create table " + partition + " (like parameter including defaults including constraints)");
+        int moved = jdbcTemplate.update("insert into " + partition + " select * from " + DEFAULT_PARTITION + range);
+        jdbcTemplate.update("delete from " + DEFAULT_PARTITION + range);
+        jdbcTemplate.execute("alter table parameter attach partition " + partition + " " + bounds);
+        log.info("Moved {} measurements of {} from {} to {}", moved, year, DEFAULT_PARTITION, partition);
+    }
+
+    private void archivePartition(int year, Set<Long> patientIds, Set<Long> testIds) {
+        String partition = partitionName(year);
+        jdbcTemplate.query("select distinct p.test_id, t.patient_id from " + partition + " p join test t on t.id = p.test_id",
+            row -> {
+                testIds.add(row.getLong(1));
+                Long patientId = row.getObject(2, Long.class);
+                if (patientId != null) {
+                    patientIds.add(patientId);
+                }
+            });
+        jdbcTemplate.execute("alter table parameter detach partition " + partition);
+        monthlyRepository.deleteMonthsBetween(LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1));
+        jdbcTemplate.execute("create schema if not exists " + properties.getArchiveSchema());
+        jdbcTemplate.execute("alter table " + partition + " set schema " + properties.getArchiveSchema());
+    }
+
+    private void recomputeTrends(List<Long> testIds) {
+        jdbcTemplate.update(RECOMPUTE_TRENDS_SQL, statement -> {
+            Array ids = statement.getConnection().createArrayOf("bigint", testIds.toArray());
+            statement.setArray(1, ids);
+            statement.setArray(2, ids);
+        });
+    }
+
+    private void runMaintenance() {
+        try {
+            maintain();
+        } catch (RuntimeException e) {
+            log.error("Parameter partition maintenance failed", e);
+        }
+    }
+
+    private static String partitionName(int year) {
+        return "parameter_y" + year;
+    }
+}
@@ -0,0 +1,278 @@
+package com.ltde.rutherford_d1.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ltde.rutherford_d1.dto.AlertEventDTO;
+import com.ltde.rutherford_d1.dto.ParameterMeasurementDTO;
+import com.ltde.rutherford_d1.dto.TestParameterBatchDTO;
+import com.ltde.rutherford_d1.model.HealthStatus;
+import com.ltde.rutherford_d1.model.Parameter;
+import com.ltde.rutherford_d1.model.Test;
+import com.ltde.rutherford_d1.repository.ParameterRepository;
+import com.ltde.rutherford_d1.repository.SeriesPoint;
+import com.ltde.rutherford_d1.repository.TestRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Write path for parameter measurements.
+ * Every insert, reclassification and delete goes through here so derived read models
+ * (such as the patient health rollup) are updated in the same transaction, and in-memory
+ * views are told through a PatientDataChangedEvent. New LOW/HIGH/CRITICAL results are also
+ * announced through an AbnormalResultsEvent.
+ */
+@Service
+public class ParameterService {
+
+    /** Maximum number of measurements accepted by one bulk ingestion call */
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    private final ParameterRepository parameterRepository;
+    private final TestRepository testRepository;
+    private final HealthAnalysisService healthAnalysisService;
+    private final PatientHealthRollupService rollupService;
+    private final TestTrendService trendService;
+    private final TestHistoryService historyService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ParameterService(ParameterRepository parameterRepository,
+                            TestRepository testRepository,
+                            HealthAnalysisService healthAnalysisService,
+                            PatientHealthRollupService rollupService,
+                            TestTrendService trendService,
+                            TestHistoryService historyService,
+                            ApplicationEventPublisher eventPublisher) {
+        this.parameterRepository = parameterRepository;
+        this.testRepository = testRepository;
+        this.healthAnalysisService = healthAnalysisService;
+        this.rollupService = rollupService;
+        this.trendService = trendService;
+        this.historyService = historyService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Classify and store a new measurement for a test
+     * @return The saved parameter, also appended to the test's parameter list
+     */
+    @Transactional
+    public Parameter recordParameter(Test test, Double value, LocalDate datePerformed) {
+        HealthStatus status = healthAnalysisService.calculateParameterStatus(
+            value, test.getReferenceMin(), test.getReferenceMax());
+        Parameter parameter = parameterRepository.save(newParameter(test, value, datePerformed, status));
+
+        if (test.getParameters() == null) {
+            test.setParameters(new ArrayList<>());
+        }
+        test.getParameters().add(parameter);
+        rollupService.parameterAdded(test.getPatient().getId(), parameter);
+        trendService.measurementsAdded(test.getId(), List.of(parameter));
+        historyService.measurementsAdded(test.getId(), List.of(parameter));
+        eventPublisher.publishEvent(new PatientDataChangedEvent(List.of(test.getPatient().getId()), List.of(test.getId()),
+            Map.of(test.getId(), List.of(toSeriesPoint(parameter)))));
+        publishAlerts(List.of(parameter));
+        return parameter;
+    }
+
+    /**
+     * Classify and store many measurements of one test
+     * @throws EntityNotFoundException if the test does not exist
+     */
+    @Transactional
+    public List<Parameter> recordParameters(Long testId, List<ParameterMeasurementDTO> measurements) {
+        return recordParameters(List.of(new TestParameterBatchDTO(testId, measurements)));
+    }
+
+    /**
+     * Classify and store measurements of many tests in one transaction.
+     * Parameters use a pooled sequence, so the inserts are sent as JDBC batches
+     * (hibernate.jdbc.batch_size), and each patient's rollup is locked and updated once.
+     * Unlike recordParameter, the new parameters are not appended to the tests' parameter lists.
+     * @throws EntityNotFoundException if any of the tests does not exist
+     */
+    @Transactional
+    public List<Parameter> recordParameters(List<TestParameterBatchDTO> batches) {
+        List<Long> testIds = batches.stream().map(TestParameterBatchDTO::testId).distinct().toList();
+        Map<Long, Test> testsById = testRepository.findAllWithPatientByIdIn(testIds).stream()
+            .collect(Collectors.toMap(Test::getId, Function.identity()));
+        List<Long> missingIds = testIds.stream().filter(id -> !testsById.containsKey(id)).toList();
+        if (!missingIds.isEmpty()) {
+            throw new EntityNotFoundException("Tests not found: " + missingIds);
+        }
+
+        List<Parameter> parameters = new ArrayList<>();
+        SortedMap<Long, List<Parameter>> parametersByPatient = new TreeMap<>();
+        for (TestParameterBatchDTO batch : batches) {
+            Test test = testsById.get(batch.testId());
+            List<Parameter> patientParameters = parametersByPatient.computeIfAbsent(
+                test.getPatient().getId(), id -> new ArrayList<>());
+            List<ParameterMeasurementDTO> measurements = batch.parameters();
+            double[] values = measurements.stream().mapToDouble(m -> toPrimitive(m.value())).toArray();
+            byte[] statuses = new byte[values.length];
+            healthAnalysisService.calculateParameterStatuses(values,
+                toPrimitive(test.getReferenceMin()), toPrimitive(test.getReferenceMax()), statuses);
+
+            for (int i = 0; i < measurements.size(); i++) {
+                Parameter parameter = newParameter(test, measurements.get(i).value(), measurements.get(i).datePerformed(),
+                    HealthAnalysisService.statusOf(statuses[i]));
+                parameters.add(parameter);
+                patientParameters.add(parameter);
+            }
+        }
+
+        storeClassified(parametersByPatient);
+        return parameters;
+    }
+
+    /**
+     * Store new parameters whose status was already calculated by the caller, e.g. the CSV importer.
+     * Patient rollups are locked before any test trend row, and each test belongs to one patient,
+     * so writers touching the same test never lock in opposite orders.
+     * @param parametersByPatient Parameters grouped by patient id; sorted so concurrent writers
+     *                            lock rollup rows in the same order
+     */
+    @Transactional
+    public void storeClassified(SortedMap<Long, List<Parameter>> parametersByPatient) {
+        parametersByPatient.values().forEach(parameterRepository::saveAll);
+        parametersByPatient.forEach(rollupService::parametersAdded);
+        SortedMap<Long, List<Parameter>> parametersByTest = parametersByPatient.values().stream()
+            .flatMap(List::stream)
+            .collect(Collectors.groupingBy(parameter -> parameter.getTest().getId(), TreeMap::new, Collectors.toList()));
+        parametersByTest.forEach(trendService::measurementsAdded);
+        parametersByTest.forEach(historyService::measurementsAdded);
+        Map<Long, List<SeriesPoint>> addedPoints = new TreeMap<>();
+        parametersByTest.forEach((testId, testParameters) ->
+            addedPoints.put(testId, testParameters.stream().map(ParameterService::toSeriesPoint).toList()));
+        eventPublisher.publishEvent(new PatientDataChangedEvent(
+            List.copyOf(parametersByPatient.keySet()), List.copyOf(parametersByTest.keySet()), addedPoints));
+        parametersByPatient.values().forEach(this::publishAlerts);
+    }
+
+    /**
+     * Recalculate a parameter's status against its test's current reference range
+     * @return true if the status changed
+     */
+    @Transactional
+    public boolean reclassify(Parameter parameter) {
+        Test test = parameter.getTest();
+        return applyStatus(parameter, healthAnalysisService.calculateParameterStatus(
+            parameter.getValue(), test.getReferenceMin(), test.getReferenceMax()));
+    }
+
+    /**
+     * Recalculate the status of every parameter of a test, e.g. after its reference range changed
+     * @return Number of parameters whose status changed
+     */
+    @Transactional
+    public int reclassifyTest(Test test) {
+        List<Parameter> testParameters = test.getParameters();
+        double[] values = testParameters.stream().mapToDouble(p -> toPrimitive(p.getValue())).toArray();
+        byte[] statuses = new byte[values.length];
+        healthAnalysisService.calculateParameterStatuses(values,
+            toPrimitive(test.getReferenceMin()), toPrimitive(test.getReferenceMax()), statuses);
+
+        int changed = 0;
+        for (int i = 0; i < statuses.length; i++) {
+            if (applyStatus(testParameters.get(i), HealthAnalysisService.statusOf(statuses[i]))) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Delete a measurement
+     */
+    @Transactional
+    public void deleteParameter(Parameter parameter) {
+        Test test = parameter.getTest();
+        if (test.getParameters() != null) {
+            test.getParameters().removeIf(p -> p == parameter);
+        }
+        parameterRepository.delete(parameter);
+        rollupService.parameterRemoved(test.getPatient().getId(), parameter);
+        trendService.measurementRemoved(test.getId(), parameter);
+        historyService.measurementRemoved(test.getId(), parameter);
+        publishChange(test);
+    }
+
+    private void publishChange(Test test) {
+        eventPublisher.publishEvent(new PatientDataChangedEvent(List.of(test.getPatient().getId()), List.of(test.getId())));
+    }
+
+    private static SeriesPoint toSeriesPoint(Parameter parameter) {
+        return new SeriesPoint(parameter.getId(), parameter.getDatePerformed(), parameter.getValue(), parameter.getStatus());
+    }
+
+    /**
+     * Announce the LOW, HIGH and CRITICAL parameters among the given ones to alert stream subscribers
+     */
+    private void publishAlerts(List<Parameter> parameters) {
+        List<AlertEventDTO> alerts = parameters.stream()
+            .filter(parameter -> parameter.getStatus() != null && parameter.getStatus() != HealthStatus.NORMAL)
+            .map(ParameterService::toAlertEventDTO)
+            .toList();
+        if (!alerts.isEmpty()) {
+            eventPublisher.publishEvent(new AbnormalResultsEvent(alerts));
+        }
+    }
+
+    private static AlertEventDTO toAlertEventDTO(Parameter parameter) {
+        Test test = parameter.getTest();
+        return new AlertEventDTO(
+            parameter.getId(),
+            test.getPatient().getId(),
+            test.getId(),
+            test.getName(),
+            test.getParameterName(),
+            test.getUnit(),
+            parameter.getValue(),
+            test.getReferenceMin(),
+            test.getReferenceMax(),
+            parameter.getStatus(),
+            parameter.getDatePerformed()
+        );
+    }
+
+    private boolean applyStatus(Parameter parameter, HealthStatus status) {
+        Test test = parameter.getTest();
+        HealthStatus previousStatus = parameter.getStatus();
+        if (status == previousStatus) {
+            return false;
+        }
+
+        parameter.setStatus(status);
+        parameterRepository.save(parameter);
+        // Unclassified parameters were already counted under their computed status
+        rollupService.parameterReclassified(test.getPatient().getId(), parameter,
+            previousStatus != null ? previousStatus : status);
+        historyService.measurementReclassified(test.getId(), parameter, previousStatus);
+        publishChange(test);
+        publishAlerts(List.of(parameter));
+        return true;
+    }
+
+    private Parameter newParameter(Test test, Double value, LocalDate datePerformed, HealthStatus status) {
+        Parameter parameter = new Parameter();
+        parameter.setValue(value);
+        parameter.setDatePerformed(datePerformed);
+        parameter.setTest(test);
+        parameter.setStatus(status);
+        return parameter;
+    }
+
+    private static double toPrimitive(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ltde.rutherford_d1.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.ltde.rutherford_d1.repository.SeriesPoint;
+
+/**
+ * Published when parameters of the given patients (and tests) were written.
+ * VersionCounterService bumps their version counters synchronously, inside the publishing transaction.
+ * Listeners that hold derived in-memory state should use
+ * {@code @TransactionalEventListener} so they react only once the write has committed.
+ * @param addedPoints For tests whose only change was new measurements, the measurements added, so
+ *                    in-memory series can be extended instead of reloaded; empty for any other write
+ */
+public record PatientDataChangedEvent(Collection<Long> patientIds, Collection<Long> testIds,
+                                      Map<Long, List<SeriesPoint>> addedPoints) {
+
+    public PatientDataChangedEvent(Collection<Long> patientIds, Collection<Long> testIds) {
+        this(patientIds, testIds, Map.of());
+    }
+}
@@ -0,0 +1,85 @@
+package com.ltde.rutherford_d1.service;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ltde.rutherford_d1.config.PatientCacheProperties;
+import com.ltde.rutherford_d1.dto.PatientDetailDTO;
+import com.ltde.rutherford_d1.dto.PatientHealthDTO;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded caches of the per-patient DTOs served to the dashboard, keyed by patient id.
+ * Entries are invalidated after every committed write to the patient's tests or parameters
+ * (see PatientDataChangedEvent). Loading is atomic per key, so an invalidation that races with
+ * a load removes the loaded value instead of being overwritten by it. Missing patients are not cached.
+ * Each entry carries the patient version it was built from, so a caller that has already seen a newer
+ * version (e.g. for its ETag) never gets a DTO from before that write, even ahead of the invalidation.
+ */
+@Component
+public class PatientDtoCache {
+
+    /**
+     * A cached DTO and the version of the patient it was built from
+     */
+    public record Versioned<T>(long version, T value) {}
+
+    private final Cache<Long, Versioned<PatientDetailDTO>> patientDetails;
+    private final Cache<Long, Versioned<PatientHealthDTO>> patientHealth;
+
+    public PatientDtoCache(PatientCacheProperties properties, MeterRegistry meterRegistry) {
+        this.patientDetails = CaffeineCacheMetrics.monitor(meterRegistry, newCache(properties), "patientDetail");
+        this.patientHealth = CaffeineCacheMetrics.monitor(meterRegistry, newCache(properties), "patientHealth");
+    }
+
+    /**
+     * Get a patient's detail DTO built from at least the given version, building it with the loader otherwise
+     */
+    public Optional<Versioned<PatientDetailDTO>> getPatientDetail(Long patientId, long minVersion,
+            Function<Long, Optional<Versioned<PatientDetailDTO>>> loader) {
+        return get(patientDetails, patientId, minVersion, loader);
+    }
+
+    /**
+     * Get a patient's health DTO built from at least the given version, building it with the loader otherwise
+     */
+    public Optional<Versioned<PatientHealthDTO>> getPatientHealth(Long patientId, long minVersion,
+            Function<Long, Optional<Versioned<PatientHealthDTO>>> loader) {
+        return get(patientHealth, patientId, minVersion, loader);
+    }
+
+    /**
+     * Drop the cached DTOs of patients whose data changed; without a transaction this runs immediately
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientDataChanged(PatientDataChangedEvent event) {
+        patientDetails.invalidateAll(event.patientIds());
+        patientHealth.invalidateAll(event.patientIds());
+    }
+
+    private static <T> Optional<Versioned<T>> get(Cache<Long, Versioned<T>> cache, Long patientId, long minVersion,
+            Function<Long, Optional<Versioned<T>>> loader) {
+        Versioned<T> cached = cache.get(patientId, id -> loader.apply(id).orElse(null));
+        if (cached != null && cached.version() < minVersion) {
+            // Built before a write whose invalidation has not arrived yet
+            cache.asMap().remove(patientId, cached);
+            cached = cache.get(patientId, id -> loader.apply(id).orElse(null));
+        }
+        return Optional.ofNullable(cached);
+    }
+
+    private static <V> Cache<Long, V> newCache(PatientCacheProperties properties) {
+        return Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .expireAfterWrite(properties.getExpireAfterWrite())
+            .recordStats()
+            .build();
+    }
+}
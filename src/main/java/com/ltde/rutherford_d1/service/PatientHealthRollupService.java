@@ -0,0 +1,311 @@
+package com.ltde.rutherford_d1.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ltde.rutherford_d1.model.HealthStatus;
+import com.ltde.rutherford_d1.model.Parameter;
+import com.ltde.rutherford_d1.model.Patient;
+import com.ltde.rutherford_d1.model.PatientHealthRollup;
+import com.ltde.rutherford_d1.model.Test;
+import com.ltde.rutherford_d1.repository.ParameterRepository;
+import com.ltde.rutherford_d1.repository.PatientHealthRollupRepository;
+import com.ltde.rutherford_d1.repository.PatientRepository;
+import com.ltde.rutherford_d1.service.HealthSummaryService.StatusCounts;
+
+/**
+ * Service maintaining the PatientHealthRollup read model.
+ * The parameter* methods must run inside the transaction that writes the parameter,
+ * so the rollup always commits (or rolls back) together with the raw data.
+ */
+@Service
+public class PatientHealthRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientHealthRollupService.class);
+
+    /** Number of patients reconciled per transaction by verify/rebuild */
+    private static final int RECONCILE_CHUNK_SIZE = 1000;
+
+    /** Maximum number of drifted patient ids kept in a report */
+    private static final int MAX_REPORTED_IDS = 100;
+
+    private final PatientHealthRollupRepository rollupRepository;
+    private final ParameterRepository parameterRepository;
+    private final PatientRepository patientRepository;
+    private final HealthSummaryService healthSummaryService;
+    private final HealthAnalysisService healthAnalysisService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PatientHealthRollupService(PatientHealthRollupRepository rollupRepository,
+                                      ParameterRepository parameterRepository,
+                                      PatientRepository patientRepository,
+                                      HealthSummaryService healthSummaryService,
+                                      HealthAnalysisService healthAnalysisService,
+                                      TransactionTemplate transactionTemplate,
+                                      ApplicationEventPublisher eventPublisher) {
+        this.rollupRepository = rollupRepository;
+        this.parameterRepository = parameterRepository;
+        this.patientRepository = patientRepository;
+        this.healthSummaryService = healthSummaryService;
+        this.healthAnalysisService = healthAnalysisService;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Result of comparing stored rollups with values recomputed from raw parameters
+     */
+    public record DriftReport(
+        int patientsChecked,
+        int driftedPatients,      // Patients whose stored rollup was missing or differed
+        long orphanedRollups,     // Rollups left behind by deleted patients
+        List<Long> driftedPatientIds,
+        boolean repaired
+    ) {}
+
+    /**
+     * Apply a newly stored parameter to its patient's rollup
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void parameterAdded(Long patientId, Parameter parameter) {
+        parametersAdded(patientId, List.of(parameter));
+    }
+
+    /**
+     * Apply many newly stored parameters of one patient to its rollup, locking the row once
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void parametersAdded(Long patientId, List<Parameter> parameters) {
+        PatientHealthRollup rollup = rollupRepository.findForUpdate(patientId).orElse(null);
+        if (rollup == null) {
+            saveComputedRollup(patientId);
+            return;
+        }
+
+        LocalDate lastTestDate = rollup.getLastTestDate();
+        for (Parameter parameter : parameters) {
+            adjustCounts(rollup, countedStatus(parameter), 1);
+            LocalDate date = parameter.getDatePerformed();
+            if (date != null && (rollup.getLastTestDate() == null || date.isAfter(rollup.getLastTestDate()))) {
+                rollup.setLastTestDate(date);
+            }
+            considerForWorst(rollup, parameter);
+        }
+        if (!Objects.equals(lastTestDate, rollup.getLastTestDate())) {
+            updatePatientLastTestDate(rollup);
+        }
+    }
+
+    /**
+     * Apply a status change of an existing parameter to its patient's rollup
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void parameterReclassified(Long patientId, Parameter parameter, HealthStatus previousStatus) {
+        PatientHealthRollup rollup = rollupRepository.findForUpdate(patientId).orElse(null);
+        if (rollup == null) {
+            saveComputedRollup(patientId);
+            return;
+        }
+        
+        adjustCounts(rollup, previousStatus, -1);
+        adjustCounts(rollup, parameter.getStatus(), 1);
+        if (parameter.getId().equals(rollup.getWorstParameterId())) {
+            setWorst(rollup, findWorstParameter(patientId));
+        } else {
+            considerForWorst(rollup, parameter);
+        }
+    }
+
+    /**
+     * Remove a deleted parameter from its patient's rollup
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void parameterRemoved(Long patientId, Parameter parameter) {
+        PatientHealthRollup rollup = rollupRepository.findForUpdate(patientId).orElse(null);
+        if (rollup == null) {
+            saveComputedRollup(patientId);
+            return;
+        }
+        
+        adjustCounts(rollup, countedStatus(parameter), -1);
+        if (Objects.equals(parameter.getDatePerformed(), rollup.getLastTestDate())) {
+            rollup.setLastTestDate(parameterRepository.findLastTestDate(patientId));
+            updatePatientLastTestDate(rollup);
+        }
+        if (parameter.getId().equals(rollup.getWorstParameterId())) {
+            setWorst(rollup, findWorstParameter(patientId));
+        }
+    }
+
+    /**
+     * Recompute every rollup from raw parameters and report drift without changing anything
+     */
+    public DriftReport verify() {
+        return reconcile(patientRepository.findAllIds(), false);
+    }
+
+    /**
+     * Recompute every rollup from raw parameters, overwrite drifted rows and drop orphans
+     */
+    public DriftReport rebuild() {
+        return reconcile(patientRepository.findAllIds(), true);
+    }
+
+    /**
+     * Recompute the rollups of the given patients, e.g. after their measurements were archived,
+     * overwrite drifted rows and drop orphans
+     */
+    public DriftReport rebuild(Collection<Long> patientIds) {
+        return reconcile(List.copyOf(patientIds), true);
+    }
+
+    private DriftReport reconcile(List<Long> patientIds, boolean repair) {
+        List<Long> driftedIds = new ArrayList<>();
+        int[] drifted = {0};
+
+        for (int from = 0; from < patientIds.size(); from += RECONCILE_CHUNK_SIZE) {
+            List<Long> chunk = patientIds.subList(from, Math.min(from + RECONCILE_CHUNK_SIZE, patientIds.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, StatusCounts> counts = healthSummaryService.getStatusCounts(chunk);
+                Map<Long, Parameter> worstByPatient = parameterRepository.findAbnormalByPatientIds(chunk).stream()
+                    .filter(parameter -> parameter.getStatus() != null)
+                    .collect(Collectors.toMap(
+                        parameter -> parameter.getTest().getPatient().getId(),
+                        Function.identity(),
+                        BinaryOperator.minBy(HealthAnalysisService.ALERT_PRIORITY)));
+                Map<Long, PatientHealthRollup> stored = rollupRepository.findAllById(chunk).stream()
+                    .collect(Collectors.toMap(PatientHealthRollup::getPatientId, Function.identity()));
+
+                List<Long> repairedIds = new ArrayList<>();
+                for (Long patientId : chunk) {
+                    PatientHealthRollup expected = buildRollup(patientId, counts.get(patientId), worstByPatient.get(patientId));
+                    if (!expected.equals(stored.get(patientId))) {
+                        drifted[0]++;
+                        if (driftedIds.size() < MAX_REPORTED_IDS) {
+                            driftedIds.add(patientId);
+                        }
+                        if (repair) {
+                            rollupRepository.save(expected);
+                            updatePatientLastTestDate(expected);
+                            repairedIds.add(patientId);
+                        }
+                    }
+                }
+                if (!repairedIds.isEmpty()) {
+                    // Let in-memory views (DTO caches, alert index) pick up the repaired rows after commit
+                    eventPublisher.publishEvent(new PatientDataChangedEvent(repairedIds, List.of()));
+                }
+            });
+        }
+
+        long orphans = repair
+            ? transactionTemplate.execute(status -> (long) rollupRepository.deleteOrphans())
+            : rollupRepository.countOrphans();
+
+        DriftReport report = new DriftReport(patientIds.size(), drifted[0], orphans, driftedIds, repair);
+        log.info("Patient health rollup {}: {} patients checked, {} drifted, {} orphaned rollups",
+            repair ? "rebuild" : "verification", report.patientsChecked(), report.driftedPatients(), report.orphanedRollups());
+        return report;
+    }
+
+    /**
+     * Build a patient's rollup from scratch using the current database state and store it
+     */
+    private void saveComputedRollup(Long patientId) {
+        StatusCounts counts = healthSummaryService.getStatusCounts(List.of(patientId)).get(patientId);
+        PatientHealthRollup rollup = rollupRepository.save(buildRollup(patientId, counts, findWorstParameter(patientId)));
+        updatePatientLastTestDate(rollup);
+    }
+
+    /**
+     * Copy the rollup's last test date to the patient row, which the last-test-date page is keyed on
+     */
+    private void updatePatientLastTestDate(PatientHealthRollup rollup) {
+        patientRepository.updateLastTestDate(rollup.getPatientId(),
+            rollup.getLastTestDate() != null ? rollup.getLastTestDate() : Patient.NO_TEST_DATE);
+    }
+
+    private PatientHealthRollup buildRollup(Long patientId, StatusCounts counts, Parameter worst) {
+        PatientHealthRollup rollup = new PatientHealthRollup();
+        rollup.setPatientId(patientId);
+        for (HealthStatus status : HealthStatus.values()) {
+            adjustCounts(rollup, status, counts.count(status));
+        }
+        rollup.setLastTestDate(counts.lastTestDate());
+        setWorst(rollup, worst);
+        return rollup;
+    }
+
+    private Parameter findWorstParameter(Long patientId) {
+        return parameterRepository.findAlertCandidates(patientId, Pageable.ofSize(1)).stream()
+            .findFirst()
+            .orElse(null);
+    }
+
+    /**
+     * Status a parameter is counted under: the stored one, or for rows written without one the status
+     * computed from its test's reference range, as HealthSummaryService.getStatusCounts does
+     */
+    private HealthStatus countedStatus(Parameter parameter) {
+        if (parameter.getStatus() != null) {
+            return parameter.getStatus();
+        }
+        Test test = parameter.getTest();
+        return healthAnalysisService.calculateParameterStatus(
+            parameter.getValue(), test.getReferenceMin(), test.getReferenceMax());
+    }
+
+    private void adjustCounts(PatientHealthRollup rollup, HealthStatus status, long delta) {
+        switch (status) {
+            case NORMAL -> rollup.setNormalCount(rollup.getNormalCount() + delta);
+            case LOW -> rollup.setLowCount(rollup.getLowCount() + delta);
+            case HIGH -> rollup.setHighCount(rollup.getHighCount() + delta);
+            case CRITICAL -> rollup.setCriticalCount(rollup.getCriticalCount() + delta);
+        }
+        rollup.setScorePoints(rollup.getScorePoints() + delta * healthAnalysisService.getStatusPoints(status));
+    }
+
+    /**
+     * Replace the rollup's worst parameter if the given one ranks higher in alert priority
+     */
+    private void considerForWorst(PatientHealthRollup rollup, Parameter parameter) {
+        if (parameter.getStatus() == null || parameter.getStatus() == HealthStatus.NORMAL) {
+            return;
+        }
+        if (rollup.getWorstParameterId() == null) {
+            setWorst(rollup, parameter);
+            return;
+        }
+        
+        Parameter currentWorst = new Parameter();
+        currentWorst.setId(rollup.getWorstParameterId());
+        currentWorst.setStatus(rollup.getWorstStatus());
+        currentWorst.setDatePerformed(rollup.getWorstDate());
+        if (HealthAnalysisService.ALERT_PRIORITY.compare(parameter, currentWorst) < 0) {
+            setWorst(rollup, parameter);
+        }
+    }
+
+    private void setWorst(PatientHealthRollup rollup, Parameter worst) {
+        rollup.setWorstParameterId(worst != null ? worst.getId() : null);
+        rollup.setWorstStatus(worst != null ? worst.getStatus() : null);
+        rollup.setWorstDate(worst != null ? worst.getDatePerformed() : null);
+    }
+}
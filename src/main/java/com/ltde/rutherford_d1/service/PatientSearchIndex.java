@@ -0,0 +1,289 @@
+package com.ltde.rutherford_d1.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ltde.rutherford_d1.model.Patient;
+import com.ltde.rutherford_d1.repository.PatientRepository;
+import com.ltde.rutherford_d1.repository.PatientSearchRow;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * In-memory typeahead index over the name, species, breed, owner name and owner contact of every patient
+ * (see PatientTokenIndex for the matching). It is built from the patient table in the background once the
+ * application is ready, and searches made before it is loaded are answered with no result instead of waiting
+ * for it. Committed Patient entity writes are applied from Hibernate's post-commit events. Parameter writes never touch the
+ * searched columns, so PatientDataChangedEvent is deliberately not followed; code changing patients through
+ * JDBC once the index is loaded must call refresh with their ids.
+ */
+@Component
+public class PatientSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientSearchIndex.class);
+
+    /** Upper bound on ids bound into a single IN clause */
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    /** Rows fetched per round trip by the initial load, which PostgreSQL only streams inside a transaction */
+    private static final int LOAD_FETCH_SIZE = 1000;
+
+    // Read through JDBC: mapping a million rows through a Hibernate projection took several times longer
+    private static final String LOAD_SQL =
+        "select id, name, species, breed, owner_name, owner_contact from patient order by id";
+
+    private final PatientRepository patientRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final PatientTokenIndex index = new PatientTokenIndex();
+
+    // Searches share the read lock and changes take the write lock. Loads and updates are also serialized
+    // by updateLock, held across their query, so the last one applied reflects the newest committed rows.
+    // Neither is synchronized, which would pin a virtual thread to its carrier during the query
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private volatile boolean loaded;
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    public PatientSearchIndex(PatientRepository patientRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              EntityManagerFactory entityManagerFactory) {
+        this.patientRepository = patientRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // A fresh transaction only sees committed patients, even when called from inside a write. Not marked
+        // read-only, which would let a lagging read replica serve it rows older than the commit it reacts to
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        PatientWriteListener listener = new PatientWriteListener();
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getEventEngine()
+            .getListenerRegistry();
+        listeners.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    /**
+     * Start loading the index in the background once the schema has been migrated
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        loadInBackground();
+    }
+
+    /**
+     * Ids of the first patients matching every word of the query, in index order
+     * @return Empty while the index is still loading, without waiting for it
+     */
+    public Optional<List<Long>> search(String query, int limit) {
+        if (!loaded) {
+            loadInBackground(); // In case the warm-up failed
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return Optional.of(index.search(query, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Load the index on the calling thread unless it is loaded already, e.g. before a batch of searches
+     * that cannot be turned away
+     */
+    public void awaitLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    /**
+     * Number of indexed patients, loading the index first if needed
+     */
+    public int size() {
+        awaitLoaded();
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Re-read the given patients after a committed JDBC write to them, dropping those that no longer exist
+     */
+    public void refresh(Collection<Long> patientIds) {
+        updateLock.lock();
+        try {
+            if (!loaded || patientIds.isEmpty()) {
+                return; // The initial load will read the committed state
+            }
+
+            List<Long> ids = List.copyOf(patientIds);
+            Map<Long, PatientSearchRow> rows = new HashMap<>();
+            readTransaction.executeWithoutResult(status -> {
+                for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+                    patientRepository.findSearchRowsByIdIn(ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size())))
+                        .forEach(row -> rows.put(row.id(), row));
+                }
+            });
+            lock.writeLock().lock();
+            try {
+                for (Long patientId : ids) {
+                    PatientSearchRow row = rows.get(patientId);
+                    if (row != null) {
+                        index.put(row);
+                    } else {
+                        index.remove(patientId);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void loadInBackground() {
+        if (loaded || !loading.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofPlatform().name("patient-search-index").daemon().start(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                log.warn("Patient search index load failed; retrying on the next search", e);
+            } finally {
+                loading.set(false);
+            }
+        });
+    }
+
+    private void load() {
+        updateLock.lock();
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                long started = System.nanoTime();
+                readTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(LOAD_SQL);
+                    statement.setFetchSize(LOAD_FETCH_SIZE);
+                    return statement;
+                }, (ResultSet rs) -> {
+                    index.put(new PatientSearchRow(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getString(5), rs.getString(6)));
+                }));
+                loaded = true;
+                log.info("Patient search index loaded: {} patients, {} distinct tokens in {} ms",
+                    index.size(), index.tokenCount(), (System.nanoTime() - started) / 1_000_000);
+            }
+        } finally {
+            lock.writeLock().unlock();
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Apply a committed entity write (a null patient is a delete), unless the index is not loaded yet
+     * and will read it anyway
+     */
+    private void apply(Long patientId, Patient patient) {
+        updateLock.lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                if (patient != null) {
+                    index.put(new PatientSearchRow(patientId, patient.getName(), patient.getSpecies(), patient.getBreed(),
+                        patient.getOwnerName(), patient.getOwnerContact()));
+                } else {
+                    index.remove(patientId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Receives Patient entity writes from Hibernate once their transaction committed
+     */
+    private class PatientWriteListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+            PostCommitDeleteEventListener {
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return persister.getMappedClass() == Patient.class;
+        }
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (event.getEntity() instanceof Patient patient) {
+                apply(patient.getId(), patient);
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (event.getEntity() instanceof Patient patient) {
+                apply(patient.getId(), patient);
+            }
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (event.getEntity() instanceof Patient) {
+                apply((Long) event.getId(), null);
+            }
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        }
+    }
+}
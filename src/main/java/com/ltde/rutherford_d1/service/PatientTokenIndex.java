@@ -0,0 +1,282 @@
+package com.ltde.rutherford_d1.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.ltde.rutherford_d1.repository.PatientSearchRow;
+
+/**
+ * Token index behind PatientSearchIndex. The name, species, breed, owner name and owner contact of a patient
+ * are split into lower-case tokens of letters and digits with accents removed; a query matches the patients
+ * that have, for each of its tokens, a token starting with it. Only the query token with the fewest postings
+ * is looked up in the sorted token map, the others are checked against the candidates' own tokens. Patients
+ * keep the slot they were first indexed in, and matches come in slot order, so a search stops after limit
+ * matches. Not thread-safe.
+ */
+public class PatientTokenIndex {
+
+    /**
+     * Slots of the patients having one token, ascending
+     */
+    private static final class Postings {
+        final String token;
+        int[] slots = new int[1];
+        int size;
+
+        Postings(String token) {
+            this.token = token;
+        }
+
+        void add(int slot) {
+            // New patients take the highest slot, so adding is almost always an append
+            int at = size == 0 || slots[size - 1] < slot ? size : -(Arrays.binarySearch(slots, 0, size, slot) + 1);
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size + (size >> 1) + 1);
+            }
+            System.arraycopy(slots, at, slots, at + 1, size - at);
+            slots[at] = slot;
+            size++;
+        }
+
+        void remove(int slot) {
+            int at = Arrays.binarySearch(slots, 0, size, slot);
+            if (at >= 0) {
+                System.arraycopy(slots, at + 1, slots, at, size - at - 1);
+                size--;
+            }
+        }
+    }
+
+    private static final Postings[] NO_TOKENS = new Postings[0];
+
+    private final NavigableMap<String, Postings> postingsByToken = new TreeMap<>();
+    private final Map<Long, Integer> slotsByPatient = new HashMap<>();
+    private long[] patientIdsBySlot = new long[1024];
+    private Postings[][] tokensBySlot = new Postings[1024][];
+    private int slotCount;
+
+    /**
+     * Ids of the first patients matching every token of the query, in slot order
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        NavigableMap<String, Postings> candidates = null;
+        String candidateToken = null;
+        long candidateCount = Long.MAX_VALUE;
+        for (String token : queryTokens) {
+            NavigableMap<String, Postings> range = postingsByToken.subMap(token, true, token + Character.MAX_VALUE, false);
+            long count = countPostings(range, candidateCount);
+            if (count == 0) {
+                return List.of();
+            }
+            if (count < candidateCount) {
+                candidates = range;
+                candidateToken = token;
+                candidateCount = count;
+            }
+        }
+        List<String> otherTokens = new ArrayList<>(queryTokens);
+        otherTokens.remove(candidateToken);
+
+        List<Long> matches = new ArrayList<>(Math.min(limit, 64));
+        if (candidates.size() == 1) {
+            Postings postings = candidates.firstEntry().getValue();
+            for (int i = 0; i < postings.size && matches.size() < limit; i++) {
+                collect(postings.slots[i], otherTokens, matches);
+            }
+        } else if (otherTokens.isEmpty() && (long) candidates.size() * limit < candidateCount) {
+            // Every candidate matches, so reading the first few slots of each token beats reading them all
+            mergeFirst(candidates.values().toArray(NO_TOKENS), limit, matches);
+        } else {
+            // Merge the postings of all tokens with the prefix into slot order
+            BitSet slots = new BitSet(slotCount);
+            for (Postings postings : candidates.values()) {
+                for (int i = 0; i < postings.size; i++) {
+                    slots.set(postings.slots[i]);
+                }
+            }
+            for (int slot = slots.nextSetBit(0); slot >= 0 && matches.size() < limit; slot = slots.nextSetBit(slot + 1)) {
+                collect(slot, otherTokens, matches);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Add a patient, or replace the tokens of one already indexed
+     */
+    public void put(PatientSearchRow row) {
+        List<String> texts = tokenize(row.name(), row.species(), row.breed(), row.ownerName(), row.ownerContact());
+        Integer slot = slotsByPatient.get(row.id());
+        if (slot == null) {
+            slot = newSlot(row.id());
+        }
+        Postings[] previous = tokensBySlot[slot];
+        Postings[] tokens = new Postings[texts.size()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = postingsByToken.computeIfAbsent(texts.get(i), Postings::new);
+            if (!contains(previous, tokens[i])) {
+                tokens[i].add(slot);
+            }
+        }
+        for (Postings postings : previous) {
+            if (!contains(tokens, postings)) {
+                removePosting(postings, slot);
+            }
+        }
+        tokensBySlot[slot] = tokens;
+    }
+
+    /**
+     * Drop a patient; its slot is not reused
+     */
+    public void remove(long patientId) {
+        Integer slot = slotsByPatient.remove(patientId);
+        if (slot == null) {
+            return;
+        }
+        for (Postings postings : tokensBySlot[slot]) {
+            removePosting(postings, slot);
+        }
+        tokensBySlot[slot] = NO_TOKENS;
+    }
+
+    /**
+     * Number of indexed patients
+     */
+    public int size() {
+        return slotsByPatient.size();
+    }
+
+    /**
+     * Number of distinct tokens
+     */
+    public int tokenCount() {
+        return postingsByToken.size();
+    }
+
+    /**
+     * Lower-case tokens of letters and digits of the texts, without accents and duplicates
+     */
+    static List<String> tokenize(String... texts) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            // Decomposed, an accented letter is the plain letter followed by a mark, which is dropped
+            String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+            for (int i = 0; i <= decomposed.length(); i++) {
+                char c = i < decomposed.length() ? decomposed.charAt(i) : ' ';
+                if (Character.isLetterOrDigit(c)) {
+                    token.append(Character.toLowerCase(c));
+                } else if (Character.getType(c) != Character.NON_SPACING_MARK && !token.isEmpty()) {
+                    String complete = token.toString();
+                    if (!tokens.contains(complete)) {
+                        tokens.add(complete);
+                    }
+                    token.setLength(0);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Ids of the first limit distinct slots of the postings, in slot order
+     */
+    private void mergeFirst(Postings[] postings, int limit, List<Long> matches) {
+        int[] positions = new int[postings.length];
+        while (matches.size() < limit) {
+            int next = Integer.MAX_VALUE;
+            for (int i = 0; i < postings.length; i++) {
+                if (positions[i] < postings[i].size) {
+                    next = Math.min(next, postings[i].slots[positions[i]]);
+                }
+            }
+            if (next == Integer.MAX_VALUE) {
+                return;
+            }
+            // A patient with several tokens of the prefix is at the head of each of their postings
+            for (int i = 0; i < postings.length; i++) {
+                if (positions[i] < postings[i].size && postings[i].slots[positions[i]] == next) {
+                    positions[i]++;
+                }
+            }
+            matches.add(patientIdsBySlot[next]);
+        }
+    }
+
+    private void collect(int slot, List<String> otherTokens, List<Long> matches) {
+        Postings[] tokens = tokensBySlot[slot];
+        for (String queryToken : otherTokens) {
+            if (!hasTokenStartingWith(tokens, queryToken)) {
+                return;
+            }
+        }
+        matches.add(patientIdsBySlot[slot]);
+    }
+
+    private static boolean hasTokenStartingWith(Postings[] tokens, String prefix) {
+        for (Postings token : tokens) {
+            if (token.token.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Total postings of a token range, counted only as far as needed to tell it reaches limit
+     */
+    private static long countPostings(NavigableMap<String, Postings> range, long limit) {
+        long count = 0;
+        for (Postings postings : range.values()) {
+            count += postings.size;
+            if (count >= limit) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private int newSlot(long patientId) {
+        if (slotCount == patientIdsBySlot.length) {
+            patientIdsBySlot = Arrays.copyOf(patientIdsBySlot, slotCount * 2);
+            tokensBySlot = Arrays.copyOf(tokensBySlot, slotCount * 2);
+        }
+        int slot = slotCount++;
+        patientIdsBySlot[slot] = patientId;
+        tokensBySlot[slot] = NO_TOKENS;
+        slotsByPatient.put(patientId, slot);
+        return slot;
+    }
+
+    private void removePosting(Postings postings, int slot) {
+        postings.remove(slot);
+        if (postings.size == 0) {
+            postingsByToken.remove(postings.token);
+        }
+    }
+
+    private static boolean contains(Postings[] tokens, Postings postings) {
+        for (Postings token : tokens) {
+            if (token == postings) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,234 @@
+package com.ltde.rutherford_d1.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ltde.rutherford_d1.dto.HistoryPeriodDTO;
+import com.ltde.rutherford_d1.dto.TestHistoryDTO;
+import com.ltde.rutherford_d1.model.HealthStatus;
+import com.ltde.rutherford_d1.model.Parameter;
+import com.ltde.rutherford_d1.model.Test;
+import com.ltde.rutherford_d1.model.TestMonthlyRollup;
+import com.ltde.rutherford_d1.repository.ParameterRepository;
+import com.ltde.rutherford_d1.repository.SeriesPoint;
+import com.ltde.rutherford_d1.repository.TestMonthlyRollupRepository;
+import com.ltde.rutherford_d1.repository.TestRepository;
+
+/**
+ * Service maintaining the TestMonthlyRollup read model and serving test histories from it.
+ * The measurement* methods must run inside the transaction that writes the parameter, after the
+ * patient rollup was locked, so concurrent writers of one test are already serialized (see TestTrendService).
+ * A month without a row is computed from its measurements when it is first written to, so the rows
+ * stay exact whether or not the test's older months have been backfilled.
+ */
+@Service
+public class TestHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(TestHistoryService.class);
+
+    /** Number of tests whose months are rebuilt per transaction */
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    /**
+     * Length of the periods a history is reported in
+     */
+    public enum Resolution {
+        MONTH, YEAR
+    }
+
+    /**
+     * Result of rebuilding every monthly rollup from raw parameters
+     */
+    public record RebuildReport(int testsProcessed, long monthsWritten) {}
+
+    private final TestMonthlyRollupRepository monthlyRepository;
+    private final ParameterRepository parameterRepository;
+    private final TestRepository testRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public TestHistoryService(TestMonthlyRollupRepository monthlyRepository,
+                              ParameterRepository parameterRepository,
+                              TestRepository testRepository,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate) {
+        this.monthlyRepository = monthlyRepository;
+        this.parameterRepository = parameterRepository;
+        this.testRepository = testRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Apply newly stored parameters of one test to its months
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void measurementsAdded(Long testId, List<Parameter> parameters) {
+        SortedMap<LocalDate, List<Parameter>> parametersByMonth = parameters.stream()
+            .filter(parameter -> parameter.getDatePerformed() != null)
+            .collect(Collectors.groupingBy(parameter -> TestMonthlyRollup.monthOf(parameter.getDatePerformed()),
+                TreeMap::new, Collectors.toList()));
+        if (parametersByMonth.isEmpty()) {
+            return;
+        }
+
+        Map<LocalDate, TestMonthlyRollup> stored = monthlyRepository.findByTestIdAndMonths(testId, parametersByMonth.keySet())
+            .stream()
+            .collect(Collectors.toMap(TestMonthlyRollup::getMonthStart, Function.identity()));
+        parametersByMonth.forEach((month, added) -> {
+            TestMonthlyRollup rollup = stored.get(month);
+            if (rollup == null) {
+                // Includes the new parameters, which the query flushes first
+                monthlyRepository.save(recompute(new TestMonthlyRollup(testId, month)));
+                return;
+            }
+            added.forEach(parameter -> rollup.add(parameter.getValue(), parameter.getStatus()));
+        });
+    }
+
+    /**
+     * Apply a status change of an existing parameter to its month
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void measurementReclassified(Long testId, Parameter parameter, HealthStatus previousStatus) {
+        if (parameter.getDatePerformed() == null) {
+            return;
+        }
+        LocalDate month = TestMonthlyRollup.monthOf(parameter.getDatePerformed());
+        TestMonthlyRollup rollup = monthlyRepository.findById(new TestMonthlyRollup.Key(testId, month)).orElse(null);
+        if (rollup == null) {
+            monthlyRepository.save(recompute(new TestMonthlyRollup(testId, month)));
+            return;
+        }
+
+        rollup.adjustStatus(previousStatus, -1);
+        rollup.adjustStatus(parameter.getStatus(), 1);
+    }
+
+    /**
+     * Remove a deleted parameter from its month, recomputing the month if it held the min or max
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void measurementRemoved(Long testId, Parameter parameter) {
+        if (parameter.getDatePerformed() == null) {
+            return;
+        }
+        LocalDate month = TestMonthlyRollup.monthOf(parameter.getDatePerformed());
+        TestMonthlyRollup rollup = monthlyRepository.findById(new TestMonthlyRollup.Key(testId, month))
+            .orElseGet(() -> new TestMonthlyRollup(testId, month));
+        if (rollup.isNew() || !rollup.remove(parameter.getValue(), parameter.getStatus())) {
+            recompute(rollup);
+        }
+
+        if (rollup.getCount() == 0) {
+            if (!rollup.isNew()) {
+                monthlyRepository.delete(rollup);
+            }
+        } else if (rollup.isNew()) {
+            monthlyRepository.save(rollup);
+        }
+    }
+
+    /**
+     * Build the history of a test from its monthly rollups; years are summed from their months
+     */
+    @Transactional(readOnly = true)
+    public TestHistoryDTO getHistory(Test test, Resolution resolution) {
+        List<TestMonthlyRollup> months = monthlyRepository.findByTestId(test.getId());
+        List<TestMonthlyRollup> periods = resolution == Resolution.MONTH ? months : sumYears(test.getId(), months);
+
+        return new TestHistoryDTO(
+            test.getId(),
+            test.getParameterName(),
+            test.getUnit(),
+            test.getReferenceMin(),
+            test.getReferenceMax(),
+            resolution.name().toLowerCase(),
+            periods.stream().map(TestHistoryService::toHistoryPeriodDTO).toList()
+        );
+    }
+
+    /**
+     * Recompute every test's months from raw parameters with one set-based statement per chunk of tests,
+     * dropping rows of tests that no longer exist
+     */
+    public RebuildReport rebuild() {
+        List<Long> testIds = testRepository.findAllIds();
+        long months = 0;
+        // Ranges cover the whole id space, so rows of deleted tests fall into one of them
+        long first = Long.MIN_VALUE;
+        int from = 0;
+        do {
+            int to = Math.min(from + REBUILD_CHUNK_SIZE, testIds.size());
+            long rangeFirst = first;
+            long rangeLast = to == testIds.size() ? Long.MAX_VALUE : testIds.get(to - 1);
+            months += transactionTemplate.execute(status -> rebuildRange(rangeFirst, rangeLast));
+            first = rangeLast + 1;
+            from = to;
+        } while (from < testIds.size());
+
+        RebuildReport report = new RebuildReport(testIds.size(), months);
+        log.info("Test history rebuild: {} tests, {} months written", report.testsProcessed(), report.monthsWritten());
+        return report;
+    }
+
+    private int rebuildRange(long firstTestId, long lastTestId) {
+        jdbcTemplate.update("delete from test_monthly_rollup where test_id between ? and ?", firstTestId, lastTestId);
+        return jdbcTemplate.update("insert into test_monthly_rollup (test_id, month_start, count, value_count, value_sum,"
+            + " min_value, max_value, normal_count, low_count, high_count, critical_count)"
+            + " select test_id, cast(date_trunc('month', date_performed) as date), count(*), count(value),"
+            + " coalesce(sum(value), 0), min(value), max(value),"
+            + " sum(case when status = 'NORMAL' then 1 else 0 end), sum(case when status = 'LOW' then 1 else 0 end),"
+            + " sum(case when status = 'HIGH' then 1 else 0 end), sum(case when status = 'CRITICAL' then 1 else 0 end)"
+            + " from parameter where test_id between ? and ? and date_performed is not null"
+            + " group by test_id, cast(date_trunc('month', date_performed) as date)", firstTestId, lastTestId);
+    }
+
+    /**
+     * Recompute a month's figures from the test's measurements in that month
+     */
+    private TestMonthlyRollup recompute(TestMonthlyRollup rollup) {
+        rollup.reset();
+        LocalDate month = rollup.getMonthStart();
+        for (SeriesPoint point : parameterRepository.findSeriesPointsBetween(rollup.getTestId(), month, month.plusMonths(1))) {
+            rollup.add(point.value(), point.status());
+        }
+        return rollup;
+    }
+
+    private static List<TestMonthlyRollup> sumYears(Long testId, List<TestMonthlyRollup> months) {
+        SortedMap<LocalDate, TestMonthlyRollup> years = new TreeMap<>();
+        for (TestMonthlyRollup month : months) {
+            years.computeIfAbsent(month.getMonthStart().withDayOfYear(1), year -> new TestMonthlyRollup(testId, year))
+                .addAll(month);
+        }
+        return List.copyOf(years.values());
+    }
+
+    private static HistoryPeriodDTO toHistoryPeriodDTO(TestMonthlyRollup period) {
+        return new HistoryPeriodDTO(
+            period.getMonthStart(),
+            period.getCount(),
+            period.getMinValue(),
+            period.getMaxValue(),
+            period.getMean(),
+            period.getNormalCount(),
+            period.getLowCount(),
+            period.getHighCount(),
+            period.getCriticalCount()
+        );
+    }
+}
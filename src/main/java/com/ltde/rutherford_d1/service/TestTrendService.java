@@ -0,0 +1,193 @@
+package com.ltde.rutherford_d1.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ltde.rutherford_d1.dto.TestTrendDTO;
+import com.ltde.rutherford_d1.model.Parameter;
+import com.ltde.rutherford_d1.model.Test;
+import com.ltde.rutherford_d1.model.TestTrendRollup;
+import com.ltde.rutherford_d1.repository.ParameterRepository;
+import com.ltde.rutherford_d1.repository.SeriesPoint;
+import com.ltde.rutherford_d1.repository.TestTrendRollupRepository;
+import com.ltde.rutherford_d1.timeseries.TestSeries;
+import com.ltde.rutherford_d1.timeseries.TestSeriesStore;
+
+/**
+ * Service maintaining the TestTrendRollup read model and building trend reports from it.
+ * The measurement* methods must run inside the transaction that writes the parameter, after the
+ * patient rollup was locked, so concurrent writers of one test are already serialized.
+ * A report costs one primary-key read plus, unless TestSeriesStore already holds the test's series,
+ * one query for the latest few measurements, whatever the length of the series.
+ */
+@Service
+public class TestTrendService {
+
+    /** Measurements read for the moving averages and the rate of change */
+    private static final int RECENT_POINTS = 6;
+
+    private static final double DAYS_PER_MONTH = 365.2425 / 12;
+
+    /** How far ahead the projection used for trendingTowardAbnormal looks */
+    private static final int PROJECTION_MONTHS = 3;
+
+    private final TestTrendRollupRepository trendRepository;
+    private final ParameterRepository parameterRepository;
+    private final TestSeriesStore testSeriesStore;
+
+    public TestTrendService(TestTrendRollupRepository trendRepository,
+                            ParameterRepository parameterRepository,
+                            TestSeriesStore testSeriesStore) {
+        this.trendRepository = trendRepository;
+        this.parameterRepository = parameterRepository;
+        this.testSeriesStore = testSeriesStore;
+    }
+
+    /**
+     * Apply newly stored parameters of one test to its trend sums
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void measurementsAdded(Long testId, List<Parameter> parameters) {
+        TestTrendRollup rollup = trendRepository.findForUpdate(testId).orElse(null);
+        if (rollup == null) {
+            trendRepository.save(computeRollup(testId));
+            return;
+        }
+
+        for (Parameter parameter : parameters) {
+            if (isTrendPoint(parameter)) {
+                rollup.apply(parameter.getDatePerformed().toEpochDay(), parameter.getValue(), 1);
+            }
+        }
+    }
+
+    /**
+     * Remove a deleted parameter from its test's trend sums
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void measurementRemoved(Long testId, Parameter parameter) {
+        TestTrendRollup rollup = trendRepository.findForUpdate(testId).orElse(null);
+        if (rollup == null) {
+            trendRepository.save(computeRollup(testId));
+            return;
+        }
+
+        if (isTrendPoint(parameter)) {
+            rollup.apply(parameter.getDatePerformed().toEpochDay(), parameter.getValue(), -1);
+        }
+    }
+
+    /**
+     * Build the trend report of a test.
+     * Every test with a dated measurement has a row (backfilled by the V1_1 migration, then kept by every
+     * write), so a missing row means empty sums and never a rescan of the series. The latest measurements
+     * come from the test's series when TestSeriesStore has it loaded; a series is not loaded just for this.
+     */
+    @Transactional(readOnly = true)
+    public TestTrendDTO getTrend(Test test) {
+        TestTrendRollup rollup = trendRepository.findById(test.getId()).orElseGet(() -> {
+            TestTrendRollup empty = new TestTrendRollup();
+            empty.setTestId(test.getId());
+            return empty;
+        });
+        TestSeries series = testSeriesStore.getLoadedSeries(test);
+        return getTrend(test, rollup, series != null
+            ? recentPoints(series)
+            : parameterRepository.findRecentSeriesPoints(test.getId(), Pageable.ofSize(RECENT_POINTS)));
+    }
+
+    /**
+     * Build the trend report from already loaded figures
+     * @param recentPoints Latest dated measurements with a value, newest first
+     */
+    public TestTrendDTO getTrend(Test test, TestTrendRollup rollup, List<SeriesPoint> recentPoints) {
+        Double slopePerDay = rollup.getSlopePerDay();
+        Double slopePerMonth = slopePerDay != null ? slopePerDay * DAYS_PER_MONTH : null;
+        SeriesPoint latest = recentPoints.isEmpty() ? null : recentPoints.get(0);
+
+        Double rateOfChangePerMonth = null;
+        if (recentPoints.size() >= 2) {
+            SeriesPoint previous = recentPoints.get(1);
+            long days = latest.datePerformed().toEpochDay() - previous.datePerformed().toEpochDay();
+            if (days > 0) {
+                rateOfChangePerMonth = (latest.value() - previous.value()) / days * DAYS_PER_MONTH;
+            }
+        }
+
+        Double movingAverage3 = average(recentPoints, 3);
+        Double base = movingAverage3 != null ? movingAverage3 : latest != null ? latest.value() : null;
+        Double projectedValue = base != null && slopePerMonth != null ? base + slopePerMonth * PROJECTION_MONTHS : null;
+
+        return new TestTrendDTO(
+            test.getId(),
+            test.getParameterName(),
+            test.getUnit(),
+            test.getReferenceMin(),
+            test.getReferenceMax(),
+            rollup.getCount(),
+            latest != null ? latest.value() : null,
+            latest != null ? latest.datePerformed() : null,
+            slopePerMonth,
+            movingAverage3,
+            average(recentPoints, 6),
+            rateOfChangePerMonth,
+            projectedValue,
+            isTrendingTowardAbnormal(slopePerMonth, projectedValue, test.getReferenceMin(), test.getReferenceMax())
+        );
+    }
+
+    private TestTrendRollup computeRollup(Long testId) {
+        TestTrendRollup rollup = new TestTrendRollup();
+        rollup.setTestId(testId);
+        for (SeriesPoint point : parameterRepository.findSeriesPoints(testId)) {
+            if (point.datePerformed() != null && point.value() != null) {
+                rollup.apply(point.datePerformed().toEpochDay(), point.value(), 1);
+            }
+        }
+        return rollup;
+    }
+
+    /**
+     * The latest dated measurements with a value, newest first, like findRecentSeriesPoints
+     */
+    private static List<SeriesPoint> recentPoints(TestSeries series) {
+        List<SeriesPoint> points = new ArrayList<>(RECENT_POINTS);
+        for (int i = series.size() - 1; i >= 0 && series.epochDay(i) != TestSeries.NO_DATE && points.size() < RECENT_POINTS; i--) {
+            if (!Double.isNaN(series.value(i))) {
+                points.add(new SeriesPoint(series.parameterId(i), series.date(i), series.value(i), series.healthStatus(i)));
+            }
+        }
+        return points;
+    }
+
+    private static boolean isTrendPoint(Parameter parameter) {
+        return parameter.getDatePerformed() != null && parameter.getValue() != null;
+    }
+
+    /**
+     * Mean of the latest window measurements, or null if there are fewer
+     */
+    private static Double average(List<SeriesPoint> recentPoints, int window) {
+        if (recentPoints.size() < window) {
+            return null;
+        }
+        double sum = 0;
+        for (int i = 0; i < window; i++) {
+            sum += recentPoints.get(i).value();
+        }
+        return sum / window;
+    }
+
+    private static boolean isTrendingTowardAbnormal(Double slopePerMonth, Double projectedValue, Double min, Double max) {
+        if (slopePerMonth == null || projectedValue == null) {
+            return false;
+        }
+        return slopePerMonth > 0 && max != null && projectedValue > max
+            || slopePerMonth < 0 && min != null && projectedValue < min;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ltde.rutherford_d1.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ltde.rutherford_d1.repository.PatientRepository;
+import com.ltde.rutherford_d1.repository.TestRepository;
+
+/**
+ * Maintains the version counters of Patient and Test behind the ETags of their GET endpoints.
+ * Every PatientDataChangedEvent bumps the counters of the named patients and tests inside the
+ * publishing transaction, so a new version becomes visible exactly when the write commits.
+ */
+@Service
+public class VersionCounterService {
+
+    /** Upper bound on ids bound into a single IN clause */
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final PatientRepository patientRepository;
+    private final TestRepository testRepository;
+
+    public VersionCounterService(PatientRepository patientRepository, TestRepository testRepository) {
+        this.patientRepository = patientRepository;
+        this.testRepository = testRepository;
+    }
+
+    /**
+     * Bump the versions of the changed patients and tests; joins the write's transaction
+     */
+    @EventListener
+    @Transactional
+    public void onPatientDataChanged(PatientDataChangedEvent event) {
+        inChunks(event.patientIds(), patientRepository::incrementVersions);
+        inChunks(event.testIds(), testRepository::incrementVersions);
+    }
+
+    private static void inChunks(Collection<Long> changedIds, Consumer<List<Long>> update) {
+        List<Long> ids = new ArrayList<>(changedIds);
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            update.accept(ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size())));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.ltde.rutherford_d1.synthetic;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Species, breeds, panels and reference ranges the synthetic dataset is drawn from.
+ * Ranges are typical small-animal laboratory intervals; cats use their own where they differ from dogs.
+ */
+final class SyntheticCatalog {
+
+    record Species(String name, double weight, List<String> breeds, boolean feline) {}
+
+    record Analyte(String name, String unit, double dogMin, double dogMax, double catMin, double catMax) {
+
+        double min(Species species) {
+            return species.feline() ? catMin : dogMin;
+        }
+
+        double max(Species species) {
+            return species.feline() ? catMax : dogMax;
+        }
+    }
+
+    /**
+     * A panel ordered for a patient with the given probability; each analyte becomes one test
+     */
+    record Panel(String name, double probability, List<Analyte> analytes) {}
+
+    static final List<Species> SPECIES = List.of(
+        new Species("Dog", 0.62, List.of("Labrador", "German Shepherd", "Golden Retriever", "French Bulldog",
+            "Beagle", "Poodle", "Dachshund", "Border Collie", "Mixed"), false),
+        new Species("Cat", 0.38, List.of("Domestic Shorthair", "Domestic Longhair", "Maine Coon", "Siamese",
+            "Persian", "Ragdoll", "Bengal"), true));
+
+    static final List<Panel> PANELS = List.of(
+        new Panel("Complete Blood Count", 1.0, List.of(
+            new Analyte("Hemoglobin", "g/dL", 12.0, 18.0, 9.8, 15.4),
+            new Analyte("Hematocrit", "%", 37.0, 55.0, 30.0, 45.0),
+            new Analyte("White Blood Cells", "10^3/uL", 5.5, 16.9, 5.5, 19.5),
+            new Analyte("Platelets", "10^3/uL", 175.0, 500.0, 175.0, 600.0))),
+        new Panel("Chemistry Panel", 0.9, List.of(
+            new Analyte("Glucose", "mg/dL", 74.0, 143.0, 71.0, 159.0),
+            new Analyte("BUN", "mg/dL", 7.0, 27.0, 16.0, 36.0),
+            new Analyte("Creatinine", "mg/dL", 0.5, 1.8, 0.8, 2.4),
+            new Analyte("ALT", "U/L", 10.0, 125.0, 12.0, 130.0),
+            new Analyte("Albumin", "g/dL", 2.3, 4.0, 2.2, 4.0))),
+        new Panel("Electrolytes", 0.5, List.of(
+            new Analyte("Sodium", "mmol/L", 144.0, 160.0, 150.0, 165.0),
+            new Analyte("Potassium", "mmol/L", 3.5, 5.8, 3.5, 5.8),
+            new Analyte("Chloride", "mmol/L", 109.0, 122.0, 112.0, 129.0))),
+        new Panel("Thyroid Panel", 0.3, List.of(
+            new Analyte("T4", "ug/dL", 1.0, 4.0, 0.8, 4.7))));
+
+    static final List<String> PET_NAMES = List.of("Bella", "Max", "Luna", "Charlie", "Lucy", "Cooper", "Daisy",
+        "Milo", "Bailey", "Oliver", "Sadie", "Rocky", "Molly", "Leo", "Maggie", "Tucker", "Chloe", "Bear",
+        "Sophie", "Duke", "Nala", "Oscar", "Penny", "Simba", "Rosie", "Zeus", "Willow", "Jasper", "Ruby", "Finn");
+
+    static final List<String> FIRST_NAMES = List.of("Jane", "John", "Alice", "Robert", "Maria", "David", "Emma",
+        "James", "Olivia", "Michael", "Sofia", "William", "Grace", "Daniel", "Chloe", "Thomas", "Hannah", "Samuel");
+
+    static final List<String> LAST_NAMES = List.of("Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+        "Miller", "Davis", "Rodriguez", "Martinez", "Wilson", "Anderson", "Taylor", "Thomas", "Moore", "Clark");
+
+    private SyntheticCatalog() {
+    }
+
+    static Species pickSpecies(SplittableRandom random) {
+        double roll = random.nextDouble();
+        for (Species species : SPECIES) {
+            roll -= species.weight();
+            if (roll < 0) {
+                return species;
+            }
+        }
+        return SPECIES.get(SPECIES.size() - 1);
+    }
+
+    static <T> T pick(List<T> values, SplittableRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
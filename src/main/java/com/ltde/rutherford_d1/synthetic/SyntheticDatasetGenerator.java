@@ -0,0 +1,548 @@
+package com.ltde.rutherford_d1.synthetic;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ltde.rutherford_d1.config.SyntheticDataProperties;
+import com.ltde.rutherford_d1.model.HealthStatus;
+import com.ltde.rutherford_d1.model.Parameter;
+import com.ltde.rutherford_d1.model.Patient;
+import com.ltde.rutherford_d1.model.PatientHealthRollup;
+import com.ltde.rutherford_d1.model.TestMonthlyRollup;
+import com.ltde.rutherford_d1.model.TestTrendRollup;
+import com.ltde.rutherford_d1.repository.CsvImportCheckpointRepository;
+import com.ltde.rutherford_d1.repository.ParameterRepository;
+import com.ltde.rutherford_d1.repository.PatientHealthRollupRepository;
+import com.ltde.rutherford_d1.repository.PatientRepository;
+import com.ltde.rutherford_d1.repository.TestRepository;
+import com.ltde.rutherford_d1.repository.TestMonthlyRollupRepository;
+import com.ltde.rutherford_d1.repository.TestTrendRollupRepository;
+import com.ltde.rutherford_d1.service.HealthAnalysisService;
+import com.ltde.rutherford_d1.synthetic.SyntheticCatalog.Analyte;
+import com.ltde.rutherford_d1.synthetic.SyntheticCatalog.Panel;
+import com.ltde.rutherford_d1.synthetic.SyntheticCatalog.Species;
+
+/**
+ * Generates a reproducible synthetic dataset of patients, tests and measurements for load testing.
+ * Patients are generated in chunks by parallel workers; each chunk is written in one transaction with
+ * JDBC batch inserts, together with its patient health, test trend and monthly rollups, which are computed from
+ * the generated values instead of being updated row by row. Every patient draws from its own random
+ * stream derived from the seed and its position, so values do not depend on the number of workers;
+ * ids are taken from the entity sequences in the order chunks are written.
+ */
+@Service
+public class SyntheticDatasetGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDatasetGenerator.class);
+
+    /**
+     * allocationSize of patient_seq, test_seq and parameter_seq: like Hibernate's pooled optimizer,
+     * a sequence value v reserves the ids v - 99 to v
+     */
+    static final int ID_BLOCK_SIZE = 100;
+
+    /** Latest possible measurement date, fixed so the same seed always yields the same dataset */
+    private static final LocalDate LAST_MEASUREMENT = LocalDate.of(2024, 12, 31);
+
+    /**
+     * Share of patients and multiplier applied to the abnormal rate: most patients are healthy,
+     * a minority accounts for most abnormal results. The shares average to a multiplier of about 1.
+     */
+    private static final double[][] RISK_TIERS = {{0.70, 0.3}, {0.25, 2.0}, {0.05, 5.0}};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HealthAnalysisService healthAnalysisService;
+    private final PatientRepository patientRepository;
+    private final TestRepository testRepository;
+    private final ParameterRepository parameterRepository;
+    private final PatientHealthRollupRepository rollupRepository;
+    private final TestTrendRollupRepository trendRepository;
+    private final TestMonthlyRollupRepository monthlyRepository;
+    private final CsvImportCheckpointRepository checkpointRepository;
+
+    public SyntheticDatasetGenerator(JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     HealthAnalysisService healthAnalysisService,
+                                     PatientRepository patientRepository,
+                                     TestRepository testRepository,
+                                     ParameterRepository parameterRepository,
+                                     PatientHealthRollupRepository rollupRepository,
+                                     TestTrendRollupRepository trendRepository,
+                                     TestMonthlyRollupRepository monthlyRepository,
+                                     CsvImportCheckpointRepository checkpointRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.healthAnalysisService = healthAnalysisService;
+        this.patientRepository = patientRepository;
+        this.testRepository = testRepository;
+        this.parameterRepository = parameterRepository;
+        this.rollupRepository = rollupRepository;
+        this.trendRepository = trendRepository;
+        this.monthlyRepository = monthlyRepository;
+        this.checkpointRepository = checkpointRepository;
+    }
+
+    /**
+     * Outcome of one generation run
+     */
+    public record GenerationReport(
+        long patients,
+        long tests,
+        long parameters,
+        long abnormalParameters,   // LOW, HIGH or CRITICAL, including critical ones
+        long criticalParameters,
+        long elapsedNanos
+    ) {
+
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : (patients + tests + parameters) * 1e9 / elapsedNanos;
+        }
+
+        GenerationReport plus(GenerationReport other) {
+            return new GenerationReport(patients + other.patients, tests + other.tests, parameters + other.parameters,
+                abnormalParameters + other.abnormalParameters, criticalParameters + other.criticalParameters, 0);
+        }
+    }
+
+    /**
+     * Delete all patients, tests, measurements, rollups and import checkpoints with one statement per table
+     */
+    public void clearAllData() {
+        transactionTemplate.executeWithoutResult(status -> {
+            rollupRepository.deleteAllInBatch();
+            trendRepository.deleteAllInBatch();
+            monthlyRepository.deleteAllInBatch();
+            checkpointRepository.deleteAllInBatch();
+            parameterRepository.deleteAllInBatch();
+            testRepository.deleteAllInBatch();
+            patientRepository.deleteAllInBatch();
+        });
+    }
+
+    /**
+     * Generate and store the configured number of patients. Must run before the application takes
+     * writes: on fresh sequences Hibernate's first id block overlaps the next sequence value.
+     */
+    public GenerationReport generate(SyntheticDataProperties properties) {
+        if (properties.getCriticalRate() > properties.getAbnormalRate()) {
+            throw new IllegalArgumentException("synthetic-data.critical-rate must not exceed synthetic-data.abnormal-rate");
+        }
+        int workers = properties.getWorkers() > 0 ? properties.getWorkers() : Runtime.getRuntime().availableProcessors();
+        int chunkSize = Math.max(1, properties.getPatientsPerChunk());
+        long started = System.nanoTime();
+        AtomicLong writtenPatients = new AtomicLong();
+        long logEvery = Math.max(chunkSize, properties.getPatients() / 10);
+
+        List<Future<GenerationReport>> chunks = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            for (int first = 0; first < properties.getPatients(); first += chunkSize) {
+                int firstPatient = first;
+                int patientCount = Math.min(chunkSize, properties.getPatients() - first);
+                chunks.add(executor.submit(() -> {
+                    GenerationReport written = writeChunk(firstPatient, patientCount, properties);
+                    long total = writtenPatients.addAndGet(patientCount);
+                    if (total / logEvery != (total - patientCount) / logEvery) {
+                        log.info("Synthetic data: {} of {} patients written", total, properties.getPatients());
+                    }
+                    return written;
+                }));
+            }
+
+            GenerationReport total = new GenerationReport(0, 0, 0, 0, 0, 0);
+            for (Future<GenerationReport> chunk : chunks) {
+                total = total.plus(chunk.get());
+            }
+            GenerationReport report = new GenerationReport(total.patients(), total.tests(), total.parameters(),
+                total.abnormalParameters(), total.criticalParameters(), System.nanoTime() - started);
+            log.info("Generated {} patients, {} tests and {} parameters with {} workers, {} rows/s",
+                report.patients(), report.tests(), report.parameters(), workers, Math.round(report.rowsPerSecond()));
+            return report;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Synthetic data generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Synthetic data generation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Generate patients [firstPatient, firstPatient + patientCount) and store them in one transaction
+     */
+    private GenerationReport writeChunk(int firstPatient, int patientCount, SyntheticDataProperties properties) {
+        List<GeneratedPatient> patients = new ArrayList<>(patientCount);
+        for (int i = 0; i < patientCount; i++) {
+            patients.add(generatePatient(firstPatient + i, properties));
+        }
+        return transactionTemplate.execute(status -> store(patients));
+    }
+
+    private GeneratedPatient generatePatient(long index, SyntheticDataProperties properties) {
+        SplittableRandom random = new SplittableRandom(properties.getSeed() + index * 0x9E3779B97F4A7C15L);
+        Species species = SyntheticCatalog.pickSpecies(random);
+        double risk = pickRisk(random);
+        double abnormalRate = Math.min(1.0, properties.getAbnormalRate() * risk);
+        double criticalShare = properties.getAbnormalRate() == 0 ? 0 : properties.getCriticalRate() / properties.getAbnormalRate();
+
+        GeneratedPatient patient = new GeneratedPatient();
+        patient.name = SyntheticCatalog.pick(SyntheticCatalog.PET_NAMES, random);
+        patient.species = species.name();
+        patient.breed = SyntheticCatalog.pick(species.breeds(), random);
+        patient.ownerName = SyntheticCatalog.pick(SyntheticCatalog.FIRST_NAMES, random) + " "
+            + SyntheticCatalog.pick(SyntheticCatalog.LAST_NAMES, random);
+        patient.ownerContact = String.format("555-%04d", random.nextInt(10000));
+
+        LocalDate firstMeasurement = LAST_MEASUREMENT;
+        for (Panel panel : SyntheticCatalog.PANELS) {
+            if (random.nextDouble() >= panel.probability()) {
+                continue;
+            }
+            int[] epochDays = visitDates(random, properties.getMeasurementsPerTest());
+            firstMeasurement = min(firstMeasurement, LocalDate.ofEpochDay(epochDays[0]));
+            for (Analyte analyte : panel.analytes()) {
+                GeneratedTest test = new GeneratedTest(panel.name(), analyte, analyte.min(species), analyte.max(species), epochDays);
+                fillValues(test, random, abnormalRate, criticalShare);
+                healthAnalysisService.calculateParameterStatuses(test.values, test.referenceMin, test.referenceMax, test.statuses);
+                patient.tests.add(test);
+            }
+        }
+        patient.dateOfBirth = firstMeasurement.minusDays(180 + random.nextInt(14 * 365));
+        return patient;
+    }
+
+    private static double pickRisk(SplittableRandom random) {
+        double roll = random.nextDouble();
+        for (double[] tier : RISK_TIERS) {
+            roll -= tier[0];
+            if (roll < 0) {
+                return tier[1];
+            }
+        }
+        return RISK_TIERS[RISK_TIERS.length - 1][1];
+    }
+
+    /**
+     * Dates of a panel's visits in ascending order, roughly monthly and ending within the last quarter
+     */
+    private static int[] visitDates(SplittableRandom random, int averageVisits) {
+        int visits = Math.max(1, averageVisits / 2 + random.nextInt(averageVisits + 1));
+        int[] epochDays = new int[visits];
+        long day = LAST_MEASUREMENT.toEpochDay() - random.nextInt(90);
+        for (int i = visits - 1; i >= 0; i--) {
+            epochDays[i] = (int) day;
+            day -= 21 + random.nextInt(20);
+        }
+        return epochDays;
+    }
+
+    /**
+     * Normal values scatter around a per-patient baseline inside the range; abnormal values fall up to 30% of
+     * the range outside it (LOW/HIGH) or beyond that (CRITICAL). Critical lows that would need a non-positive
+     * value are moved to the high side. Statuses are calculated from the stored values afterwards.
+     */
+    private static void fillValues(GeneratedTest test, SplittableRandom random, double abnormalRate, double criticalShare) {
+        double min = test.referenceMin;
+        double max = test.referenceMax;
+        double range = max - min;
+        double baseline = min + range * (0.3 + 0.4 * random.nextDouble());
+        for (int i = 0; i < test.values.length; i++) {
+            double value;
+            if (random.nextDouble() < abnormalRate) {
+                boolean critical = random.nextDouble() < criticalShare;
+                double deviation = critical
+                    ? range * (0.31 + 0.5 * random.nextDouble())
+                    : range * Math.max(0.01, 0.3 * random.nextDouble());
+                boolean low = random.nextBoolean() && min - deviation > 0;
+                value = low ? min - deviation : max + deviation;
+            } else {
+                value = Math.clamp(baseline + random.nextGaussian() * range * 0.1, min, max);
+            }
+            test.values[i] = Math.round(value * 100) / 100.0;
+        }
+    }
+
+    /**
+     * Assign ids, compute the rollups and insert all rows of a chunk; runs inside the chunk's transaction
+     */
+    private GenerationReport store(List<GeneratedPatient> patients) {
+        int testCount = patients.stream().mapToInt(patient -> patient.tests.size()).sum();
+        int parameterCount = patients.stream().flatMap(patient -> patient.tests.stream()).mapToInt(test -> test.values.length).sum();
+        long[] patientIds = reserveIds("patient_seq", patients.size());
+        long[] testIds = reserveIds("test_seq", testCount);
+        long[] parameterIds = reserveIds("parameter_seq", parameterCount);
+
+        List<GeneratedTest> tests = new ArrayList<>(testCount);
+        List<PatientHealthRollup> rollups = new ArrayList<>(patients.size());
+        List<TestTrendRollup> trendRollups = new ArrayList<>(testCount);
+        List<TestMonthlyRollup> monthlyRollups = new ArrayList<>();
+        long[] parameterTestIds = new long[parameterCount];
+        int[] parameterEpochDays = new int[parameterCount];
+        double[] parameterValues = new double[parameterCount];
+        byte[] parameterStatuses = new byte[parameterCount];
+        long abnormal = 0;
+        long critical = 0;
+
+        int row = 0;
+        for (int p = 0; p < patients.size(); p++) {
+            GeneratedPatient patient = patients.get(p);
+            patient.id = patientIds[p];
+            PatientHealthRollup rollup = new PatientHealthRollup();
+            rollup.setPatientId(patient.id);
+            Parameter worst = null;
+            for (GeneratedTest test : patient.tests) {
+                test.id = testIds[tests.size()];
+                test.patientId = patient.id;
+                tests.add(test);
+                TestTrendRollup trendRollup = new TestTrendRollup();
+                trendRollup.setTestId(test.id);
+                SortedMap<LocalDate, TestMonthlyRollup> months = new TreeMap<>();
+                for (int i = 0; i < test.values.length; i++, row++) {
+                    HealthStatus status = HealthAnalysisService.statusOf(test.statuses[i]);
+                    parameterTestIds[row] = test.id;
+                    parameterEpochDays[row] = test.epochDays[i];
+                    parameterValues[row] = test.values[i];
+                    parameterStatuses[row] = test.statuses[i];
+                    trendRollup.apply(test.epochDays[i], test.values[i], 1);
+                    count(rollup, status);
+                    LocalDate date = LocalDate.ofEpochDay(test.epochDays[i]);
+                    long testId = test.id;
+                    months.computeIfAbsent(TestMonthlyRollup.monthOf(date), month -> new TestMonthlyRollup(testId, month))
+                        .add(test.values[i], status);
+                    if (rollup.getLastTestDate() == null || date.isAfter(rollup.getLastTestDate())) {
+                        rollup.setLastTestDate(date);
+                    }
+                    if (status != HealthStatus.NORMAL) {
+                        abnormal++;
+                        critical += status == HealthStatus.CRITICAL ? 1 : 0;
+                        Parameter candidate = new Parameter();
+                        candidate.setId(parameterIds[row]);
+                        candidate.setStatus(status);
+                        candidate.setDatePerformed(date);
+                        if (worst == null || HealthAnalysisService.ALERT_PRIORITY.compare(candidate, worst) < 0) {
+                            worst = candidate;
+                        }
+                    }
+                }
+                trendRollups.add(trendRollup);
+                monthlyRollups.addAll(months.values());
+            }
+            if (worst != null) {
+                rollup.setWorstParameterId(worst.getId());
+                rollup.setWorstStatus(worst.getStatus());
+                rollup.setWorstDate(worst.getDatePerformed());
+            }
+            rollups.add(rollup);
+        }
+
+        insertPatients(patients, rollups);
+        insertTests(tests);
+        batchInsert("insert into parameter (id, value, date_performed, status, test_id) values (?, ?, ?, ?, ?)",
+            parameterCount, (ps, i) -> {
+                ps.setLong(1, parameterIds[i]);
+                ps.setDouble(2, parameterValues[i]);
+                ps.setObject(3, LocalDate.ofEpochDay(parameterEpochDays[i]));
+                ps.setString(4, HealthAnalysisService.statusOf(parameterStatuses[i]).name());
+                ps.setLong(5, parameterTestIds[i]);
+            });
+        insertRollups(rollups);
+        insertTrendRollups(trendRollups);
+        insertMonthlyRollups(monthlyRollups);
+        return new GenerationReport(patients.size(), testCount, parameterCount, abnormal, critical, 0);
+    }
+
+    private void count(PatientHealthRollup rollup, HealthStatus status) {
+        switch (status) {
+            case NORMAL -> rollup.setNormalCount(rollup.getNormalCount() + 1);
+            case LOW -> rollup.setLowCount(rollup.getLowCount() + 1);
+            case HIGH -> rollup.setHighCount(rollup.getHighCount() + 1);
+            case CRITICAL -> rollup.setCriticalCount(rollup.getCriticalCount() + 1);
+        }
+        rollup.setScorePoints(rollup.getScorePoints() + healthAnalysisService.getStatusPoints(status));
+    }
+
+    /**
+     * @param rollups Rollups of the patients, in the same order; their last test dates are copied to the patients
+     */
+    private void insertPatients(List<GeneratedPatient> patients, List<PatientHealthRollup> rollups) {
+        batchInsert("insert into patient (id, name, species, breed, date_of_birth, owner_name, owner_contact,"
+            + " last_test_date) values (?, ?, ?, ?, ?, ?, ?, ?)", patients.size(), (ps, i) -> {
+                GeneratedPatient patient = patients.get(i);
+                LocalDate lastTestDate = rollups.get(i).getLastTestDate();
+                ps.setLong(1, patient.id);
+                ps.setString(2, patient.name);
+                ps.setString(3, patient.species);
+                ps.setString(4, patient.breed);
+                ps.setObject(5, patient.dateOfBirth);
+                ps.setString(6, patient.ownerName);
+                ps.setString(7, patient.ownerContact);
+                ps.setObject(8, lastTestDate != null ? lastTestDate : Patient.NO_TEST_DATE);
+            });
+    }
+
+    private void insertTests(List<GeneratedTest> tests) {
+        batchInsert("insert into test (id, name, parameter_name, unit, reference_min, reference_max, patient_id)"
+            + " values (?, ?, ?, ?, ?, ?, ?)", tests.size(), (ps, i) -> {
+                GeneratedTest test = tests.get(i);
+                ps.setLong(1, test.id);
+                ps.setString(2, test.name);
+                ps.setString(3, test.analyte.name());
+                ps.setString(4, test.analyte.unit());
+                ps.setDouble(5, test.referenceMin);
+                ps.setDouble(6, test.referenceMax);
+                ps.setLong(7, test.patientId);
+            });
+    }
+
+    private void insertRollups(List<PatientHealthRollup> rollups) {
+        batchInsert("insert into patient_health_rollup (patient_id, normal_count, low_count, high_count, critical_count,"
+            + " score_points, last_test_date, worst_parameter_id, worst_status, worst_date)"
+            + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rollups.size(), (ps, i) -> {
+                PatientHealthRollup rollup = rollups.get(i);
+                ps.setLong(1, rollup.getPatientId());
+                ps.setLong(2, rollup.getNormalCount());
+                ps.setLong(3, rollup.getLowCount());
+                ps.setLong(4, rollup.getHighCount());
+                ps.setLong(5, rollup.getCriticalCount());
+                ps.setLong(6, rollup.getScorePoints());
+                ps.setObject(7, rollup.getLastTestDate());
+                ps.setObject(8, rollup.getWorstParameterId());
+                ps.setString(9, rollup.getWorstStatus() != null ? rollup.getWorstStatus().name() : null);
+                ps.setObject(10, rollup.getWorstDate());
+            });
+    }
+
+    private void insertTrendRollups(List<TestTrendRollup> rollups) {
+        batchInsert("insert into test_trend_rollup (test_id, anchor_epoch_day, count, sumx, sumy, sumxx, sumxy)"
+            + " values (?, ?, ?, ?, ?, ?, ?)", rollups.size(), (ps, i) -> {
+                TestTrendRollup rollup = rollups.get(i);
+                ps.setLong(1, rollup.getTestId());
+                ps.setObject(2, rollup.getAnchorEpochDay());
+                ps.setLong(3, rollup.getCount());
+                ps.setDouble(4, rollup.getSumX());
+                ps.setDouble(5, rollup.getSumY());
+                ps.setDouble(6, rollup.getSumXX());
+                ps.setDouble(7, rollup.getSumXY());
+            });
+    }
+
+    private void insertMonthlyRollups(List<TestMonthlyRollup> rollups) {
+        batchInsert("insert into test_monthly_rollup (test_id, month_start, count, value_count, value_sum, min_value,"
+            + " max_value, normal_count, low_count, high_count, critical_count)"
+            + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rollups.size(), (ps, i) -> {
+                TestMonthlyRollup rollup = rollups.get(i);
+                ps.setLong(1, rollup.getTestId());
+                ps.setObject(2, rollup.getMonthStart());
+                ps.setLong(3, rollup.getCount());
+                ps.setLong(4, rollup.getValueCount());
+                ps.setDouble(5, rollup.getValueSum());
+                ps.setObject(6, rollup.getMinValue());
+                ps.setObject(7, rollup.getMaxValue());
+                ps.setLong(8, rollup.getNormalCount());
+                ps.setLong(9, rollup.getLowCount());
+                ps.setLong(10, rollup.getHighCount());
+                ps.setLong(11, rollup.getCriticalCount());
+            });
+    }
+
+    @FunctionalInterface
+    private interface RowSetter {
+        void setValues(PreparedStatement ps, int row) throws SQLException;
+    }
+
+    private void batchInsert(String sql, int rows, RowSetter setter) {
+        if (rows == 0) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int row) throws SQLException {
+                setter.setValues(ps, row);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows;
+            }
+        });
+    }
+
+    /**
+     * Take enough blocks from a sequence to cover count ids
+     */
+    private long[] reserveIds(String sequence, int count) {
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            int blocks = (count - filled + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+            List<Long> highs = jdbcTemplate.queryForList(
+                "select nextval('" + sequence + "') from generate_series(1, ?)", Long.class, blocks);
+            for (long high : highs) {
+                if (high < ID_BLOCK_SIZE) {
+                    continue; // The sequence's initial value, which Hibernate extends up to the following value
+                }
+                for (long id = high - ID_BLOCK_SIZE + 1; id <= high && filled < count; id++) {
+                    ids[filled++] = id;
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static final class GeneratedPatient {
+        long id;
+        String name;
+        String species;
+        String breed;
+        LocalDate dateOfBirth;
+        String ownerName;
+        String ownerContact;
+        final List<GeneratedTest> tests = new ArrayList<>();
+    }
+
+    private static final class GeneratedTest {
+        final String name;
+        final Analyte analyte;
+        final double referenceMin;
+        final double referenceMax;
+        final int[] epochDays;
+        final double[] values;
+        final byte[] statuses;
+        long id;
+        long patientId;
+
+        GeneratedTest(String name, Analyte analyte, double referenceMin, double referenceMax, int[] epochDays) {
+            this.name = name;
+            this.analyte = analyte;
+            this.referenceMin = referenceMin;
+            this.referenceMax = referenceMax;
+            this.epochDays = epochDays;
+            this.values = new double[epochDays.length];
+            this.statuses = new byte[epochDays.length];
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ltde.rutherford_d1.timeseries;
+
+/**
+ * TestSeries backed by primitive arrays on the Java heap
+ */
+record HeapTestSeries(long[] parameterIds, int[] epochDays, double[] values, byte[] statuses) implements TestSeries {
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public long parameterId(int index) {
+        return parameterIds[index];
+    }
+
+    @Override
+    public int epochDay(int index) {
+        return epochDays[index];
+    }
+
+    @Override
+    public double value(int index) {
+        return values[index];
+    }
+
+    @Override
+    public byte status(int index) {
+        return statuses[index];
+    }
+
+    @Override
+    public long sizeInBytes() {
+        return (long) values.length * OffHeapTestSeries.BYTES_PER_POINT;
+    }
+}
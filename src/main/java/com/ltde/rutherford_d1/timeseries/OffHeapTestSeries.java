@@ -0,0 +1,70 @@
+package com.ltde.rutherford_d1.timeseries;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * TestSeries stored in one direct buffer outside the Java heap, so large working sets add nothing
+ * for the garbage collector to trace. Columns are laid out back to back:
+ * parameter ids (8 bytes each), values (8), epoch days (4), statuses (1).
+ * The memory is released when the series becomes unreachable.
+ */
+final class OffHeapTestSeries implements TestSeries {
+
+    static final int BYTES_PER_POINT = Long.BYTES + Double.BYTES + Integer.BYTES + Byte.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int valuesOffset;
+    private final int epochDaysOffset;
+    private final int statusesOffset;
+
+    private OffHeapTestSeries(ByteBuffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+        this.valuesOffset = size * Long.BYTES;
+        this.epochDaysOffset = valuesOffset + size * Double.BYTES;
+        this.statusesOffset = epochDaysOffset + size * Integer.BYTES;
+    }
+
+    static OffHeapTestSeries copyOf(long[] parameterIds, int[] epochDays, double[] values, byte[] statuses) {
+        int size = values.length;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size * BYTES_PER_POINT).order(ByteOrder.nativeOrder());
+        OffHeapTestSeries series = new OffHeapTestSeries(buffer, size);
+        buffer.asLongBuffer().put(parameterIds);
+        buffer.slice(series.valuesOffset, size * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer().put(values);
+        buffer.slice(series.epochDaysOffset, size * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer().put(epochDays);
+        buffer.put(series.statusesOffset, statuses);
+        return series;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long parameterId(int index) {
+        return buffer.getLong(index * Long.BYTES);
+    }
+
+    @Override
+    public int epochDay(int index) {
+        return buffer.getInt(epochDaysOffset + index * Integer.BYTES);
+    }
+
+    @Override
+    public double value(int index) {
+        return buffer.getDouble(valuesOffset + index * Double.BYTES);
+    }
+
+    @Override
+    public byte status(int index) {
+        return buffer.get(statusesOffset + index);
+    }
+
+    @Override
+    public long sizeInBytes() {
+        return (long) size * BYTES_PER_POINT;
+    }
+}
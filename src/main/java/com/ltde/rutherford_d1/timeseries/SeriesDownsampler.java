@@ -0,0 +1,93 @@
+package com.ltde.rutherford_d1.timeseries;
+
+import java.util.BitSet;
+
+import com.ltde.rutherford_d1.model.HealthStatus;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling of a dated series, for charts that can only draw a few hundred
+ * points. The first and last points are kept; the points between are split into maxPoints - 2 buckets, and
+ * from each bucket the point forming the largest triangle with the previously kept point and the mean of the
+ * next bucket is kept. Every CRITICAL point is kept as well, so the result can exceed maxPoints by the critical
+ * points LTTB did not pick anyway; a kept critical point also anchors the next bucket's triangles.
+ * Works on the series' primitive columns in one pass over the buckets, without allocating per point.
+ */
+public final class SeriesDownsampler {
+
+    /** Fewest points a downsampled series can have: the first, the last and one bucket */
+    public static final int MIN_POINTS = 3;
+
+    private static final byte CRITICAL = (byte) HealthStatus.CRITICAL.ordinal();
+
+    private SeriesDownsampler() {
+    }
+
+    /**
+     * Pick the points to keep
+     * @param series Dated points with a value, sorted by date
+     * @return Indexes of the kept points, in series order
+     */
+    public static BitSet downsample(TestSeries series, int maxPoints) {
+        if (maxPoints < MIN_POINTS) {
+            throw new IllegalArgumentException("maxPoints must be at least " + MIN_POINTS + ", got " + maxPoints);
+        }
+        int size = series.size();
+        BitSet kept = new BitSet(size);
+        if (size <= maxPoints) {
+            kept.set(0, size);
+            return kept;
+        }
+
+        int buckets = maxPoints - 2;
+        double bucketSize = (double) (size - 2) / buckets;
+        kept.set(0);
+        int anchor = 0;
+        int start = 1;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int end = bucketEnd(bucket, buckets, bucketSize, size);
+            int nextEnd = bucket + 1 < buckets ? bucketEnd(bucket + 1, buckets, bucketSize, size) : size;
+
+            // Mean of the next bucket, the far corner of the triangles (the last point for the last bucket)
+            double nextX = 0;
+            double nextY = 0;
+            for (int i = end; i < nextEnd; i++) {
+                nextX += series.epochDay(i);
+                nextY += series.value(i);
+            }
+            nextX /= nextEnd - end;
+            nextY /= nextEnd - end;
+
+            double anchorX = series.epochDay(anchor);
+            double anchorY = series.value(anchor);
+            int largest = start;
+            double largestArea = -1;
+            int lastCritical = -1;
+            for (int i = start; i < end; i++) {
+                // Twice the triangle's area; only the comparison matters
+                double area = Math.abs((anchorX - nextX) * (series.value(i) - anchorY)
+                    - (anchorX - series.epochDay(i)) * (nextY - anchorY));
+                if (area > largestArea) {
+                    largestArea = area;
+                    largest = i;
+                }
+                if (series.status(i) == CRITICAL) {
+                    kept.set(i);
+                    lastCritical = i;
+                }
+            }
+            kept.set(largest);
+            anchor = Math.max(largest, lastCritical);
+            start = end;
+        }
+        kept.set(size - 1);
+        return kept;
+    }
+
+    /**
+     * Exclusive end of a bucket; bucket 0 starts after the first point and the last ends before the last point
+     */
+    private static int bucketEnd(int bucket, int buckets, double bucketSize, int size) {
+        // The last bucket is pinned, as rounding could otherwise leave a point before the last one out
+        return bucket == buckets - 1 ? size - 1 : Math.min((int) ((bucket + 1) * bucketSize) + 1, size - 1);
+    }
+}
@@ -0,0 +1,56 @@
+package com.ltde.rutherford_d1.timeseries;
+
+import java.time.LocalDate;
+
+import com.ltde.rutherford_d1.model.HealthStatus;
+import com.ltde.rutherford_d1.service.HealthAnalysisService;
+
+/**
+ * Immutable columnar snapshot of one test's measurements, sorted by date then parameter id.
+ * Missing dates are stored as {@link #NO_DATE} (sorted first) and missing values as NaN;
+ * statuses are HealthStatus ordinals as produced by HealthAnalysisService.calculateParameterStatuses.
+ */
+public interface TestSeries {
+
+    /** Epoch day stored for measurements without a date */
+    int NO_DATE = Integer.MIN_VALUE;
+
+    int size();
+
+    long parameterId(int index);
+
+    int epochDay(int index);
+
+    double value(int index);
+
+    byte status(int index);
+
+    /**
+     * Approximate memory held by the series, on or off heap
+     */
+    long sizeInBytes();
+
+    default LocalDate date(int index) {
+        int epochDay = epochDay(index);
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    default Double boxedValue(int index) {
+        double value = value(index);
+        return Double.isNaN(value) ? null : value;
+    }
+
+    default HealthStatus healthStatus(int index) {
+        return HealthAnalysisService.statusOf(status(index));
+    }
+
+    /**
+     * Pack columns into a series; the arrays must already be sorted and are owned by the result
+     * @param offHeap Copy the columns into a direct buffer instead of keeping the heap arrays
+     */
+    static TestSeries of(long[] parameterIds, int[] epochDays, double[] values, byte[] statuses, boolean offHeap) {
+        return offHeap
+            ? OffHeapTestSeries.copyOf(parameterIds, epochDays, values, statuses)
+            : new HeapTestSeries(parameterIds, epochDays, values, statuses);
+    }
+}
@@ -0,0 +1,199 @@
+package com.ltde.rutherford_d1.timeseries;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ltde.rutherford_d1.config.TimeSeriesProperties;
+import com.ltde.rutherford_d1.model.Test;
+import com.ltde.rutherford_d1.repository.ParameterRepository;
+import com.ltde.rutherford_d1.repository.SeriesPoint;
+import com.ltde.rutherford_d1.service.HealthAnalysisService;
+import com.ltde.rutherford_d1.service.PatientDataChangedEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Columnar in-memory copies of test histories, keyed by test id and bounded by the total number of points.
+ * A series is loaded from the database on first use with a single projection query (no Parameter entities).
+ * Measurements added by a committed write are merged into a loaded series (see PatientDataChangedEvent);
+ * any other committed write to the test drops it so the next read reloads it. A series is also reloaded
+ * when the caller's Test has a newer version than the one it was loaded for.
+ * Parameters stored without a status are classified against the test's reference range while loading.
+ */
+@Component
+public class TestSeriesStore {
+
+    private final ParameterRepository parameterRepository;
+    private final HealthAnalysisService healthAnalysisService;
+    private final boolean offHeap;
+    private final Cache<Long, VersionedSeries> series;
+
+    private record VersionedSeries(long version, TestSeries series) {}
+
+    public TestSeriesStore(ParameterRepository parameterRepository,
+                           HealthAnalysisService healthAnalysisService,
+                           TimeSeriesProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.parameterRepository = parameterRepository;
+        this.healthAnalysisService = healthAnalysisService;
+        this.offHeap = properties.isOffHeap();
+        this.series = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+            .maximumWeight(properties.getMaximumPoints())
+            .weigher((Long testId, VersionedSeries value) -> Math.max(1, value.series().size()))
+            .recordStats()
+            .build(), "testSeries");
+    }
+
+    /**
+     * Get the series of a test, loading it on a miss
+     */
+    public TestSeries getSeries(Test test) {
+        VersionedSeries cached = series.get(test.getId(), testId -> load(test));
+        if (cached.version() < test.getVersion()) {
+            // Loaded before a write whose invalidation has not arrived yet
+            series.asMap().remove(test.getId(), cached);
+            cached = series.get(test.getId(), testId -> load(test));
+        }
+        return cached.series();
+    }
+
+    /**
+     * Get the series of a test if it is loaded and current, without loading it on a miss
+     */
+    public TestSeries getLoadedSeries(Test test) {
+        VersionedSeries cached = series.policy().getIfPresentQuietly(test.getId());
+        return cached != null && cached.version() >= test.getVersion() ? cached.series() : null;
+    }
+
+    /**
+     * Load the measurements with a value performed from to to (both inclusive) straight from the database,
+     * with the date range in the query; not cached, and always on the heap
+     */
+    public TestSeries loadRange(Test test, LocalDate from, LocalDate to) {
+        return toSeries(test, parameterRepository.findSeriesPointsInRange(test.getId(), from, to), false);
+    }
+
+    /**
+     * Merge the added measurements into loaded series and drop the series of tests changed otherwise;
+     * without a transaction this runs immediately
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientDataChanged(PatientDataChangedEvent event) {
+        for (Long testId : event.testIds()) {
+            List<SeriesPoint> added = event.addedPoints().get(testId);
+            if (added == null) {
+                series.invalidate(testId);
+            } else {
+                series.asMap().computeIfPresent(testId, (id, cached) -> append(cached, added));
+            }
+        }
+    }
+
+    private VersionedSeries load(Test test) {
+        return new VersionedSeries(test.getVersion(),
+            toSeries(test, parameterRepository.findSeriesPoints(test.getId()), offHeap));
+    }
+
+    /**
+     * Merge new measurements into a copy of a series, one version later; points the series already holds
+     * (loaded after the write committed but before this ran) are skipped.
+     * @return null to drop the series if a point still needs classifying against the reference range
+     */
+    private VersionedSeries append(VersionedSeries cached, List<SeriesPoint> added) {
+        if (added.stream().anyMatch(point -> point.status() == null)) {
+            return null;
+        }
+        List<SeriesPoint> sorted = added.stream()
+            .sorted(Comparator.comparingInt(TestSeriesStore::epochDay).thenComparing(SeriesPoint::parameterId))
+            .toList();
+        TestSeries current = cached.series();
+        int capacity = current.size() + sorted.size();
+        long[] parameterIds = new long[capacity];
+        int[] epochDays = new int[capacity];
+        double[] values = new double[capacity];
+        byte[] statuses = new byte[capacity];
+
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < current.size() || j < sorted.size()) {
+            int order = i == current.size() ? 1
+                : j == sorted.size() ? -1
+                : compare(current.epochDay(i), current.parameterId(i), epochDay(sorted.get(j)), sorted.get(j).parameterId());
+            if (order <= 0) {
+                parameterIds[size] = current.parameterId(i);
+                epochDays[size] = current.epochDay(i);
+                values[size] = current.value(i);
+                statuses[size] = current.status(i);
+                i++;
+                if (order == 0) {
+                    j++;
+                }
+            } else {
+                SeriesPoint point = sorted.get(j);
+                parameterIds[size] = point.parameterId();
+                epochDays[size] = epochDay(point);
+                values[size] = point.value() != null ? point.value() : Double.NaN;
+                statuses[size] = (byte) point.status().ordinal();
+                j++;
+            }
+            size++;
+        }
+        return new VersionedSeries(cached.version() + 1, TestSeries.of(Arrays.copyOf(parameterIds, size),
+            Arrays.copyOf(epochDays, size), Arrays.copyOf(values, size), Arrays.copyOf(statuses, size), offHeap));
+    }
+
+    private static int compare(int epochDay, long parameterId, int otherEpochDay, long otherParameterId) {
+        int order = Integer.compare(epochDay, otherEpochDay);
+        return order != 0 ? order : Long.compare(parameterId, otherParameterId);
+    }
+
+    private static int epochDay(SeriesPoint point) {
+        return point.datePerformed() != null ? (int) point.datePerformed().toEpochDay() : TestSeries.NO_DATE;
+    }
+
+    private TestSeries toSeries(Test test, List<SeriesPoint> points, boolean offHeapColumns) {
+        int size = points.size();
+        long[] parameterIds = new long[size];
+        int[] epochDays = new int[size];
+        double[] values = new double[size];
+        byte[] statuses = new byte[size];
+        boolean hasUnclassified = false;
+
+        for (int i = 0; i < size; i++) {
+            SeriesPoint point = points.get(i);
+            parameterIds[i] = point.parameterId();
+            epochDays[i] = epochDay(point);
+            values[i] = point.value() != null ? point.value() : Double.NaN;
+            if (point.status() != null) {
+                statuses[i] = (byte) point.status().ordinal();
+            } else {
+                hasUnclassified = true;
+            }
+        }
+
+        if (hasUnclassified) {
+            byte[] computed = new byte[size];
+            healthAnalysisService.calculateParameterStatuses(values,
+                toPrimitive(test.getReferenceMin()), toPrimitive(test.getReferenceMax()), computed);
+            for (int i = 0; i < size; i++) {
+                if (points.get(i).status() == null) {
+                    statuses[i] = computed[i];
+                }
+            }
+        }
+        return TestSeries.of(parameterIds, epochDays, values, statuses, offHeapColumns);
+    }
+
+    private static double toPrimitive(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+}
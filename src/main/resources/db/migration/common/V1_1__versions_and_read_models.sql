@@ -0,0 +1,139 @@
+-- Version counters behind the ETags, the per-patient health rollup, the trend rollup and the CSV import
+-- checkpoints, added to the baseline schema
+
+alter table patient add column version bigint default 0 not null;
+alter table test add column version bigint default 0 not null;
+-- Copy of patient_health_rollup.last_test_date (filled below); 1900-01-01 for patients without dated measurements
+alter table patient add column last_test_date date default date '1900-01-01' not null;
+
+create index idx_parameter_test_date on parameter (test_id, date_performed);
+
+-- Read models; no foreign keys so patient and test deletes are never blocked
+create table patient_health_rollup (
+    patient_id bigint not null,
+    normal_count bigint not null,
+    low_count bigint not null,
+    high_count bigint not null,
+    critical_count bigint not null,
+    score_points bigint not null,
+    last_test_date date,
+    worst_parameter_id bigint,
+    worst_status varchar(255) check (worst_status in ('NORMAL', 'LOW', 'HIGH', 'CRITICAL')),
+    worst_date date,
+    primary key (patient_id)
+);
+
+create table test_trend_rollup (
+    test_id bigint not null,
+    anchor_epoch_day bigint,
+    count bigint not null,
+    sumx double precision not null,
+    sumy double precision not null,
+    sumxx double precision not null,
+    sumxy double precision not null,
+    primary key (test_id)
+);
+
+create table csv_import_checkpoint (
+    source varchar(1024) not null,
+    file_size bigint not null,
+    file_last_modified bigint not null,
+    byte_offset bigint not null,
+    imported_rows bigint not null,
+    rejected_rows bigint not null,
+    primary key (source)
+);
+
+-- One rollup per patient, as --rollup=rebuild writes it. Rows stored without a status are classified
+-- against their test's reference range like HealthAnalysisService.calculateParameterStatus (30% of the
+-- range beyond a limit is critical), and score 100, 60 or 20 points (getStatusPoints). The worst parameter
+-- is the first stored non-NORMAL status in findAlertCandidates order
+insert into patient_health_rollup (patient_id, normal_count, low_count, high_count, critical_count, score_points,
+                                   last_test_date, worst_parameter_id, worst_status, worst_date)
+select pt.id,
+       coalesce(counts.normal_count, 0),
+       coalesce(counts.low_count, 0),
+       coalesce(counts.high_count, 0),
+       coalesce(counts.critical_count, 0),
+       coalesce(100 * counts.normal_count + 60 * (counts.low_count + counts.high_count) + 20 * counts.critical_count, 0),
+       counts.last_test_date,
+       worst.id,
+       worst.status,
+       worst.date_performed
+from patient pt
+left join (
+    select classified.patient_id,
+           sum(case when classified.status = 'NORMAL' then 1 else 0 end) as normal_count,
+           sum(case when classified.status = 'LOW' then 1 else 0 end) as low_count,
+           sum(case when classified.status = 'HIGH' then 1 else 0 end) as high_count,
+           sum(case when classified.status = 'CRITICAL' then 1 else 0 end) as critical_count,
+           max(classified.date_performed) as last_test_date
+    from (
+        select t.patient_id,
+               p.date_performed,
+               case
+                   when p.status is not null then p.status
+                   when p.value is null or t.reference_min is null or t.reference_max is null then 'NORMAL'
+                   when p.value >= t.reference_min and p.value <= t.reference_max then 'NORMAL'
+                   when p.value < t.reference_min then
+                       case when t.reference_min - p.value > (t.reference_max - t.reference_min) * 0.30
+                            then 'CRITICAL' else 'LOW' end
+                   else
+                       case when p.value - t.reference_max > (t.reference_max - t.reference_min) * 0.30
+                            then 'CRITICAL' else 'HIGH' end
+               end as status
+        from parameter p
+        join test t on t.id = p.test_id
+    ) classified
+    group by classified.patient_id
+) counts on counts.patient_id = pt.id
+left join (
+    select ranked.patient_id, ranked.id, ranked.status, ranked.date_performed
+    from (
+        select t.patient_id, p.id, p.status, p.date_performed,
+               row_number() over (partition by t.patient_id
+                                  order by case when p.status = 'CRITICAL' then 0 else 1 end desc,
+                                           p.date_performed desc nulls last, p.id) as position
+        from parameter p
+        join test t on t.id = p.test_id
+        where p.status <> 'NORMAL'
+    ) ranked
+    where ranked.position = 1
+) worst on worst.patient_id = pt.id;
+
+update patient
+set last_test_date = (select r.last_test_date from patient_health_rollup r where r.patient_id = patient.id)
+where exists (select 1 from patient_health_rollup r where r.patient_id = patient.id and r.last_test_date is not null);
+
+-- One trend row per test, as TestTrendService computes it: the measurements with a value and a date, with x
+-- counted in days from the test's first measurement date (anchor_epoch_day)
+insert into test_trend_rollup (test_id, anchor_epoch_day, count, sumx, sumy, sumxx, sumxy)
+select t.id,
+       sums.anchor_epoch_day,
+       coalesce(sums.point_count, 0),
+       coalesce(sums.sumx, 0),
+       coalesce(sums.sumy, 0),
+       coalesce(sums.sumxx, 0),
+       coalesce(sums.sumxy, 0)
+from test t
+left join (
+    select anchored.test_id,
+           min(anchored.anchor_epoch_day) as anchor_epoch_day,
+           count(*) as point_count,
+           sum(anchored.x) as sumx,
+           sum(anchored.value) as sumy,
+           sum(anchored.x * anchored.x) as sumxx,
+           sum(anchored.x * anchored.value) as sumxy
+    from (
+        select dated.test_id,
+               dated.value,
+               min(dated.epoch_day) over (partition by dated.test_id) as anchor_epoch_day,
+               dated.epoch_day - min(dated.epoch_day) over (partition by dated.test_id) as x
+        from (
+            select p.test_id, p.value, cast(extract(epoch from p.date_performed) / 86400 as bigint) as epoch_day
+            from parameter p
+            where p.test_id is not null and p.date_performed is not null and p.value is not null
+        ) dated
+    ) anchored
+    group by anchored.test_id
+) sums on sums.test_id = t.id;
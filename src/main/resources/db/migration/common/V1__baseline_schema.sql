@@ -0,0 +1,36 @@
+-- Schema as created by spring.jpa.hibernate.ddl-auto=update before migrations existed: identity ids, no
+-- version columns and no read models. Databases created that way are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and upgraded by the migrations that follow, like new databases.
+
+create table patient (
+    id bigint generated by default as identity,
+    name varchar(255),
+    species varchar(255),
+    breed varchar(255),
+    date_of_birth date,
+    owner_name varchar(255),
+    owner_contact varchar(255),
+    primary key (id)
+);
+
+create table test (
+    id bigint generated by default as identity,
+    name varchar(255),
+    parameter_name varchar(255),
+    unit varchar(255),
+    reference_min double precision,
+    reference_max double precision,
+    patient_id bigint,
+    primary key (id),
+    constraint fk_test_patient foreign key (patient_id) references patient (id)
+);
+
+create table parameter (
+    id bigint generated by default as identity,
+    value double precision,
+    date_performed date,
+    status varchar(255) check (status in ('NORMAL', 'LOW', 'HIGH', 'CRITICAL')),
+    test_id bigint,
+    primary key (id),
+    constraint fk_parameter_test foreign key (test_id) references test (id)
+);
@@ -0,0 +1,3 @@
+-- Every "by patient" parameter query (alerts, summaries, rollup rebuilds) reaches the parameters through
+-- the patient's tests; without this each of them scans the test table
+create index idx_test_patient on test (patient_id, id);
@@ -0,0 +1,32 @@
+-- Read model of the test history endpoint; no foreign key so test deletes are never blocked
+create table test_monthly_rollup (
+    test_id bigint not null,
+    month_start date not null,
+    count bigint not null,
+    value_count bigint not null,
+    value_sum double precision not null,
+    min_value double precision,
+    max_value double precision,
+    normal_count bigint not null,
+    low_count bigint not null,
+    high_count bigint not null,
+    critical_count bigint not null,
+    primary key (test_id, month_start)
+);
+
+-- Existing measurements; later ones are added as they are written, and --rollup=history rebuilds the table
+insert into test_monthly_rollup
+select test_id,
+       cast(date_trunc('month', date_performed) as date),
+       count(*),
+       count(value),
+       coalesce(sum(value), 0),
+       min(value),
+       max(value),
+       sum(case when status = 'NORMAL' then 1 else 0 end),
+       sum(case when status = 'LOW' then 1 else 0 end),
+       sum(case when status = 'HIGH' then 1 else 0 end),
+       sum(case when status = 'CRITICAL' then 1 else 0 end)
+from parameter
+where test_id is not null and date_performed is not null
+group by test_id, cast(date_trunc('month', date_performed) as date);
@@ -0,0 +1,14 @@
+-- Ids come from sequences whose increments match the entities' allocationSize (pooled optimizer), so
+-- Hibernate can batch inserts. On a baselined database each sequence continues past the highest id: the
+-- pooled optimizer hands out the 100 ids up to the value it reads, so the first value read is max + 100
+create sequence patient_seq start with 1 increment by 100;
+create sequence test_seq start with 1 increment by 100;
+create sequence parameter_seq start with 1 increment by 100;
+
+alter sequence patient_seq restart with (select coalesce(max(id) + 100, 1) from patient);
+alter sequence test_seq restart with (select coalesce(max(id) + 100, 1) from test);
+alter sequence parameter_seq restart with (select coalesce(max(id) + 100, 1) from parameter);
+
+alter table patient alter column id drop identity;
+alter table test alter column id drop identity;
+alter table parameter alter column id drop identity;
@@ -0,0 +1,6 @@
+-- H2 (tests and local runs) has no table partitioning, partial indexes or expression indexes: plain
+-- equivalents of the PostgreSQL V3 indexes (on the unpartitioned parameter table)
+drop index idx_parameter_test_date;
+create index idx_parameter_test_date on parameter (test_id, date_performed, id);
+create index idx_parameter_abnormal on parameter (test_id, status, date_performed);
+create index idx_patient_last_test_date on patient (last_test_date desc, id);
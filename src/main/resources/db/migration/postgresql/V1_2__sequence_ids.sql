@@ -0,0 +1,14 @@
+-- Ids come from sequences whose increments match the entities' allocationSize (pooled optimizer), so
+-- Hibernate can batch inserts. On a baselined database each sequence continues past the highest id: the
+-- pooled optimizer hands out the 100 ids up to the value it reads, so the first value read is max + 100
+create sequence patient_seq start with 1 increment by 100;
+create sequence test_seq start with 1 increment by 100;
+create sequence parameter_seq start with 1 increment by 100;
+
+select setval('patient_seq', max(id) + 100, false) from patient having max(id) is not null;
+select setval('test_seq', max(id) + 100, false) from test having max(id) is not null;
+select setval('parameter_seq', max(id) + 100, false) from parameter having max(id) is not null;
+
+alter table patient alter column id drop identity;
+alter table test alter column id drop identity;
+alter table parameter alter column id drop identity;
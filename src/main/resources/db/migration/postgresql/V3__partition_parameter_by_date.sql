@@ -0,0 +1,67 @@
+-- parameter is by far the largest table. Range-partition it by date_performed, one partition per year
+-- (parameter_y<year>), so whole years can be detached and archived (ParameterPartitionService) instead of
+-- deleted row by row. Undated measurements, and years without a partition yet, go to parameter_default.
+-- Yearly rather than monthly partitions: the hot queries select by test or patient, not by date, and probe
+-- every partition.
+alter table parameter rename to parameter_unpartitioned;
+alter table parameter_unpartitioned rename constraint parameter_pkey to parameter_unpartitioned_pkey;
+drop index idx_parameter_test_date;
+
+create table parameter (
+    id bigint not null,
+    value double precision,
+    date_performed date,
+    status varchar(255) check (status in ('NORMAL', 'LOW', 'HIGH', 'CRITICAL')),
+    test_id bigint,
+    constraint fk_parameter_test foreign key (test_id) references test (id)
+) partition by range (date_performed);
+
+create table parameter_default partition of parameter default;
+
+-- One partition per year that has measurements, plus the current and the next year; later years, and years
+-- of back-dated measurements (which land in parameter_default), are added by the maintenance job
+do $$
+declare
+    current_year int := extract(year from current_date)::int;
+    partition_year int;
+begin
+    for partition_year in
+        select distinct extract(year from date_performed)::int from parameter_unpartitioned where date_performed is not null
+        union select current_year union select current_year + 1
+    loop
+        execute format('create table parameter_y%s partition of parameter for values from (%L) to (%L)',
+            partition_year, make_date(partition_year, 1, 1), make_date(partition_year + 1, 1, 1));
+    end loop;
+end
+$$;
+
+insert into parameter (id, value, date_performed, status, test_id)
+select id, value, date_performed, status, test_id from parameter_unpartitioned;
+drop table parameter_unpartitioned;
+
+-- Indexes are defined on the parent and created on every partition, including ones added later.
+-- A unique index would have to contain the (nullable) partition key, so ids, which come from
+-- parameter_seq, are indexed without a uniqueness constraint
+create index idx_parameter_id on parameter (id);
+
+-- Series reads by test (ordered by date, undated first) and per-patient counts through test: index-only scans
+create index idx_parameter_test_date on parameter (test_id, date_performed nulls first, id) include (value, status);
+
+-- Alert queries only look at abnormal or unclassified rows, a small fraction of the table
+create index idx_parameter_abnormal on parameter (test_id, status, date_performed) include (id, value)
+    where status is null or status <> 'NORMAL';
+
+-- Keyset pagination of the patient and test lists by name or species
+create index idx_patient_name on patient ((coalesce(name, '')), id);
+create index idx_patient_species on patient ((coalesce(species, '')), id);
+create index idx_test_name on test ((coalesce(name, '')), id);
+
+-- Keyset pagination of the patient list, most recently tested first
+create index idx_patient_last_test_date on patient (last_test_date desc, id);
+
+-- Active alerts in dashboard order (fewest critical first, then most abnormal, then patient id)
+create index idx_rollup_active_alerts on patient_health_rollup
+    (critical_count, (low_count + high_count + critical_count) desc, patient_id)
+    where low_count + high_count + critical_count > 0;
+
+analyze parameter;
@@ -0,0 +1,175 @@
+package com.ltde.rutherford_d1.config;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Permit accounting of ConcurrencyLimitedDataSource against a stub DataSource, and how JdbcConcurrencyConfig
+ * sizes the limiter and finds it again for the gauges.
+ */
+class ConcurrencyLimitedDataSourceTest {
+
+    /**
+     * Hands out connections that only count their close calls, or fails when told to
+     */
+    private static class StubDataSource extends AbstractDataSource {
+        final AtomicInteger closes = new AtomicInteger();
+        boolean failing;
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failing) {
+                throw new SQLException("Connection refused");
+            }
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        closes.incrementAndGet();
+                    }
+                    return method.getReturnType() == boolean.class ? false : null;
+                });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+
+    private final StubDataSource target = new StubDataSource();
+
+    @Test
+    void close_ShouldReleaseThePermitOnceWhenClosedTwice() throws Exception {
+        ConcurrencyLimitedDataSource limited = new ConcurrencyLimitedDataSource(target, 2, Duration.ofSeconds(1));
+
+        Connection first = limited.getConnection();
+        Connection second = onOtherThread(() -> limited.getConnection("vet", "secret"));
+        assertThat(limited.getActive()).isEqualTo(2);
+
+        first.close();
+        first.close();
+        assertThat(target.closes).hasValue(2);
+        assertThat(limited.getActive()).isEqualTo(1);
+
+        second.close();
+        assertThat(limited.getActive()).isZero();
+    }
+
+    @Test
+    void getConnection_ShouldShareOnePermitAcrossTheConnectionsOfAThread() throws Exception {
+        ConcurrencyLimitedDataSource limited = new ConcurrencyLimitedDataSource(target, 1, Duration.ofMillis(50));
+
+        // Like a REQUIRES_NEW transaction opened while the request's own connection is held
+        Connection outer = limited.getConnection();
+        Connection inner = limited.getConnection();
+        assertThat(limited.getActive()).isEqualTo(1);
+        assertThatThrownBy(() -> onOtherThread(limited::getConnection))
+            .hasCauseInstanceOf(SQLTransientConnectionException.class);
+
+        inner.close();
+        inner.close();
+        assertThat(limited.getActive()).isEqualTo(1);
+        outer.close();
+        assertThat(limited.getActive()).isZero();
+        onOtherThread(limited::getConnection).close();
+    }
+
+    @Test
+    void getConnection_ShouldReleaseThePermitWhenTheTargetFails() {
+        ConcurrencyLimitedDataSource limited = new ConcurrencyLimitedDataSource(target, 1, Duration.ofSeconds(1));
+        target.failing = true;
+
+        assertThatThrownBy(limited::getConnection).isInstanceOf(SQLException.class).hasMessage("Connection refused");
+        assertThat(limited.getActive()).isZero();
+    }
+
+    @Test
+    void getConnection_ShouldTimeOutWhenAllPermitsAreHeld() throws Exception {
+        ConcurrencyLimitedDataSource limited = new ConcurrencyLimitedDataSource(target, 1, Duration.ofMillis(50));
+
+        try (Connection held = onOtherThread(limited::getConnection)) {
+            assertThatThrownBy(limited::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("1 connections in use");
+            assertThat(limited.getActive()).isEqualTo(1);
+        }
+        limited.getConnection().close();
+    }
+
+    @Test
+    void limit_ShouldDefaultToOneBelowThePoolSize() {
+        JdbcLimiterProperties properties = new JdbcLimiterProperties();
+        try (HikariDataSource sized = new HikariDataSource(); HikariDataSource unsized = new HikariDataSource()) {
+            sized.setMaximumPoolSize(7);
+
+            assertThat(((ConcurrencyLimitedDataSource) JdbcConcurrencyConfig.limit(sized, properties, "primary"))
+                .getMaxConcurrent()).isEqualTo(6);
+            assertThat(((ConcurrencyLimitedDataSource) JdbcConcurrencyConfig.limit(unsized, properties, "primary"))
+                .getMaxConcurrent()).isEqualTo(9);
+
+            properties.setMaxConcurrent(3);
+            assertThat(((ConcurrencyLimitedDataSource) JdbcConcurrencyConfig.limit(sized, properties, "primary"))
+                .getMaxConcurrent()).isEqualTo(3);
+
+            properties.setEnabled(false);
+            assertThat(JdbcConcurrencyConfig.limit(sized, properties, "primary")).isSameAs(sized);
+        }
+    }
+
+    @Test
+    void jdbcLimiterMetrics_ShouldFindTheLimiterBehindReplicaRouting() throws Exception {
+        ConcurrencyLimitedDataSource limited = new ConcurrencyLimitedDataSource(target, 2, Duration.ofSeconds(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        try (ReadReplicaRoutingDataSource routing =
+                 new ReadReplicaRoutingDataSource(limited, List.of(), new ReadReplicaProperties())) {
+            new JdbcConcurrencyConfig().jdbcLimiterMetrics(routing).bindTo(registry);
+            Connection held = limited.getConnection();
+
+            assertThat(registry.get("jdbc.limiter.active").gauge().value()).isEqualTo(1.0);
+            assertThat(registry.get("jdbc.limiter.waiting").gauge().value()).isZero();
+            held.close();
+        }
+    }
+
+    @Test
+    void jdbcLimiterMetrics_WithoutLimiter_ShouldRegisterNothing() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DataSource unlimited = target;
+
+        new JdbcConcurrencyConfig().jdbcLimiterMetrics(unlimited).bindTo(registry);
+
+        assertThat(registry.getMeters()).isEmpty();
+    }
+
+    /**
+     * Run a connection call on a thread of its own, which holds no permit yet
+     */
+    private static Connection onOtherThread(Callable<Connection> call) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(call).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
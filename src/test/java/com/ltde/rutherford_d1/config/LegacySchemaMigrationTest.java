@@ -0,0 +1,143 @@
+package com.ltde.rutherford_d1.config;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ltde.rutherford_d1.model.Patient;
+import com.ltde.rutherford_d1.model.TestTrendRollup;
+import com.ltde.rutherford_d1.repository.PatientRepository;
+import com.ltde.rutherford_d1.repository.TestTrendRollupRepository;
+import com.ltde.rutherford_d1.service.PatientHealthRollupService;
+import com.ltde.rutherford_d1.service.PatientHealthRollupService.DriftReport;
+
+/**
+ * Starts the application on a database created by ddl-auto=update before migrations existed: the legacy
+ * tables and rows are written before Flyway runs, which baselines them at V1 and applies the rest.
+ */
+// The synthetic profile keeps existing rows (synthetic-data.clear=false), where DataLoader would wipe them
+@SpringBootTest(properties = "spring.datasource.url=" + LegacySchemaMigrationTest.LEGACY_URL)
+@ActiveProfiles("synthetic")
+@AutoConfigureMockMvc
+@WithMockUser
+class LegacySchemaMigrationTest {
+
+    static final String LEGACY_URL = "jdbc:h2:mem:legacy;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+        + "DEFAULT_NULL_ORDERING=HIGH;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1";
+
+    // What Hibernate created from the original identity-id entities, with rows whose statuses were never stored
+    private static final String[] LEGACY_SCHEMA = {
+        "create table patient (id bigint generated by default as identity, breed varchar(255), date_of_birth date, "
+            + "name varchar(255), owner_contact varchar(255), owner_name varchar(255), species varchar(255), "
+            + "primary key (id))",
+        "create table test (id bigint generated by default as identity, name varchar(255), "
+            + "parameter_name varchar(255), reference_max float(53), reference_min float(53), unit varchar(255), "
+            + "patient_id bigint, primary key (id))",
+        "create table parameter (date_performed date, id bigint generated by default as identity, "
+            + "status varchar(255) check (status in ('NORMAL','LOW','HIGH','CRITICAL')), value float(53), "
+            + "test_id bigint, primary key (id))",
+        "alter table if exists parameter add constraint FKq0e2h4ha6wbjwxh3lq8c4qhhk foreign key (test_id) references test",
+        "alter table if exists test add constraint FK7dbd5ol6g3ei6cxp5lhfbwtuf foreign key (patient_id) references patient",
+        "insert into patient (id, name, species) values (1, 'LegacyDog', 'Dog'), (2, 'NoTests', 'Cat'), "
+            + "(250, 'Unranged', 'Dog')",
+        "insert into test (id, name, parameter_name, reference_min, reference_max, patient_id) values "
+            + "(10, 'Blood Panel', 'Glucose', 10, 20, 1), (11, 'Weight', 'Weight', null, null, 250)",
+        "insert into parameter (id, value, date_performed, status, test_id) values "
+            + "(100, 5, '2024-01-10', null, 10), (101, 15, '2024-02-10', null, 10), "
+            + "(102, 22, '2024-03-10', 'HIGH', 10), (103, 4, '2024-04-10', null, 11)"
+    };
+
+    @TestConfiguration
+    static class LegacyDatabase {
+
+        @Bean
+        FlywayMigrationStrategy createLegacySchemaFirst() {
+            return flyway -> {
+                new JdbcTemplate(flyway.getConfiguration().getDataSource()).batchUpdate(LEGACY_SCHEMA);
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientHealthRollupService rollupService;
+
+    @Autowired
+    private TestTrendRollupRepository trendRepository;
+
+    @Test
+    void migrate_ShouldBackfillHealthRollupsFromLegacyRows() throws Exception {
+        // 5 is more than 30% of the range below 10, 15 is in range, 22 was stored as HIGH
+        mockMvc.perform(get("/health/alerts"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].patientName", is("LegacyDog")))
+            .andExpect(jsonPath("$[0].criticalCount", is(1)))
+            .andExpect(jsonPath("$[0].abnormalCount", is(2)))
+            .andExpect(jsonPath("$[0].healthScore", is(60)))
+            .andExpect(jsonPath("$[0].lastTestDate", is(LocalDate.of(2024, 3, 10).toString())));
+
+        DriftReport report = rollupService.verify();
+        assertThat(report.patientsChecked()).isEqualTo(3);
+        assertThat(report.driftedPatients()).isZero();
+
+        // The patient rows carry the same last test dates, which the lastTestDate page is keyed on
+        mockMvc.perform(get("/patient").param("sort", "lastTestDate"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].name", contains("Unranged", "LegacyDog", "NoTests")));
+        assertThat(patientRepository.findById(2L).orElseThrow().getLastTestDate()).isEqualTo(Patient.NO_TEST_DATE);
+    }
+
+    @Test
+    void migrate_ShouldBackfillTrendRollupsFromLegacyRows() throws Exception {
+        TestTrendRollup expected = new TestTrendRollup();
+        expected.setTestId(10L);
+        expected.apply(LocalDate.of(2024, 1, 10).toEpochDay(), 5, 1);
+        expected.apply(LocalDate.of(2024, 2, 10).toEpochDay(), 15, 1);
+        expected.apply(LocalDate.of(2024, 3, 10).toEpochDay(), 22, 1);
+
+        assertThat(trendRepository.findById(10L)).contains(expected);
+        assertThat(trendRepository.findById(11L)).hasValueSatisfying(rollup -> assertThat(rollup.getCount()).isEqualTo(1));
+        mockMvc.perform(get("/test/{id}/trend", 10))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.pointCount", is(3)))
+            .andExpect(jsonPath("$.slopePerMonth", closeTo(expected.getSlopePerDay() * 365.2425 / 12, 1e-9)));
+    }
+
+    @Test
+    void migrate_ShouldContinueIdsAndVersionsAfterLegacyRows() throws Exception {
+        mockMvc.perform(get("/patient/{id}", 250))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"250-0\""));
+
+        Patient patient = new Patient();
+        patient.setName("NewDog");
+        assertThat(patientRepository.save(patient).getId()).isGreaterThan(250L);
+        patientRepository.delete(patient);
+    }
+}
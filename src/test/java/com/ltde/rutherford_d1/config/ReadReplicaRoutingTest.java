@@ -0,0 +1,166 @@
+package com.ltde.rutherford_d1.config;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ltde.rutherford_d1.model.Patient;
+import com.ltde.rutherford_d1.repository.PatientRepository;
+import com.ltde.rutherford_d1.repository.TestRepository;
+import com.ltde.rutherford_d1.synthetic.SyntheticDatasetGenerator;
+
+/**
+ * Routes against two in-memory databases: the primary from the test environment and a replica whose
+ * schema is copied from it but which holds different rows, so every response shows where it was read.
+ * The replica reports its lag from a replication_status table the tests control.
+ */
+// Not @Transactional: a test transaction would pin every request to the primary connection
+@SpringBootTest(properties = {
+    "read-replica.enabled=true",
+    "read-replica.replicas[0].name=replica-a",
+    "read-replica.replicas[0].url=" + ReadReplicaRoutingTest.REPLICA_URL,
+    "read-replica.lag-query=select lag_seconds from replication_status",
+    "read-replica.health-check-interval=1h",
+    "read-replica.max-staleness=5s",
+    "read-replica.max-staleness-by-endpoint[/test]=5m",
+    "read-replica.max-staleness-by-endpoint[/patient/{id}]=0s"
+})
+@AutoConfigureMockMvc
+@WithMockUser
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica_a;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+        + "DEFAULT_NULL_ORDERING=HIGH;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TestRepository testRepository;
+
+    @Autowired
+    private SyntheticDatasetGenerator generator;
+
+    private JdbcTemplate replica;
+    private ReadReplicaRoutingDataSource routing;
+    private Patient primaryPatient;
+    private com.ltde.rutherford_d1.model.Test primaryTest;
+
+    @BeforeEach
+    void setUp() {
+        generator.clearAllData();
+        routing = (ReadReplicaRoutingDataSource) dataSource;
+
+        // Same schema as the primary, different rows
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("drop all objects");
+        List<String> schema = new JdbcTemplate(dataSource).queryForList("script nodata", String.class);
+        schema.forEach(replica::execute);
+        replica.update("insert into patient (id, name, species) values (900001, 'Replica Rex', 'Dog')");
+        replica.update("insert into test (id, name, patient_id) values (900001, 'Replica Panel', 900001)");
+        replica.execute("create table replication_status (lag_seconds double precision)");
+        replica.update("insert into replication_status values (0)");
+
+        primaryPatient = new Patient();
+        primaryPatient.setName("Primary Pip");
+        primaryPatient.setSpecies("Cat");
+        primaryPatient = patientRepository.save(primaryPatient);
+        primaryTest = new com.ltde.rutherford_d1.model.Test();
+        primaryTest.setName("Primary Panel");
+        primaryTest.setParameterName("Glucose");
+        primaryTest.setReferenceMin(4.0);
+        primaryTest.setReferenceMax(8.0);
+        primaryTest.setPatient(primaryPatient);
+        primaryTest = testRepository.save(primaryTest);
+
+        routing.checkReplicas();
+    }
+
+    @AfterEach
+    void clear() {
+        generator.clearAllData();
+    }
+
+    @Test
+    void readOnlyEndpoint_ShouldBeServedByReplica() throws Exception {
+        assertThat(routing.getReplicas().get(0).isUp()).isTrue();
+
+        mockMvc.perform(get("/patient"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].name", contains("Replica Rex")));
+    }
+
+    @Test
+    void readOnlyEndpoint_WhenReplicaLagsBeyondItsTolerance_ShouldReadFromPrimary() throws Exception {
+        replica.update("update replication_status set lag_seconds = 60");
+        routing.checkReplicas();
+
+        // Default tolerance of 5s
+        mockMvc.perform(get("/patient"))
+            .andExpect(jsonPath("$[*].name", contains("Primary Pip")));
+        // /test tolerates 5 minutes
+        mockMvc.perform(get("/test"))
+            .andExpect(jsonPath("$[*].name", contains("Replica Panel")));
+    }
+
+    @Test
+    void readOnlyEndpoint_WithZeroTolerance_ShouldReadFromPrimary() throws Exception {
+        mockMvc.perform(get("/patient/{id}", primaryPatient.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name", is("Primary Pip")));
+    }
+
+    @Test
+    void readOnlyEndpoint_WhenReplicaFailsHealthCheck_ShouldFailOverToPrimaryUntilItRecovers() throws Exception {
+        replica.execute("drop table replication_status");
+        routing.checkReplicas();
+
+        assertThat(routing.getReplicas().get(0).isUp()).isFalse();
+        mockMvc.perform(get("/patient"))
+            .andExpect(jsonPath("$[*].name", contains("Primary Pip")));
+
+        replica.execute("create table replication_status (lag_seconds double precision)");
+        replica.update("insert into replication_status values (1)");
+        routing.checkReplicas();
+
+        mockMvc.perform(get("/patient"))
+            .andExpect(jsonPath("$[*].name", contains("Replica Rex")));
+    }
+
+    @Test
+    void writeEndpoint_ShouldUsePrimary() throws Exception {
+        mockMvc.perform(post("/test/{id}/parameters:batch", primaryTest.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"value\": 5.0, \"datePerformed\": \"" + LocalDate.now() + "\"}]"))
+            .andExpect(status().isCreated());
+
+        assertThat(new JdbcTemplate(dataSource).queryForObject("select count(*) from parameter", Long.class)).isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from parameter", Long.class)).isZero();
+    }
+}
@@ -0,0 +1,342 @@
+package com.ltde.rutherford_d1.controller;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ltde.rutherford_d1.model.Parameter;
+import com.ltde.rutherford_d1.model.Patient;
+import com.ltde.rutherford_d1.repository.ParameterRepository;
+import com.ltde.rutherford_d1.repository.PatientHealthRollupRepository;
+import com.ltde.rutherford_d1.repository.PatientRepository;
+import com.ltde.rutherford_d1.repository.TestRepository;
+import com.ltde.rutherford_d1.service.ParameterService;
+import com.ltde.rutherford_d1.service.PatientHealthRollupService;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Transactional
+@WithMockUser
+class HealthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TestRepository testRepository;
+
+    @Autowired
+    private ParameterRepository parameterRepository;
+
+    @Autowired
+    private PatientHealthRollupRepository rollupRepository;
+
+    @Autowired
+    private ParameterService parameterService;
+
+    @Autowired
+    private PatientHealthRollupService rollupService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    /**
+     * This method is called before each test method due to @BeforeEach annotation.
+     * It clears existing data and grabs the Hibernate statistics used to count statements.
+     */
+    @BeforeEach
+    void setUp() {
+        // Delete all existing data
+        rollupRepository.deleteAll();
+        parameterRepository.deleteAll();
+        testRepository.deleteAll();
+        patientRepository.deleteAll();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getAllActiveAlerts_ShouldOnlyReturnPatientsWithAlerts() throws Exception {
+        createPatient("HealthyDog", 15.0);
+        createPatient("SickDog", 5.0);
+        entityManager.flush();
+        entityManager.clear();
+
+        mockMvc.perform(get("/health/alerts"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].patientName", is("SickDog")))
+            .andExpect(jsonPath("$[0].criticalCount", is(1)))
+            .andExpect(jsonPath("$[0].abnormalCount", is(1)))
+            .andExpect(jsonPath("$[0].healthScore", is(20)))
+            .andExpect(jsonPath("$[0].lastTestDate", is(LocalDate.now().toString())));
+    }
+
+    @Test
+    void getAllActiveAlerts_ShouldFollowParameterDeletes() throws Exception {
+        Patient patient = createPatient("SickDog", 5.0);
+        Parameter critical = patient.getTests().get(0).getParameters().get(0);
+        parameterService.recordParameter(patient.getTests().get(0), 14.0, LocalDate.now().minusDays(1));
+        parameterService.deleteParameter(critical);
+        entityManager.flush();
+        entityManager.clear();
+
+        mockMvc.perform(get("/health/alerts"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(0)));
+
+        mockMvc.perform(get("/health/patient/{id}/summary", patient.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.healthSummary.totalParameters", is(1)))
+            .andExpect(jsonPath("$.healthSummary.healthScore", is(100)));
+
+        assertThat(rollupService.verify().driftedPatients()).isZero();
+    }
+
+    @Test
+    void getAllActiveAlerts_ShouldCountUnclassifiedParametersByTheirRange() throws Exception {
+        Patient patient = createPatient("LegacyDog", 15.0);
+        com.ltde.rutherford_d1.model.Test test = patient.getTests().get(0);
+        Parameter unclassified = new Parameter(); // Written before statuses were stored
+        unclassified.setValue(5.0);
+        unclassified.setDatePerformed(LocalDate.now());
+        unclassified.setTest(test);
+        unclassified = parameterRepository.save(unclassified);
+        test.getParameters().add(unclassified);
+        rollupService.parameterAdded(patient.getId(), unclassified);
+        entityManager.flush();
+        entityManager.clear();
+
+        mockMvc.perform(get("/health/alerts"))
+            .andExpect(jsonPath("$[0].criticalCount", is(1)))
+            .andExpect(jsonPath("$[0].healthScore", is(60)));
+        assertThat(rollupService.verify().driftedPatients()).isZero();
+
+        parameterService.deleteParameter(parameterRepository.findById(unclassified.getId()).orElseThrow());
+        entityManager.flush();
+        entityManager.clear();
+
+        mockMvc.perform(get("/health/alerts"))
+            .andExpect(jsonPath("$", hasSize(0)));
+        assertThat(rollupService.verify().driftedPatients()).isZero();
+    }
+
+    @Test
+    void getAllActiveAlerts_StatementCountShouldNotGrowWithPatientCount() throws Exception {
+        createPatients(1);
+        long statementsForOnePatient = countStatementsForAlerts();
+
+        createPatients(25);
+        long statementsForManyPatients = countStatementsForAlerts();
+
+        assertThat(statementsForManyPatients).isEqualTo(statementsForOnePatient);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Cache invalidation happens after commit
+    void getPatientHealthSummary_ShouldServeFromCacheUntilParametersChange() throws Exception {
+        try {
+            Patient patient = createPatient("CachedDog", 15.0);
+            double hitsBefore = cacheHits("responseBody");
+
+            mockMvc.perform(get("/health/patient/{id}/summary", patient.getId()))
+                .andExpect(jsonPath("$.healthSummary.totalParameters", is(1)));
+            mockMvc.perform(get("/health/patient/{id}/summary", patient.getId()))
+                .andExpect(jsonPath("$.healthSummary.totalParameters", is(1)));
+            assertThat(cacheHits("responseBody")).isEqualTo(hitsBefore + 1);
+
+            parameterService.recordParameter(patient.getTests().get(0), 5.0, LocalDate.now());
+
+            mockMvc.perform(get("/health/patient/{id}/summary", patient.getId()))
+                .andExpect(jsonPath("$.healthSummary.totalParameters", is(2)))
+                .andExpect(jsonPath("$.healthSummary.criticalCount", is(1)));
+        } finally {
+            setUp();
+        }
+    }
+
+    @Test
+    void getPatientHealthSummary_WithCurrentETag_ShouldAnswer304FromTheVersionAlone() throws Exception {
+        Patient patient = createPatient("TaggedDog", 15.0);
+        entityManager.flush();
+        entityManager.clear();
+        String etag = mockMvc.perform(get("/health/patient/{id}/summary", patient.getId()))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        entityManager.clear();
+        statistics.clear();
+
+        mockMvc.perform(get("/health/patient/{id}/summary", patient.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // The priority index is refreshed after commit
+    void getAllActiveAlerts_WithLimit_ShouldReturnFirstPatientsInDashboardOrder() throws Exception {
+        try {
+            Patient critical = createPatient("CriticalDog", 5.0);
+            Patient low = createPatient("LowDog", 11.0);
+            Patient high = createPatient("HighDog", 19.0);
+            createPatient("HealthyDog", 15.0);
+            parameterService.recordParameter(high.getTests().get(0), 18.5, LocalDate.now());
+
+            // Fewest critical parameters first, then most abnormal parameters, then patient id
+            mockMvc.perform(get("/health/alerts"))
+                .andExpect(jsonPath("$[*].patientName", contains("HighDog", "LowDog", "CriticalDog")));
+            mockMvc.perform(get("/health/alerts").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].patientName", contains("HighDog", "LowDog")));
+
+            parameterService.recordParameter(high.getTests().get(0), 40.0, LocalDate.now());
+            parameterService.deleteParameter(low.getTests().get(0).getParameters().get(0));
+
+            mockMvc.perform(get("/health/alerts").param("limit", "5"))
+                .andExpect(jsonPath("$[*].patientId", contains(high.getId().intValue(), critical.getId().intValue())));
+        } finally {
+            setUp();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Alerts are pushed after commit
+    void streamNewAlerts_ShouldPushMatchingAbnormalResults() throws Exception {
+        try {
+            Patient patient = createPatient("StreamDog", 15.0);
+            MvcResult result = mockMvc.perform(get("/health/alerts/stream")
+                    .param("patientId", patient.getId().toString())
+                    .param("status", "CRITICAL"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            parameterService.recordParameter(patient.getTests().get(0), 11.0, LocalDate.now()); // LOW, filtered out
+            Parameter critical = parameterService.recordParameter(patient.getTests().get(0), 5.0, LocalDate.now());
+
+            String content = awaitContent(result, "\"status\":\"CRITICAL\"");
+            assertThat(content).contains("id:" + critical.getId()).contains("\"status\":\"CRITICAL\"");
+            assertThat(content).doesNotContain("\"status\":\"LOW\"");
+        } finally {
+            setUp();
+        }
+    }
+
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        return content;
+    }
+
+    private double cacheHits(String cache) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", "hit").functionCounter().count();
+    }
+
+    private long countStatementsForAlerts() throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        mockMvc.perform(get("/health/alerts"))
+            .andExpect(status().isOk());
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createPatients(int count) {
+        for (int i = 0; i < count; i++) {
+            createPatient("Dog" + i, i % 2 == 0 ? 5.0 : 19.0);
+        }
+    }
+
+    @Test
+    void getPatientAlerts_ShouldRecordSqlStatementsAndAnalysisTimingPerEndpoint() throws Exception {
+        Patient patient = createPatient("SickDog", 5.0);
+        entityManager.flush();
+        entityManager.clear();
+        long requestsBefore = summaryCount("http.server.requests.sql.statements", "/health/patient/{id}/alerts");
+        Timer analysis = meterRegistry.find("health.analysis").tag("method", "getAbnormalParameters").timer();
+        long analysisBefore = analysis != null ? analysis.count() : 0;
+
+        mockMvc.perform(get("/health/patient/{id}/alerts", patient.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)));
+
+        assertThat(summaryCount("http.server.requests.sql.statements", "/health/patient/{id}/alerts")).isEqualTo(requestsBefore + 1);
+        assertThat(meterRegistry.get("http.server.requests.sql.statements").tag("uri", "/health/patient/{id}/alerts")
+            .summary().max()).isPositive();
+        assertThat(meterRegistry.get("http.server.requests.entities.loaded").tag("uri", "/health/patient/{id}/alerts")
+            .summary().max()).isGreaterThanOrEqualTo(3); // Patient, test and parameter
+        assertThat(meterRegistry.get("health.analysis").tag("method", "getAbnormalParameters").timer().count())
+            .isEqualTo(analysisBefore + 1);
+    }
+
+    private long summaryCount(String name, String uri) {
+        DistributionSummary summary = meterRegistry.find(name).tag("uri", uri).summary();
+        return summary != null ? summary.count() : 0;
+    }
+
+    private Patient createPatient(String name, Double hemoglobin) {
+        Patient patient = new Patient();
+        patient.setName(name);
+        patient.setSpecies("Dog");
+        patient.setBreed("Labrador");
+        patient.setDateOfBirth(LocalDate.of(2020, 1, 1));
+        patient.setOwnerName("Test Owner");
+        patient.setOwnerContact("123-456-7890");
+        patient.setTests(new ArrayList<>());
+        patient = patientRepository.save(patient);
+
+        com.ltde.rutherford_d1.model.Test test = new com.ltde.rutherford_d1.model.Test();
+        test.setName("Blood Test");
+        test.setParameterName("Hemoglobin");
+        test.setUnit("g/dL");
+        test.setReferenceMin(12.0);
+        test.setReferenceMax(18.0);
+        test.setPatient(patient);
+        test.setParameters(new ArrayList<>());
+        test = testRepository.save(test);
+        patient.getTests().add(test);
+
+        parameterService.recordParameter(test, hemoglobin, LocalDate.now());
+        return patient;
+    }
+}
@@ -2,7 +2,10 @@ package com.ltde.rutherford_d1.controller;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
@@ -11,14 +14,28 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.ltde.rutherford_d1.dto.ParameterMeasurementDTO;
 import com.ltde.rutherford_d1.model.Patient;
 import com.ltde.rutherford_d1.repository.PatientRepository;
+import com.ltde.rutherford_d1.repository.TestRepository;
+import com.ltde.rutherford_d1.service.ParameterService;
+import com.ltde.rutherford_d1.service.PatientSearchIndex;
+
+import jakarta.persistence.EntityManager;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -31,6 +48,18 @@ class PatientControllerTest {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private TestRepository testRepository;
+
+    @Autowired
+    private ParameterService parameterService;
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private Patient testPatient;
 
     /**
@@ -64,6 +93,71 @@ class PatientControllerTest {
             .andExpect(jsonPath("$[0].ownerName", is("Test Owner")));
     }
 
+    @Test
+    void getAllPatients_ShouldPageWithKeysetCursor() throws Exception {
+        savePatient("Alpha");
+        savePatient("Bravo");
+
+        MvcResult firstPage = mockMvc.perform(get("/patient").param("sort", "name").param("size", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].name", is("Alpha")))
+            .andExpect(jsonPath("$[1].name", is("Bravo")))
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andReturn();
+
+        mockMvc.perform(get("/patient").param("sort", "name").param("size", "2")
+                .param("cursor", firstPage.getResponse().getHeader("X-Next-Cursor")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].name", is("TestDog")))
+            .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void getAllPatients_SortedByLastTestDate_ShouldPageMostRecentlyTestedFirst() throws Exception {
+        recordMeasurement(savePatient("Alpha"), LocalDate.of(2024, 5, 1));
+        recordMeasurement(savePatient("Bravo"), LocalDate.of(2025, 2, 1));
+        // Reload the patients with the last test dates the rollup wrote to their rows
+        entityManager.flush();
+        entityManager.clear();
+
+        MvcResult firstPage = mockMvc.perform(get("/patient").param("sort", "lastTestDate").param("size", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].name", contains("Bravo", "Alpha")))
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andReturn();
+
+        mockMvc.perform(get("/patient").param("sort", "lastTestDate").param("size", "2")
+                .param("cursor", firstPage.getResponse().getHeader("X-Next-Cursor")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].name", contains("TestDog")))
+            .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void getAllPatients_WithCursorForOtherSort_ShouldReturn400() throws Exception {
+        String idCursor = new KeysetCursor("id", testPatient.getId(), "").encode();
+
+        mockMvc.perform(get("/patient").param("sort", "name").param("cursor", idCursor))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllPatients_AsNdjson_ShouldStreamOnePatientPerLine() throws Exception {
+        MvcResult started = mockMvc.perform(get("/patient").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // The stream runs in its own transaction, so it only sees committed rows
+        String body = mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines()).allMatch(line -> line.startsWith("{\"id\":"));
+    }
+
     @Test
     void getPatientById_WithValidId_ShouldReturnPatient() throws Exception {
         mockMvc.perform(get("/patient/{id}", testPatient.getId()))
@@ -72,12 +166,101 @@ class PatientControllerTest {
             .andExpect(jsonPath("$.species", is("Dog")))
             .andExpect(jsonPath("$.breed", is("Labrador")))
             .andExpect(jsonPath("$.ownerName", is("Test Owner")))
+            .andExpect(jsonPath("$.healthSummary.healthScore", is(100)))
+            .andExpect(jsonPath("$.healthSummary.totalParameters", is(0)))
             .andExpect(jsonPath("$.diagnosticHistory", hasSize(0)));
     }
 
+    @Test
+    void getPatientById_WithMatchingIfNoneMatch_ShouldReturn304() throws Exception {
+        String etag = "\"" + testPatient.getId() + "-0\"";
+
+        mockMvc.perform(get("/patient/{id}", testPatient.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, etag));
+        mockMvc.perform(get("/patient/{id}", testPatient.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+        mockMvc.perform(get("/patient/{id}", testPatient.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"" + testPatient.getId() + "-7\""))
+            .andExpect(status().isOk());
+    }
+
     @Test
     void getPatientById_WithInvalidId_ShouldReturn404() throws Exception {
         mockMvc.perform(get("/patient/{id}", 999L))
             .andExpect(status().isNotFound());
     }
-} 
\ No newline at end of file
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // The index only sees committed patients
+    void searchPatients_ShouldMatchWordPrefixesAndFollowCommittedWrites() throws Exception {
+        // Searches are turned away until the background load started at application startup is done
+        patientSearchIndex.awaitLoaded();
+        try {
+            Patient alpha = savePatient("Alpha");
+            Patient zoe = savePatient("Zoë");
+            zoe.setSpecies("Cat");
+            zoe.setBreed("Siamese");
+            zoe.setOwnerName("José Álvarez");
+            zoe.setOwnerContact("jose@example.com");
+            zoe = patientRepository.save(zoe);
+
+            mockMvc.perform(get("/patient/search").param("q", "lab"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", contains("TestDog")));
+            mockMvc.perform(get("/patient/search").param("q", "test OWN"))
+                .andExpect(jsonPath("$[*].name", contains("TestDog")));
+            mockMvc.perform(get("/patient/search").param("q", "123-456"))
+                .andExpect(jsonPath("$[*].name", contains("TestDog")));
+            mockMvc.perform(get("/patient/search").param("q", "zoe alvarez"))
+                .andExpect(jsonPath("$[*].name", contains("Zoë")));
+            mockMvc.perform(get("/patient/search").param("q", "jose@exam"))
+                .andExpect(jsonPath("$[*].ownerContact", contains("jose@example.com")));
+            mockMvc.perform(get("/patient/search").param("q", "dog"))
+                .andExpect(jsonPath("$[*].name", contains("TestDog", "Alpha")));
+            mockMvc.perform(get("/patient/search").param("q", "dog").param("limit", "1"))
+                .andExpect(jsonPath("$[*].name", contains("TestDog")));
+            mockMvc.perform(get("/patient/search").param("q", "dog siamese"))
+                .andExpect(jsonPath("$", hasSize(0)));
+            mockMvc.perform(get("/patient/search").param("q", " - "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+            // Updates and deletes are applied once committed
+            alpha.setName("Biscuit");
+            patientRepository.save(alpha);
+            patientRepository.delete(testPatient);
+            mockMvc.perform(get("/patient/search").param("q", "alpha"))
+                .andExpect(jsonPath("$", hasSize(0)));
+            mockMvc.perform(get("/patient/search").param("q", "bisc"))
+                .andExpect(jsonPath("$[*].name", contains("Biscuit")));
+            mockMvc.perform(get("/patient/search").param("q", "lab"))
+                .andExpect(jsonPath("$", hasSize(0)));
+        } finally {
+            patientRepository.deleteAll();
+        }
+    }
+
+    private void recordMeasurement(Patient patient, LocalDate datePerformed) {
+        com.ltde.rutherford_d1.model.Test test = new com.ltde.rutherford_d1.model.Test();
+        test.setName("Blood Test");
+        test.setParameterName("Glucose");
+        test.setReferenceMin(3.0);
+        test.setReferenceMax(7.0);
+        test.setPatient(patient);
+        test = testRepository.save(test);
+        parameterService.recordParameters(test.getId(), List.of(new ParameterMeasurementDTO(5.0, datePerformed)));
+    }
+
+    private Patient savePatient(String name) {
+        Patient patient = new Patient();
+        patient.setName(name);
+        patient.setSpecies("Dog");
+        patient.setBreed("Beagle");
+        patient.setDateOfBirth(LocalDate.of(2021, 6, 1));
+        patient.setOwnerName("Other Owner");
+        patient.setOwnerContact("555-0000");
+        patient.setTests(new ArrayList<>());
+        return patientRepository.save(patient);
+    }
+}
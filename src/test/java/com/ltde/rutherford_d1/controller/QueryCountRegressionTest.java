@@ -0,0 +1,194 @@
+package com.ltde.rutherford_d1.controller;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.ltde.rutherford_d1.config.SyntheticDataProperties;
+import com.ltde.rutherford_d1.service.AlertPriorityIndex;
+import com.ltde.rutherford_d1.service.PatientDataChangedEvent;
+import com.ltde.rutherford_d1.service.PatientSearchIndex;
+import com.ltde.rutherford_d1.support.SqlStatementCounter;
+import com.ltde.rutherford_d1.synthetic.SyntheticDatasetGenerator;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Guards every REST endpoint against N+1 regressions: each one is called against datasets of
+ * 1, 10 and 1,000 patients and must prepare the same number of SQL statements at every size.
+ * The per-patient and per-test endpoints always address the first generated patient, which the
+ * seeded generator produces identically whatever the dataset size.
+ */
+// Not @Transactional: the generator commits on its own threads and the streaming endpoints only see committed rows
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryCountRegressionTest {
+
+    private static final List<Integer> PATIENT_COUNTS = List.of(1, 10, 1_000);
+
+    private static final String MEASUREMENTS = "[{\"value\": 5.0, \"datePerformed\": \"2024-01-01\"},"
+        + " {\"value\": 500.0, \"datePerformed\": \"2024-01-02\"}]";
+
+    /**
+     * Ids the endpoints are called with, resolved after each dataset is generated
+     */
+    record Fixture(long patientId, long testId, long otherTestId) {}
+
+    record Endpoint(String name, Function<Fixture, MockHttpServletRequestBuilder> request) {
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    // Reads first: the two writes at the end must not change what the reads see at the next dataset size
+    private static final List<Endpoint> ENDPOINTS = List.of(
+        new Endpoint("GET /patient", fixture -> get("/patient")),
+        new Endpoint("GET /patient?sort=name", fixture -> get("/patient").param("sort", "name")),
+        new Endpoint("GET /patient?sort=species", fixture -> get("/patient").param("sort", "species")),
+        new Endpoint("GET /patient?sort=lastTestDate", fixture -> get("/patient").param("sort", "lastTestDate")),
+        new Endpoint("GET /patient (NDJSON)", fixture -> get("/patient").accept(MediaType.APPLICATION_NDJSON)),
+        new Endpoint("GET /patient/search?q=555", fixture -> get("/patient/search").param("q", "555")),
+        new Endpoint("GET /patient/{id}", fixture -> get("/patient/{id}", fixture.patientId())),
+        new Endpoint("GET /test", fixture -> get("/test")),
+        new Endpoint("GET /test?sort=name", fixture -> get("/test").param("sort", "name")),
+        new Endpoint("GET /test (NDJSON)", fixture -> get("/test").accept(MediaType.APPLICATION_NDJSON)),
+        new Endpoint("GET /test/{id}", fixture -> get("/test/{id}", fixture.testId())),
+        new Endpoint("GET /test/{id}/trend", fixture -> get("/test/{id}/trend", fixture.testId())),
+        new Endpoint("GET /test/{id}/history", fixture -> get("/test/{id}/history", fixture.testId())),
+        new Endpoint("GET /test/{id}/history?resolution=year",
+            fixture -> get("/test/{id}/history", fixture.testId()).param("resolution", "year")),
+        new Endpoint("GET /test/{id}/series?maxPoints=3",
+            fixture -> get("/test/{id}/series", fixture.testId()).param("maxPoints", "3")),
+        new Endpoint("GET /health/patient/{id}/summary", fixture -> get("/health/patient/{id}/summary", fixture.patientId())),
+        new Endpoint("GET /health/patient/{id}/alerts", fixture -> get("/health/patient/{id}/alerts", fixture.patientId())),
+        new Endpoint("GET /health/alerts", fixture -> get("/health/alerts")),
+        new Endpoint("GET /health/alerts?limit=10", fixture -> get("/health/alerts").param("limit", "10")),
+        new Endpoint("GET /health/alerts (NDJSON)", fixture -> get("/health/alerts").accept(MediaType.APPLICATION_NDJSON)),
+        new Endpoint("POST /test/{id}/parameters:batch", fixture -> post("/test/{id}/parameters:batch", fixture.testId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(MEASUREMENTS)),
+        new Endpoint("POST /test/parameters:batch", fixture -> post("/test/parameters:batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[{\"testId\": " + fixture.testId() + ", \"parameters\": " + MEASUREMENTS + "},"
+                + " {\"testId\": " + fixture.otherTestId() + ", \"parameters\": " + MEASUREMENTS + "}]")));
+    // GET /health/alerts/stream is left out: it only pushes events published by writes and never queries
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SyntheticDatasetGenerator generator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private AlertPriorityIndex alertPriorityIndex;
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    // Endpoint name -> patient count -> statements
+    private final Map<String, Map<Integer, Long>> statementCounts = new LinkedHashMap<>();
+
+    /**
+     * Generates each dataset once and counts the statements of every endpoint against it.
+     * Requests authenticate explicitly because @WithMockUser does not reach @BeforeAll.
+     */
+    @BeforeAll
+    void countStatementsAtEveryDatasetSize() throws Exception {
+        SqlStatementCounter counter = new SqlStatementCounter(mockMvc, entityManagerFactory);
+        Set<Long> patientIds = new HashSet<>();
+        Set<Long> testIds = new HashSet<>();
+        // Loads the alert and search indexes up front (a one-off per application, not a per-request cost) and
+        // picks up patients indexed by earlier tests sharing this context, so they are announced too
+        alertPriorityIndex.top(Integer.MAX_VALUE).forEach(entry -> patientIds.add(entry.patientId()));
+        patientIds.addAll(jdbcTemplate.queryForList("select id from patient", Long.class));
+        patientSearchIndex.awaitLoaded();
+
+        for (int patients : PATIENT_COUNTS) {
+            generator.clearAllData();
+            generator.generate(properties(patients));
+
+            // The generator writes through JDBC without events; announce old and new ids like a write would,
+            // and hand the changed patients to the search index, so the caches and the indexes neither serve
+            // the previous dataset nor need extra reloads
+            patientIds.addAll(jdbcTemplate.queryForList("select id from patient", Long.class));
+            testIds.addAll(jdbcTemplate.queryForList("select id from test", Long.class));
+            eventPublisher.publishEvent(new PatientDataChangedEvent(Set.copyOf(patientIds), Set.copyOf(testIds)));
+            patientSearchIndex.refresh(patientIds);
+
+            Fixture fixture = fixture();
+            for (Endpoint endpoint : ENDPOINTS) {
+                long statements = counter.count(endpoint.request().apply(fixture).with(user("vet")));
+                statementCounts.computeIfAbsent(endpoint.name(), name -> new TreeMap<>()).put(patients, statements);
+            }
+        }
+    }
+
+    @AfterAll
+    void clear() {
+        generator.clearAllData();
+    }
+
+    static List<Endpoint> endpoints() {
+        return ENDPOINTS;
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    void statementCount_ShouldNotGrowWithPatientCount(Endpoint endpoint) {
+        Map<Integer, Long> byPatientCount = statementCounts.get(endpoint.name());
+
+        assertThat(byPatientCount).containsOnlyKeys(PATIENT_COUNTS);
+        assertThat(byPatientCount.values())
+            .as("statements per request of %s by patient count: %s", endpoint, byPatientCount)
+            .containsOnly(byPatientCount.get(PATIENT_COUNTS.get(0)));
+    }
+
+    private Fixture fixture() {
+        long patientId = jdbcTemplate.queryForObject("select min(id) from patient", Long.class);
+        long testId = jdbcTemplate.queryForObject("select min(id) from test where patient_id = ?", Long.class, patientId);
+        long otherTestId = jdbcTemplate.queryForObject("select max(id) from test where patient_id = ?", Long.class, patientId);
+        return new Fixture(patientId, testId, otherTestId);
+    }
+
+    private SyntheticDataProperties properties(int patients) {
+        SyntheticDataProperties properties = new SyntheticDataProperties();
+        properties.setPatients(patients);
+        properties.setMeasurementsPerTest(4);
+        properties.setSeed(18);
+        properties.setWorkers(1);
+        return properties;
+    }
+}
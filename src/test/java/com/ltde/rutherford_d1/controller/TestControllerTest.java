@@ -1,9 +1,17 @@
 package com.ltde.rutherford_d1.controller;
 
+import java.io.ByteArrayInputStream;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,17 +19,31 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.ltde.rutherford_d1.model.Parameter;
 import com.ltde.rutherford_d1.model.Patient;
 import com.ltde.rutherford_d1.repository.ParameterRepository;
 import com.ltde.rutherford_d1.repository.PatientRepository;
 import com.ltde.rutherford_d1.repository.TestRepository;
+import com.ltde.rutherford_d1.service.ParameterService;
+import com.ltde.rutherford_d1.service.TestHistoryService;
+import com.ltde.rutherford_d1.timeseries.TestSeriesStore;
+
+import jakarta.persistence.EntityManager;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -40,6 +62,21 @@ class TestControllerTest {
     @Autowired
     private ParameterRepository parameterRepository;
 
+    @Autowired
+    private ParameterService parameterService;
+
+    @Autowired
+    private TestHistoryService testHistoryService;
+
+    @Autowired
+    private TestSeriesStore testSeriesStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private com.ltde.rutherford_d1.model.Test testDiagnostic;
     private Patient testPatient;
     private Parameter testParameter;
@@ -101,6 +138,27 @@ class TestControllerTest {
             .andExpect(jsonPath("$[0].name", is("Blood Test")));
     }
 
+    @Test
+    void getAllTests_ShouldPageByNameAcrossEqualNames() throws Exception {
+        com.ltde.rutherford_d1.model.Test unnamed = saveTest(null);
+        com.ltde.rutherford_d1.model.Test alpha = saveTest("Alpha Panel");
+        com.ltde.rutherford_d1.model.Test secondBloodTest = saveTest("Blood Test");
+
+        // Unnamed tests sort as "", and the two "Blood Test"s by id, split across the pages
+        MvcResult firstPage = mockMvc.perform(get("/test").param("sort", "name").param("size", "3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].id", contains(unnamed.getId().intValue(), alpha.getId().intValue(),
+                testDiagnostic.getId().intValue())))
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andReturn();
+
+        mockMvc.perform(get("/test").param("sort", "name").param("size", "3")
+                .param("cursor", firstPage.getResponse().getHeader("X-Next-Cursor")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].id", contains(secondBloodTest.getId().intValue())))
+            .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
     @Test
     void getTestById_WithValidId_ShouldReturnTest() throws Exception {
         mockMvc.perform(get("/test/{id}", testDiagnostic.getId()))
@@ -121,4 +179,367 @@ class TestControllerTest {
         mockMvc.perform(get("/test/{id}", 999L))
             .andExpect(status().isNotFound());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void addParameters_ShouldClassifyAndStoreBatch() throws Exception {
+        String body = """
+            [{"value": 14.0, "datePerformed": "2024-01-01"},
+             {"value": 11.0, "datePerformed": "2024-01-02"},
+             {"value": 5.0, "datePerformed": "2024-01-03"}]
+            """;
+
+        mockMvc.perform(post("/test/{id}/parameters:batch", testDiagnostic.getId())
+                .with(user("vet"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.testCount", is(1)))
+            .andExpect(jsonPath("$.parameterCount", is(3)))
+            .andExpect(jsonPath("$.normalCount", is(1)))
+            .andExpect(jsonPath("$.lowCount", is(1)))
+            .andExpect(jsonPath("$.criticalCount", is(1)));
+
+        entityManager.flush();
+        entityManager.clear();
+
+        mockMvc.perform(get("/test/{id}", testDiagnostic.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.parameters", hasSize(4)));
+    }
+
+    @Test
+    void addParameters_ShouldRejectAnonymousWrites() throws Exception {
+        String body = "[{\"value\": 14.0, \"datePerformed\": \"2024-01-01\"}]";
+
+        mockMvc.perform(post("/test/{id}/parameters:batch", testDiagnostic.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(post("/test/parameters:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"testId\": " + testDiagnostic.getId() + ", \"parameters\": " + body + "}]"))
+            .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/test/{id}", testDiagnostic.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.parameters", hasSize(1)));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Series are updated after commit
+    void getTestById_ShouldServeSeriesSortedByDateAndMergeCommittedWrites() throws Exception {
+        try {
+            mockMvc.perform(get("/test/{id}", testDiagnostic.getId()))
+                .andExpect(jsonPath("$.parameters", hasSize(1)))
+                .andExpect(jsonPath("$.parameters[0].status", is("NORMAL")));
+
+            mockMvc.perform(post("/test/{id}/parameters:batch", testDiagnostic.getId())
+                    .with(user("vet"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[{\"value\": 5.0, \"datePerformed\": \"2024-01-01\"}, "
+                        + "{\"value\": 16.0, \"datePerformed\": \"2099-01-01\"}]"))
+                .andExpect(status().isCreated());
+
+            // Merged into the loaded series rather than dropped, and read by the trend report too
+            com.ltde.rutherford_d1.model.Test written = testRepository.findById(testDiagnostic.getId()).orElseThrow();
+            assertThat(testSeriesStore.getLoadedSeries(written).size()).isEqualTo(3);
+            mockMvc.perform(get("/test/{id}", testDiagnostic.getId()))
+                .andExpect(jsonPath("$.parameters", hasSize(3)))
+                .andExpect(jsonPath("$.parameters[0].datePerformed", is("2024-01-01")))
+                .andExpect(jsonPath("$.parameters[0].status", is("CRITICAL")))
+                .andExpect(jsonPath("$.parameters[1].value", is(15.0)))
+                .andExpect(jsonPath("$.parameters[2].value", is(16.0)));
+            mockMvc.perform(get("/test/{id}/trend", testDiagnostic.getId()))
+                .andExpect(jsonPath("$.latestValue", is(16.0)))
+                .andExpect(jsonPath("$.movingAverage3", closeTo(12.0, 1e-9)));
+
+            // Any other write drops the series so the next read reloads it
+            transactionTemplate.executeWithoutResult(status ->
+                parameterService.deleteParameter(parameterRepository.findById(testParameter.getId()).orElseThrow()));
+            written = testRepository.findById(testDiagnostic.getId()).orElseThrow();
+            assertThat(testSeriesStore.getLoadedSeries(written)).isNull();
+            mockMvc.perform(get("/test/{id}", testDiagnostic.getId()))
+                .andExpect(jsonPath("$.parameters", hasSize(2)))
+                .andExpect(jsonPath("$.parameters[1].value", is(16.0)));
+        } finally {
+            parameterRepository.deleteAll();
+            testRepository.deleteAll();
+            patientRepository.deleteAll();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Versions are bumped by the committed write
+    void getTestById_WithCurrentETag_ShouldReturn304UntilParametersChange() throws Exception {
+        try {
+            String etag = mockMvc.perform(get("/test/{id}", testDiagnostic.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + testDiagnostic.getId() + "-0\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(get("/test/{id}", testDiagnostic.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+            mockMvc.perform(post("/test/{id}/parameters:batch", testDiagnostic.getId())
+                    .with(user("vet"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[{\"value\": 5.0, \"datePerformed\": \"2024-01-01\"}]"))
+                .andExpect(status().isCreated());
+
+            mockMvc.perform(get("/test/{id}", testDiagnostic.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + testDiagnostic.getId() + "-1\""))
+                .andExpect(jsonPath("$.parameters", hasSize(2)));
+            mockMvc.perform(get("/patient/{id}", testPatient.getId()))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + testPatient.getId() + "-1\""));
+        } finally {
+            parameterRepository.deleteAll();
+            testRepository.deleteAll();
+            patientRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void getTestById_AcceptingGzip_ShouldServeTheCachedCompressedBody() throws Exception {
+        String batch = IntStream.range(0, 100)
+            .mapToObj(day -> "{\"value\": 14.0, \"datePerformed\": \"" + LocalDate.of(2024, 1, 1).plusDays(day) + "\"}")
+            .collect(Collectors.joining(",", "[", "]"));
+        mockMvc.perform(post("/test/{id}/parameters:batch", testDiagnostic.getId())
+                .with(user("vet"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(batch))
+            .andExpect(status().isCreated());
+        entityManager.flush();
+        entityManager.clear();
+
+        byte[] plain = mockMvc.perform(get("/test/{id}", testDiagnostic.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andExpect(jsonPath("$.parameters", hasSize(101)))
+            .andReturn().getResponse().getContentAsByteArray();
+        byte[] gzipped = mockMvc.perform(get("/test/{id}", testDiagnostic.getId())
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + testDiagnostic.getId() + "-1-gzip\""))
+            .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(gzipped.length).isLessThan(plain.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain);
+        }
+        mockMvc.perform(get("/test/{id}", testDiagnostic.getId()).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *"))
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+
+        // Revalidating the gzip response confirms its own tag; a client no longer accepting gzip gets the plain body
+        String gzipETag = "\"" + testDiagnostic.getId() + "-1-gzip\"";
+        mockMvc.perform(get("/test/{id}", testDiagnostic.getId())
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, gzipETag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, gzipETag))
+            .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)));
+        mockMvc.perform(get("/test/{id}", testDiagnostic.getId()).header(HttpHeaders.IF_NONE_MATCH, gzipETag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + testDiagnostic.getId() + "-1\""))
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void getTestTrend_ShouldFlagSeriesRisingTowardAbnormal() throws Exception {
+        com.ltde.rutherford_d1.model.Test creatinine = new com.ltde.rutherford_d1.model.Test();
+        creatinine.setName("Kidney Panel");
+        creatinine.setParameterName("Creatinine");
+        creatinine.setReferenceMin(12.0);
+        creatinine.setReferenceMax(18.0);
+        creatinine.setPatient(testPatient);
+        creatinine = testRepository.save(creatinine);
+
+        // 30 days apart, rising by 1 each time; posted in two batches so the sums are also updated incrementally
+        LocalDate today = LocalDate.now();
+        String first = """
+            [{"value": 13.0, "datePerformed": "%s"}, {"value": 14.0, "datePerformed": "%s"},
+             {"value": 15.0, "datePerformed": "%s"}]
+            """.formatted(today.minusDays(120), today.minusDays(90), today.minusDays(60));
+        String second = """
+            [{"value": 16.0, "datePerformed": "%s"}, {"value": 17.0, "datePerformed": "%s"}]
+            """.formatted(today.minusDays(30), today);
+        for (String body : new String[] {first, second}) {
+            mockMvc.perform(post("/test/{id}/parameters:batch", creatinine.getId())
+                    .with(user("vet"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body))
+                .andExpect(status().isCreated());
+        }
+
+        double perMonth = 365.2425 / 12 / 30;
+        mockMvc.perform(get("/test/{id}/trend", creatinine.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.pointCount", is(5)))
+            .andExpect(jsonPath("$.latestValue", is(17.0)))
+            .andExpect(jsonPath("$.slopePerMonth", closeTo(perMonth, 1e-9)))
+            .andExpect(jsonPath("$.rateOfChangePerMonth", closeTo(perMonth, 1e-9)))
+            .andExpect(jsonPath("$.movingAverage3", closeTo(16.0, 1e-9)))
+            .andExpect(jsonPath("$.movingAverage6").doesNotExist())
+            .andExpect(jsonPath("$.trendingTowardAbnormal", is(true)));
+
+        mockMvc.perform(get("/test/{id}/trend", 999L))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getTestHistory_ShouldServeMonthsAndYearsMaintainedOnEveryWrite() throws Exception {
+        com.ltde.rutherford_d1.model.Test creatinine = new com.ltde.rutherford_d1.model.Test();
+        creatinine.setName("Kidney Panel");
+        creatinine.setParameterName("Creatinine");
+        creatinine.setReferenceMin(12.0);
+        creatinine.setReferenceMax(18.0);
+        creatinine.setPatient(testPatient);
+        creatinine = testRepository.save(creatinine);
+
+        // The second batch adds to a month that already has a row
+        String first = """
+            [{"value": 11.0, "datePerformed": "2023-01-10"}, {"value": 14.0, "datePerformed": "2023-01-20"},
+             {"value": 19.0, "datePerformed": "2023-06-05"}]
+            """;
+        String second = """
+            [{"value": 16.0, "datePerformed": "2023-01-25"}, {"value": 15.0, "datePerformed": "2024-03-01"}]
+            """;
+        for (String body : new String[] {first, second}) {
+            mockMvc.perform(post("/test/{id}/parameters:batch", creatinine.getId())
+                    .with(user("vet"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body))
+                .andExpect(status().isCreated());
+        }
+
+        String months = mockMvc.perform(get("/test/{id}/history", creatinine.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.resolution", is("month")))
+            .andExpect(jsonPath("$.periods", hasSize(3)))
+            .andExpect(jsonPath("$.periods[0].periodStart", is("2023-01-01")))
+            .andExpect(jsonPath("$.periods[0].count", is(3)))
+            .andExpect(jsonPath("$.periods[0].min", is(11.0)))
+            .andExpect(jsonPath("$.periods[0].max", is(16.0)))
+            .andExpect(jsonPath("$.periods[0].mean", closeTo(41.0 / 3, 1e-9)))
+            .andExpect(jsonPath("$.periods[0].lowCount", is(1)))
+            .andExpect(jsonPath("$.periods[0].normalCount", is(2)))
+            .andExpect(jsonPath("$.periods[2].periodStart", is("2024-03-01")))
+            .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/test/{id}/history", creatinine.getId()).param("resolution", "year"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.periods", hasSize(2)))
+            .andExpect(jsonPath("$.periods[0].periodStart", is("2023-01-01")))
+            .andExpect(jsonPath("$.periods[0].count", is(4)))
+            .andExpect(jsonPath("$.periods[0].min", is(11.0)))
+            .andExpect(jsonPath("$.periods[0].max", is(19.0)))
+            .andExpect(jsonPath("$.periods[0].highCount", is(1)))
+            .andExpect(jsonPath("$.periods[1].count", is(1)));
+
+        // The batch job recomputes the same rows from the raw measurements
+        testHistoryService.rebuild();
+        entityManager.clear();
+        mockMvc.perform(get("/test/{id}/history", creatinine.getId()))
+            .andExpect(content().json(months, true));
+
+        // Deleting the month's minimum recomputes the month
+        Parameter minimum = parameterRepository.findAll().stream()
+            .filter(parameter -> parameter.getValue() == 11.0)
+            .findFirst().orElseThrow();
+        parameterService.deleteParameter(minimum);
+        mockMvc.perform(get("/test/{id}/history", creatinine.getId()))
+            .andExpect(jsonPath("$.periods[0].count", is(2)))
+            .andExpect(jsonPath("$.periods[0].min", is(14.0)))
+            .andExpect(jsonPath("$.periods[0].mean", closeTo(15.0, 1e-9)))
+            .andExpect(jsonPath("$.periods[0].lowCount", is(0)));
+
+        mockMvc.perform(get("/test/{id}/history", creatinine.getId()).param("resolution", "week"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/test/{id}/history", 999L))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getTestSeries_ShouldDownsampleTheRangeAndKeepEveryCriticalPoint() throws Exception {
+        com.ltde.rutherford_d1.model.Test creatinine = new com.ltde.rutherford_d1.model.Test();
+        creatinine.setName("Kidney Panel");
+        creatinine.setParameterName("Creatinine");
+        creatinine.setReferenceMin(12.0);
+        creatinine.setReferenceMax(18.0);
+        creatinine.setPatient(testPatient);
+        creatinine = testRepository.save(creatinine);
+
+        // Daily values around 15, with two critical days next to each other
+        StringBuilder body = new StringBuilder("[");
+        for (int day = 1; day <= 20; day++) {
+            double value = day == 5 ? 30.0 : day == 6 ? 31.0 : 14.0 + day % 3;
+            body.append(day > 1 ? "," : "")
+                .append("{\"value\": %s, \"datePerformed\": \"2023-01-%02d\"}".formatted(value, day));
+        }
+        mockMvc.perform(post("/test/{id}/parameters:batch", creatinine.getId())
+                .with(user("vet"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body.append("]").toString()))
+            .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/test/{id}/series", creatinine.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.pointsInRange", is(20)))
+            .andExpect(jsonPath("$.points", hasSize(20)));
+
+        // One bucket leaves room for a single pick, but both critical days are returned
+        mockMvc.perform(get("/test/{id}/series", creatinine.getId())
+                .param("from", "2023-01-03").param("to", "2023-01-17").param("maxPoints", "3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.from", is("2023-01-03")))
+            .andExpect(jsonPath("$.pointsInRange", is(15)))
+            .andExpect(jsonPath("$.points", hasSize(4)))
+            .andExpect(jsonPath("$.points[0].datePerformed", is("2023-01-03")))
+            .andExpect(jsonPath("$.points[1].datePerformed", is("2023-01-05")))
+            .andExpect(jsonPath("$.points[1].status", is("CRITICAL")))
+            .andExpect(jsonPath("$.points[2].datePerformed", is("2023-01-06")))
+            .andExpect(jsonPath("$.points[3].datePerformed", is("2023-01-17")));
+
+        mockMvc.perform(get("/test/{id}/series", creatinine.getId()).param("maxPoints", "2"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/test/{id}/series", creatinine.getId())
+                .param("from", "2023-02-01").param("to", "2023-01-01"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/test/{id}/series", 999L))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void addParametersToTests_WithUnknownTest_ShouldReturn404() throws Exception {
+        String body = """
+            [{"testId": %d, "parameters": [{"value": 14.0, "datePerformed": "2024-01-01"}]},
+             {"testId": 999, "parameters": [{"value": 14.0, "datePerformed": "2024-01-01"}]}]
+            """.formatted(testDiagnostic.getId());
+
+        mockMvc.perform(post("/test/parameters:batch")
+                .with(user("vet"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void addParameters_WithMissingValue_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/test/{id}/parameters:batch", testDiagnostic.getId())
+                .with(user("vet"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"datePerformed\": \"2024-01-01\"}]"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private com.ltde.rutherford_d1.model.Test saveTest(String name) {
+        com.ltde.rutherford_d1.model.Test test = new com.ltde.rutherford_d1.model.Test();
+        test.setName(name);
+        test.setPatient(testPatient);
+        return testRepository.save(test);
+    }
+}
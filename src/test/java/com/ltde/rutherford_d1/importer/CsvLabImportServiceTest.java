@@ -0,0 +1,174 @@
+package com.ltde.rutherford_d1.importer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ltde.rutherford_d1.dto.HealthSummaryDTO;
+import com.ltde.rutherford_d1.importer.CsvLabImportService.ImportReport;
+import com.ltde.rutherford_d1.model.CsvImportCheckpoint;
+import com.ltde.rutherford_d1.model.Patient;
+import com.ltde.rutherford_d1.repository.CsvImportCheckpointRepository;
+import com.ltde.rutherford_d1.repository.ParameterRepository;
+import com.ltde.rutherford_d1.repository.PatientHealthRollupRepository;
+import com.ltde.rutherford_d1.repository.PatientRepository;
+import com.ltde.rutherford_d1.repository.TestRepository;
+import com.ltde.rutherford_d1.service.HealthSummaryService;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+@Transactional
+class CsvLabImportServiceTest {
+
+    @Autowired
+    private CsvLabImportService importService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TestRepository testRepository;
+
+    @Autowired
+    private ParameterRepository parameterRepository;
+
+    @Autowired
+    private PatientHealthRollupRepository rollupRepository;
+
+    @Autowired
+    private CsvImportCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private HealthSummaryService healthSummaryService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @TempDir
+    private Path tempDir;
+
+    private Patient walter;
+    private Patient bella;
+    private Path export;
+
+    /**
+     * This method is called before each test method due to @BeforeEach annotation.
+     * It creates two patients (one with an existing test) and a CSV export referencing them.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        // Delete all existing data
+        checkpointRepository.deleteAll();
+        rollupRepository.deleteAll();
+        parameterRepository.deleteAll();
+        testRepository.deleteAll();
+        patientRepository.deleteAll();
+
+        walter = savePatient("Walter");
+        bella = savePatient("Bella");
+
+        com.ltde.rutherford_d1.model.Test bloodCount = new com.ltde.rutherford_d1.model.Test();
+        bloodCount.setName("Complete Blood Count");
+        bloodCount.setParameterName("Hemoglobin");
+        bloodCount.setUnit("g/dL");
+        bloodCount.setReferenceMin(12.0);
+        bloodCount.setReferenceMax(18.0);
+        bloodCount.setPatient(walter);
+        bloodCount.setParameters(new ArrayList<>());
+        testRepository.save(bloodCount);
+
+        export = tempDir.resolve("lab-export.csv");
+        Files.writeString(export, """
+            patient_id,test_name,analyte,unit,ref_min,ref_max,value,date
+            %1$d,Complete Blood Count,Hemoglobin,g/dL,12.0,18.0,14.5,2024-03-14
+            %1$d,Complete Blood Count,Hemoglobin,g/dL,12.0,18.0,5.0,2024-03-15
+            %1$d,"Chemistry Panel",Glucose,mg/dL,70,110,120,2024-03-14
+            %2$d,Complete Blood Count,Hemoglobin,g/dL,12.0,18.0,11.5,2024-03-16
+            999999,Complete Blood Count,Hemoglobin,g/dL,12.0,18.0,14.0,2024-03-14
+            %1$d,Complete Blood Count,Hemoglobin,g/dL,12.0,18.0,abc,2024-03-14
+            %2$d,Complete Blood Count,Hemoglobin,g/dL,12.0,18.0,14.0
+            """.formatted(walter.getId(), bella.getId()).replace("\n", "\r\n"));
+    }
+
+    @Test
+    void importFile_ShouldStoreValidRowsAndRejectTheRest() throws Exception {
+        ImportReport report = importService.importFile(export);
+
+        assertThat(report.importedRows()).isEqualTo(4);
+        assertThat(report.rejectedRows()).isEqualTo(3);
+        assertThat(report.rejectedSamples()).extracting(CsvLabImportService.RejectedRow::reason)
+            .containsExactlyInAnyOrder("Unknown patient 999999", "Invalid number or date", "Expected 8 fields, found 7");
+
+        entityManager.flush();
+        entityManager.clear();
+
+        // Walter's existing blood count is reused; the chemistry panel is created from the row
+        assertThat(testRepository.findAllWithPatientByPatientIdIn(List.of(walter.getId())))
+            .extracting(com.ltde.rutherford_d1.model.Test::getName)
+            .containsExactlyInAnyOrder("Complete Blood Count", "Chemistry Panel");
+
+        HealthSummaryDTO walterSummary = healthSummaryService.getHealthSummary(walter.getId());
+        assertThat(walterSummary.totalParameters()).isEqualTo(3);
+        assertThat(walterSummary.normalCount()).isEqualTo(1);
+        assertThat(walterSummary.highCount()).isEqualTo(1);
+        assertThat(walterSummary.criticalCount()).isEqualTo(1);
+        assertThat(healthSummaryService.getHealthSummary(bella.getId()).lowCount()).isEqualTo(1);
+        assertThat(rollupRepository.findById(bella.getId()).orElseThrow().getLastTestDate())
+            .isEqualTo(LocalDate.of(2024, 3, 16));
+    }
+
+    @Test
+    void importFile_WhenAlreadyImported_ShouldNotStoreRowsTwice() throws Exception {
+        importService.importFile(export);
+        ImportReport rerun = importService.importFile(export);
+
+        assertThat(rerun.resumedFromOffset()).isEqualTo(Files.size(export));
+        assertThat(rerun.importedRows()).isZero();
+        assertThat(parameterRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    void importFile_WithCheckpoint_ShouldResumeAfterLastStoredRow() throws Exception {
+        // Simulate a run that stored the first two data rows before stopping
+        String content = Files.readString(export);
+        int thirdRowOffset = content.indexOf('\n', content.indexOf('\n', content.indexOf('\n') + 1) + 1) + 1;
+
+        CsvImportCheckpoint checkpoint = new CsvImportCheckpoint();
+        checkpoint.setSource(export.toAbsolutePath().normalize().toString());
+        checkpoint.setFileSize(Files.size(export));
+        checkpoint.setFileLastModified(Files.getLastModifiedTime(export).toMillis());
+        checkpoint.setByteOffset(thirdRowOffset);
+        checkpoint.setImportedRows(2);
+        checkpointRepository.save(checkpoint);
+
+        ImportReport report = importService.importFile(export);
+
+        assertThat(report.resumedFromOffset()).isEqualTo(thirdRowOffset);
+        assertThat(report.importedRows()).isEqualTo(2);
+        assertThat(report.rejectedRows()).isEqualTo(3);
+        assertThat(checkpointRepository.findById(checkpoint.getSource()).orElseThrow().getImportedRows()).isEqualTo(4);
+    }
+
+    private Patient savePatient(String name) {
+        Patient patient = new Patient();
+        patient.setName(name);
+        patient.setSpecies("Dog");
+        patient.setBreed("Labrador");
+        patient.setDateOfBirth(LocalDate.of(2020, 1, 1));
+        patient.setOwnerName("Test Owner");
+        patient.setOwnerContact("123-456-7890");
+        patient.setTests(new ArrayList<>());
+        return patientRepository.save(patient);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ltde.rutherford_d1.service;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+import com.ltde.rutherford_d1.model.HealthStatus;
+
+class HealthAnalysisServiceTest {
+
+    private static final double[] EDGE_VALUES = {
+        Double.NaN, Double.NEGATIVE_INFINITY, -100.0, -0.0, 0.0, 5.0, 8.4, 8.2, 12.0, 13.5, 18.0, 19.0, 19.8, 19.81,
+        21.6, 100.0, Double.POSITIVE_INFINITY
+    };
+
+    private final HealthAnalysisService healthAnalysisService = new HealthAnalysisService();
+
+    @Test
+    void calculateParameterStatuses_ShouldMatchScalarMethodOnEdgeCases() {
+        // Every combination, including inverted, empty and missing ranges
+        for (double min : EDGE_VALUES) {
+            for (double max : EDGE_VALUES) {
+                byte[] shared = new byte[EDGE_VALUES.length];
+                healthAnalysisService.calculateParameterStatuses(EDGE_VALUES, min, max, shared);
+
+                double[] mins = new double[EDGE_VALUES.length];
+                double[] maxs = new double[EDGE_VALUES.length];
+                Arrays.fill(mins, min);
+                Arrays.fill(maxs, max);
+                byte[] perElement = new byte[EDGE_VALUES.length];
+                healthAnalysisService.calculateParameterStatuses(EDGE_VALUES, mins, maxs, perElement, 0, EDGE_VALUES.length);
+
+                for (int i = 0; i < EDGE_VALUES.length; i++) {
+                    HealthStatus expected = scalar(EDGE_VALUES[i], min, max);
+                    assertThat(HealthAnalysisService.statusOf(shared[i]))
+                        .as("value %s, range [%s, %s]", EDGE_VALUES[i], min, max).isEqualTo(expected);
+                    assertThat(HealthAnalysisService.statusOf(perElement[i]))
+                        .as("value %s, range [%s, %s]", EDGE_VALUES[i], min, max).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void calculateParameterStatuses_ShouldMatchScalarMethodOnRandomRows() {
+        Random random = new Random(42);
+        int rows = 100_000;
+        double[] values = new double[rows];
+        double[] mins = new double[rows];
+        double[] maxs = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            mins[i] = random.nextInt(20) == 0 ? Double.NaN : random.nextDouble() * 100;
+            maxs[i] = mins[i] + random.nextDouble() * 50;
+            values[i] = mins[i] - 40 + random.nextDouble() * 130;
+        }
+
+        byte[] statuses = new byte[rows];
+        healthAnalysisService.calculateParameterStatuses(values, mins, maxs, statuses, 0, rows);
+
+        for (int i = 0; i < rows; i++) {
+            assertThat(HealthAnalysisService.statusOf(statuses[i])).isEqualTo(scalar(values[i], mins[i], maxs[i]));
+        }
+    }
+
+    /**
+     * The scalar method with NaN mapped to null, as documented for the batch methods
+     */
+    private HealthStatus scalar(double value, double min, double max) {
+        return healthAnalysisService.calculateParameterStatus(
+            Double.isNaN(value) ? null : value, Double.isNaN(min) ? null : min, Double.isNaN(max) ? null : max);
+    }
+}
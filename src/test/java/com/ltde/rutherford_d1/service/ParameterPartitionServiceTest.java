@@ -0,0 +1,48 @@
+package com.ltde.rutherford_d1.service;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+import com.ltde.rutherford_d1.service.ParameterPartitionService.Plan;
+
+class ParameterPartitionServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 15);
+
+    @Test
+    void plan_ShouldCreateMissingYearsAheadAndArchiveYearsEntirelyPastRetention() {
+        Plan plan = ParameterPartitionService.plan(Set.of(2014, 2015, 2016, 2025, 2026), Set.of(), TODAY, Period.ofYears(10), 2);
+
+        // The cutoff 2016-03-15 falls inside 2016, which is kept until the whole year is past it
+        assertThat(plan.archive()).containsExactly(2014, 2015);
+        assertThat(plan.create()).containsExactly(2027, 2028);
+    }
+
+    @Test
+    void plan_WithZeroRetention_ShouldKeepEveryYear() {
+        Plan plan = ParameterPartitionService.plan(Set.of(1990, 2026, 2027), Set.of(), TODAY, Period.ZERO, 1);
+
+        assertThat(plan.archive()).isEmpty();
+        assertThat(plan.create()).isEmpty();
+    }
+
+    @Test
+    void plan_ShouldGiveBackDatedYearsTheirOwnPartitionAndArchiveExpiredOnes() {
+        Plan plan = ParameterPartitionService.plan(Set.of(2026, 2027), Set.of(2010, 2023, 2026), TODAY, Period.ofYears(10), 1);
+
+        assertThat(plan.create()).containsExactly(2010, 2023);
+        assertThat(plan.archive()).containsExactly(2010);
+    }
+
+    @Test
+    void plan_ShouldNotCreateYearsThatWouldBeArchivedRightAway() {
+        Plan plan = ParameterPartitionService.plan(Set.of(), Set.of(), TODAY, Period.ofMonths(1), 0);
+
+        assertThat(plan.create()).containsExactly(2026);
+        assertThat(plan.archive()).isEmpty();
+    }
+}
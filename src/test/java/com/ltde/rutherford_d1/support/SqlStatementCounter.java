@@ -0,0 +1,48 @@
+package com.ltde.rutherford_d1.support;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the SQL statements Hibernate prepares while one MockMvc call runs, including the async
+ * dispatch of streaming (NDJSON) responses. Needs {@code spring.jpa.properties.hibernate.generate_statistics=true}.
+ * The statistics are global to the session factory, so nothing else may write while a call is counted.
+ */
+public class SqlStatementCounter {
+
+    private final MockMvc mockMvc;
+    private final Statistics statistics;
+
+    public SqlStatementCounter(MockMvc mockMvc, EntityManagerFactory entityManagerFactory) {
+        this.mockMvc = mockMvc;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            throw new IllegalStateException("Hibernate statistics are disabled; set hibernate.generate_statistics=true");
+        }
+    }
+
+    /**
+     * Perform the request, wait for an async response to complete and return the number of prepared statements.
+     * Fails on an error status so an endpoint that stops working cannot pass with a low count.
+     */
+    public long count(RequestBuilder request) throws Exception {
+        statistics.clear();
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+
+        int status = result.getResponse().getStatus();
+        if (status >= 400) {
+            throw new AssertionError("Request " + result.getRequest().getMethod() + " "
+                + result.getRequest().getRequestURI() + " failed with status " + status);
+        }
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,126 @@
+package com.ltde.rutherford_d1.synthetic;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.ltde.rutherford_d1.config.SyntheticDataProperties;
+import com.ltde.rutherford_d1.model.TestMonthlyRollup;
+import com.ltde.rutherford_d1.model.TestTrendRollup;
+import com.ltde.rutherford_d1.repository.ParameterRepository;
+import com.ltde.rutherford_d1.repository.PatientRepository;
+import com.ltde.rutherford_d1.repository.TestMonthlyRollupRepository;
+import com.ltde.rutherford_d1.repository.TestRepository;
+import com.ltde.rutherford_d1.repository.TestTrendRollupRepository;
+import com.ltde.rutherford_d1.service.PatientHealthRollupService;
+import com.ltde.rutherford_d1.service.PatientHealthRollupService.DriftReport;
+import com.ltde.rutherford_d1.service.TestHistoryService;
+import com.ltde.rutherford_d1.synthetic.SyntheticDatasetGenerator.GenerationReport;
+
+// Not @Transactional: the generator commits one transaction per chunk on its own worker threads
+@SpringBootTest
+class SyntheticDatasetGeneratorTest {
+
+    @Autowired
+    private SyntheticDatasetGenerator generator;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TestRepository testRepository;
+
+    @Autowired
+    private ParameterRepository parameterRepository;
+
+    @Autowired
+    private TestTrendRollupRepository trendRepository;
+
+    @Autowired
+    private TestMonthlyRollupRepository monthlyRepository;
+
+    @Autowired
+    private PatientHealthRollupService rollupService;
+
+    @Autowired
+    private TestHistoryService historyService;
+
+    @BeforeEach
+    @AfterEach
+    void clear() {
+        generator.clearAllData();
+    }
+
+    @Test
+    void generate_ShouldStorePatientsWithConsistentRollups() {
+        GenerationReport report = generator.generate(properties(2, 7));
+
+        assertThat(report.patients()).isEqualTo(30);
+        assertThat(patientRepository.count()).isEqualTo(30);
+        assertThat(testRepository.count()).isEqualTo(report.tests());
+        assertThat(parameterRepository.count()).isEqualTo(report.parameters());
+        assertThat(report.abnormalParameters()).isBetween(report.parameters() / 20, report.parameters() / 3);
+        assertThat(report.criticalParameters()).isPositive();
+
+        // Rollups computed by the generator match the ones recomputed from raw parameters
+        DriftReport drift = rollupService.verify();
+        assertThat(drift.patientsChecked()).isEqualTo(30);
+        assertThat(drift.driftedPatients()).isZero();
+        assertThat(drift.orphanedRollups()).isZero();
+        assertThat(trendRepository.count()).isEqualTo(report.tests());
+        assertThat(trendRepository.findAll().stream().mapToLong(TestTrendRollup::getCount).sum()).isEqualTo(report.parameters());
+
+        Comparator<TestMonthlyRollup> byKey = Comparator.comparing(TestMonthlyRollup::getTestId)
+            .thenComparing(TestMonthlyRollup::getMonthStart);
+        List<TestMonthlyRollup> generated = monthlyRepository.findAll().stream().sorted(byKey).toList();
+        assertThat(historyService.rebuild().monthsWritten()).isEqualTo(generated.size());
+        // Sums may differ in the last bits, as the database adds the values in another order
+        assertThat(monthlyRepository.findAll().stream().sorted(byKey).toList())
+            .usingRecursiveComparison()
+            .withComparatorForType((a, b) -> Math.abs(a - b) < 1e-9 ? 0 : Double.compare(a, b), Double.class)
+            .isEqualTo(generated);
+    }
+
+    @Test
+    void generate_WithSameSeed_ShouldProduceSameDatasetWhateverTheWorkers() {
+        generator.generate(properties(1, 500));
+        List<String> patients = patientSnapshot();
+        List<String> parameters = parameterSnapshot();
+
+        generator.clearAllData();
+        generator.generate(properties(3, 4));
+
+        assertThat(patientSnapshot()).isEqualTo(patients);
+        assertThat(parameterSnapshot()).isEqualTo(parameters);
+    }
+
+    private SyntheticDataProperties properties(int workers, int patientsPerChunk) {
+        SyntheticDataProperties properties = new SyntheticDataProperties();
+        properties.setPatients(30);
+        properties.setSeed(7);
+        properties.setWorkers(workers);
+        properties.setPatientsPerChunk(patientsPerChunk);
+        return properties;
+    }
+
+    private List<String> patientSnapshot() {
+        return patientRepository.findAll().stream()
+            .map(patient -> String.join("|", patient.getName(), patient.getSpecies(), patient.getBreed(),
+                patient.getDateOfBirth().toString(), patient.getOwnerName(), patient.getOwnerContact()))
+            .sorted()
+            .toList();
+    }
+
+    private List<String> parameterSnapshot() {
+        return parameterRepository.findAll().stream()
+            .map(parameter -> parameter.getValue() + "|" + parameter.getDatePerformed() + "|" + parameter.getStatus())
+            .sorted()
+            .toList();
+    }
+}
@@ -0,0 +1,71 @@
+package com.ltde.rutherford_d1.timeseries;
+
+import java.util.BitSet;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+import com.ltde.rutherford_d1.model.HealthStatus;
+
+class SeriesDownsamplerTest {
+
+    @Test
+    void downsample_ShouldKeepFirstLastAndOnePointPerBucket() {
+        TestSeries series = series(1_000, index -> Math.sin(index / 25.0), index -> HealthStatus.NORMAL);
+
+        BitSet kept = SeriesDownsampler.downsample(series, 50);
+
+        assertThat(kept.cardinality()).isEqualTo(50);
+        assertThat(kept.get(0)).isTrue();
+        assertThat(kept.get(999)).isTrue();
+    }
+
+    @Test
+    void downsample_ShouldPickTheSpikeOfABucket() {
+        TestSeries series = series(11, index -> index == 4 ? 10.0 : 0.0, index -> HealthStatus.NORMAL);
+
+        BitSet kept = SeriesDownsampler.downsample(series, 3);
+
+        assertThat(kept.stream().toArray()).containsExactly(0, 4, 10);
+    }
+
+    @Test
+    void downsample_ShouldKeepEveryCriticalPointBeyondMaxPoints() {
+        TestSeries series = series(1_000, index -> index % 7,
+            index -> index % 100 == 50 ? HealthStatus.CRITICAL : HealthStatus.NORMAL);
+
+        BitSet kept = SeriesDownsampler.downsample(series, 5);
+
+        for (int index = 50; index < 1_000; index += 100) {
+            assertThat(kept.get(index)).as("critical point %d", index).isTrue();
+        }
+        assertThat(kept.cardinality()).isBetween(10, 15);
+    }
+
+    @Test
+    void downsample_WithFewPoints_ShouldKeepThemAll() {
+        TestSeries series = series(4, index -> index, index -> HealthStatus.NORMAL);
+
+        assertThat(SeriesDownsampler.downsample(series, 4).cardinality()).isEqualTo(4);
+        assertThat(SeriesDownsampler.downsample(series(0, index -> 0, index -> HealthStatus.NORMAL), 3).isEmpty()).isTrue();
+        assertThatThrownBy(() -> SeriesDownsampler.downsample(series, 2)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static TestSeries series(int size, IntToDoubleFunction value,
+                                     IntFunction<HealthStatus> status) {
+        long[] parameterIds = new long[size];
+        int[] epochDays = new int[size];
+        double[] values = new double[size];
+        byte[] statuses = new byte[size];
+        for (int i = 0; i < size; i++) {
+            parameterIds[i] = i + 1;
+            epochDays[i] = 19_000 + i;
+            values[i] = value.applyAsDouble(i);
+            statuses[i] = (byte) status.apply(i).ordinal();
+        }
+        return TestSeries.of(parameterIds, epochDays, values, statuses, false);
+    }
+}